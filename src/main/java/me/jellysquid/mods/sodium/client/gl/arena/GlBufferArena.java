@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.gl.arena;
 
-import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferTarget;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
@@ -8,21 +9,29 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Comparator;
 
 public class GlBufferArena {
     private static final GlBufferUsage BUFFER_USAGE = GlBufferUsage.GL_DYNAMIC_DRAW;
 
+    /**
+     * The fraction of the used range of the buffer which must be taken up by free segments before the arena is
+     * compacted.
+     */
+    private static final float COMPACTION_THRESHOLD = 0.5f;
+
     private final RenderDevice device;
     private final int resizeIncrement;
 
-    private final Set<GlBufferSegment> freeRegions = new ObjectLinkedOpenHashSet<>();
+    private final GlBufferSegmentAllocator freeRegions = new GlBufferSegmentAllocator();
+    private final ReferenceOpenHashSet<GlBufferSegment> liveSegments = new ReferenceOpenHashSet<>();
 
     private GlMutableBuffer vertexBuffer;
 
     private int position;
     private int capacity;
-    private int allocCount;
+    private int compactionCount;
 
     public GlBufferArena(RenderDevice device, int initialSize, int resizeIncrement) {
         this.device = device;
@@ -69,46 +78,11 @@ public class GlBufferArena {
     }
 
     public void free(GlBufferSegment segment) {
-        if (this.freeRegions.contains(segment)) {
+        if (!this.liveSegments.remove(segment)) {
             throw new IllegalArgumentException("Segment already freed");
         }
 
-        // Attempt merging
-        GlBufferSegment prev = null, next = null;
-        int selfEnd = segment.getEnd();
-        for (GlBufferSegment freeSeg : this.freeRegions) {
-            if (prev != null && next != null)
-                break;
-            if (freeSeg.getStart() == selfEnd) {
-                next = freeSeg;
-            } else if (freeSeg.getEnd() == segment.getStart()) {
-                prev = freeSeg;
-            }
-        }
-
-        if(prev != null || next != null) {
-            int start, end;
-
-            if(prev != null) {
-                this.freeRegions.remove(prev);
-                start = prev.getStart();
-            } else {
-                start = segment.getStart();
-            }
-
-            if(next != null) {
-                this.freeRegions.remove(next);
-                end = next.getEnd();
-            } else {
-                end = segment.getEnd();
-            }
-
-            segment = new GlBufferSegment(this, start, end - start);
-        }
-
-        this.freeRegions.add(segment);
-
-        this.allocCount--;
+        this.freeRegions.free(segment.getStart(), segment.getLength());
     }
 
     private GlBufferSegment alloc(int len) {
@@ -120,37 +94,95 @@ public class GlBufferArena {
             this.position += len;
         }
 
-        this.allocCount++;
+        this.liveSegments.add(segment);
 
         return segment;
     }
 
     private GlBufferSegment allocReuse(int len) {
-        GlBufferSegment bestSegment = null;
+        int start = this.freeRegions.alloc(len);
 
-        for (GlBufferSegment segment : this.freeRegions) {
-            if (segment.getLength() < len) {
-                continue;
-            }
-
-            if (bestSegment == null || bestSegment.getLength() > segment.getLength()) {
-                bestSegment = segment;
-            }
+        if (start < 0) {
+            return null;
         }
 
-        if (bestSegment == null) {
-            return null;
+        return new GlBufferSegment(this, start, len);
+    }
+
+    /**
+     * @return True if enough of the buffer is taken up by free segments between the live segments that compacting it
+     * is worthwhile
+     */
+    public boolean needsCompaction() {
+        long freeBytes = this.freeRegions.getFreeBytes();
+
+        return freeBytes >= this.resizeIncrement && freeBytes > this.position * COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Moves all live segments into a new buffer where they are tightly packed, which removes any free space between
+     * them and shrinks the buffer to fit. The segments are updated in place, so anything which computes its offsets
+     * from them will see the new locations. The buffer returned by {@link GlBufferArena#getBuffer()} is replaced.
+     */
+    public void compact(CommandList commandList) {
+        GlBufferSegment[] segments = this.liveSegments.toArray(new GlBufferSegment[0]);
+        IntArrayList copies = new IntArrayList();
+
+        int usedBytes = relocateSegments(segments, copies);
+
+        GlMutableBuffer src = this.vertexBuffer;
+        GlMutableBuffer dst = commandList.createMutableBuffer(BUFFER_USAGE);
+
+        int newCapacity = usedBytes + this.resizeIncrement;
+
+        commandList.allocateBuffer(GlBufferTarget.COPY_WRITE_BUFFER, dst, newCapacity);
+
+        for (int i = 0; i < copies.size(); i += 3) {
+            commandList.copyBufferSubData(src, dst, copies.getInt(i), copies.getInt(i + 1), copies.getInt(i + 2));
         }
 
-        this.freeRegions.remove(bestSegment);
+        commandList.deleteBuffer(src);
+
+        this.vertexBuffer = dst;
+        this.capacity = newCapacity;
+        this.position = usedBytes;
+        this.freeRegions.clear();
 
-        int excess = bestSegment.getLength() - len;
+        this.compactionCount++;
+    }
 
-        if (excess > 0) {
-            this.freeRegions.add(new GlBufferSegment(this, bestSegment.getStart() + len, excess));
+    /**
+     * Moves the given segments next to each other in the order of their current offsets, starting from zero. Segments
+     * which are already next to each other are moved with a single copy. Each copy which is needed to move the data
+     * of the segments is added to {@code copies} as the triple (read offset, write offset, length).
+     *
+     * @return The total length of the segments, which is where the last of them now ends
+     */
+    static int relocateSegments(GlBufferSegment[] segments, IntArrayList copies) {
+        Arrays.sort(segments, Comparator.comparingInt(GlBufferSegment::getStart));
+
+        int writeOffset = 0;
+        int i = 0;
+
+        while (i < segments.length) {
+            int runStart = segments[i].getStart();
+            int runEnd = runStart;
+            int runOffset = writeOffset;
+
+            while (i < segments.length && segments[i].getStart() == runEnd) {
+                GlBufferSegment segment = segments[i++];
+                runEnd = segment.getEnd();
+
+                segment.setStart(writeOffset);
+                writeOffset += segment.getLength();
+            }
+
+            copies.add(runStart);
+            copies.add(runOffset);
+            copies.add(runEnd - runStart);
         }
 
-        return new GlBufferSegment(this, bestSegment.getStart(), len);
+        return writeOffset;
     }
 
     public void delete() {
@@ -160,7 +192,36 @@ public class GlBufferArena {
     }
 
     public boolean isEmpty() {
-        return this.allocCount <= 0;
+        return this.liveSegments.isEmpty();
+    }
+
+    /**
+     * @return The size of the buffer in bytes
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return The number of bytes taken up by live segments
+     */
+    public long getUsedBytes() {
+        return this.position - this.freeRegions.getFreeBytes();
+    }
+
+    /**
+     * @return The number of bytes taken up by free segments between the live segments
+     */
+    public long getFreeBytes() {
+        return this.freeRegions.getFreeBytes();
+    }
+
+    public int getFreeSegmentCount() {
+        return this.freeRegions.getFreeSegmentCount();
+    }
+
+    public int getCompactionCount() {
+        return this.compactionCount;
     }
 
     public GlBuffer getBuffer() {
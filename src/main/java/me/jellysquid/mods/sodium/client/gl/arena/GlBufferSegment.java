@@ -2,7 +2,7 @@ package me.jellysquid.mods.sodium.client.gl.arena;
 
 public class GlBufferSegment {
     private final GlBufferArena arena;
-    private final int start;
+    private int start;
     private final int len;
 
     GlBufferSegment(GlBufferArena arena, int start, int len) {
@@ -23,6 +23,13 @@ public class GlBufferSegment {
         return this.start + this.len;
     }
 
+    /**
+     * Moves this segment to a new offset after its data has been relocated by a compaction of the arena.
+     */
+    void setStart(int start) {
+        this.start = start;
+    }
+
     public void delete() {
         this.arena.free(this);
     }
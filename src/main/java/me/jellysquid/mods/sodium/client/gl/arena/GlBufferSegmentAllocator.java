@@ -0,0 +1,178 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.longs.LongRBTreeSet;
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+
+/**
+ * Keeps track of the free space within a {@link GlBufferArena} and finds the best fitting free segment for new
+ * allocations. This does not touch any OpenGL state, it only deals with offsets and lengths.
+ *
+ * Free segments are stored as packed longs in two indices. The first one is sorted by the start of each segment, which
+ * allows the neighbours of a freed segment to be found in O(log n) time so that they can be merged. The second one
+ * segregates the free segments into power-of-two size classes which are each sorted by length, which allows the
+ * smallest segment that fits an allocation to be found in O(log n) time.
+ */
+public class GlBufferSegmentAllocator {
+    private static final int SIZE_CLASS_COUNT = 32;
+
+    // The free segments as (start << 32 | length), sorted by start
+    private final LongRBTreeSet segmentsByStart = new LongRBTreeSet();
+
+    // The free segments as (length << 32 | start), with the segments of each size class sorted by length
+    private final LongRBTreeSet[] segmentsBySize = new LongRBTreeSet[SIZE_CLASS_COUNT];
+
+    // One bit for each size class which contains at least one free segment
+    private int nonEmptySizeClasses;
+
+    private long freeBytes;
+
+    public GlBufferSegmentAllocator() {
+        for (int i = 0; i < SIZE_CLASS_COUNT; i++) {
+            this.segmentsBySize[i] = new LongRBTreeSet();
+        }
+    }
+
+    /**
+     * Removes the smallest free segment which is at least {@code len} bytes long, and returns any excess space to the
+     * free list.
+     * @return The start of the allocated space, or -1 if no free segment is large enough
+     */
+    public int alloc(int len) {
+        int sizeClass = getSizeClass(len);
+
+        // The first size class may also contain segments which are too small, so only it needs to be searched
+        LongSortedSet candidates = this.segmentsBySize[sizeClass].tailSet(packBySize(len, 0));
+
+        long best;
+
+        if (!candidates.isEmpty()) {
+            best = candidates.firstLong();
+        } else {
+            // Every segment in a larger size class fits, so the smallest one in the next non-empty class is the best
+            int larger = this.nonEmptySizeClasses & (-2 << sizeClass);
+
+            if (larger == 0) {
+                return -1;
+            }
+
+            best = this.segmentsBySize[Integer.numberOfTrailingZeros(larger)].firstLong();
+        }
+
+        int start = (int) best;
+        int length = (int) (best >>> 32);
+
+        this.removeFreeSegment(start, length);
+
+        if (length > len) {
+            this.addFreeSegment(start + len, length - len);
+        }
+
+        return start;
+    }
+
+    /**
+     * Returns the given space to the free list, merging it with the free segments directly before and after it.
+     * @throws IllegalArgumentException If any of the space is already free
+     */
+    public void free(int start, int len) {
+        long key = packByStart(start, 0);
+        int end = start + len;
+
+        LongSortedSet before = this.segmentsByStart.headSet(key);
+
+        if (!before.isEmpty()) {
+            long prev = before.lastLong();
+            int prevStart = (int) (prev >>> 32);
+            int prevEnd = prevStart + (int) prev;
+
+            if (prevEnd > start) {
+                throw new IllegalArgumentException("Segment already freed");
+            }
+
+            if (prevEnd == start) {
+                this.removeFreeSegment(prevStart, (int) prev);
+                start = prevStart;
+            }
+        }
+
+        LongSortedSet after = this.segmentsByStart.tailSet(key);
+
+        if (!after.isEmpty()) {
+            long next = after.firstLong();
+            int nextStart = (int) (next >>> 32);
+
+            if (nextStart < end) {
+                throw new IllegalArgumentException("Segment already freed");
+            }
+
+            if (nextStart == end) {
+                this.removeFreeSegment(nextStart, (int) next);
+                end = nextStart + (int) next;
+            }
+        }
+
+        this.addFreeSegment(start, end - start);
+    }
+
+    public void clear() {
+        this.segmentsByStart.clear();
+
+        for (LongRBTreeSet segments : this.segmentsBySize) {
+            segments.clear();
+        }
+
+        this.nonEmptySizeClasses = 0;
+        this.freeBytes = 0;
+    }
+
+    /**
+     * @return The number of free segments, which is a measure of how fragmented the free space is
+     */
+    public int getFreeSegmentCount() {
+        return this.segmentsByStart.size();
+    }
+
+    /**
+     * @return The total number of bytes across all free segments
+     */
+    public long getFreeBytes() {
+        return this.freeBytes;
+    }
+
+    private void addFreeSegment(int start, int len) {
+        int sizeClass = getSizeClass(len);
+
+        this.segmentsByStart.add(packByStart(start, len));
+        this.segmentsBySize[sizeClass].add(packBySize(len, start));
+
+        this.nonEmptySizeClasses |= 1 << sizeClass;
+        this.freeBytes += len;
+    }
+
+    private void removeFreeSegment(int start, int len) {
+        int sizeClass = getSizeClass(len);
+
+        this.segmentsByStart.remove(packByStart(start, len));
+
+        LongRBTreeSet segments = this.segmentsBySize[sizeClass];
+        segments.remove(packBySize(len, start));
+
+        if (segments.isEmpty()) {
+            this.nonEmptySizeClasses &= ~(1 << sizeClass);
+        }
+
+        this.freeBytes -= len;
+    }
+
+    private static int getSizeClass(int len) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(len, 1));
+    }
+
+    private static long packByStart(int start, int len) {
+        return ((long) start << 32) | (len & 0xFFFFFFFFL);
+    }
+
+    private static long packBySize(int len, int start) {
+        return ((long) len << 32) | (start & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,144 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlPersistentBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A staging buffer for uploads which is persistently mapped into client memory and used as a ring. Data is copied
+ * directly into the mapped memory and then copied into its destination buffer on the GPU, which avoids re-specifying
+ * the storage of a scratch buffer (and the extra copy made by the driver) for every upload.
+ *
+ * Since the GPU reads from the staging memory asynchronously, every batch of writes is followed by a fence once the
+ * copies reading from it have been submitted. Memory is only re-used once the fence of the batch which last wrote to it
+ * has been signalled, blocking on the oldest fence if the ring has filled up.
+ */
+public class GlStagingRingBuffer {
+    private final GlPersistentBuffer buffer;
+    private final int capacity;
+
+    private final ObjectArrayFIFOQueue<PendingBatch> pendingBatches = new ObjectArrayFIFOQueue<>();
+
+    // The offset at which the next write will start
+    private int head;
+
+    // The number of bytes which are still in use by writes, including writes which haven't been fenced yet
+    private int used;
+
+    // The number of bytes which have been written since the last fence, including any padding skipped at the end
+    private int unfencedBytes;
+
+    public GlStagingRingBuffer(CommandList commandList, int capacity) {
+        this.buffer = commandList.createPersistentBuffer(capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Copies the remaining bytes of {@code data} into the staging memory, waiting for earlier copies to finish if
+     * there isn't enough space available.
+     * @return The offset in the staging buffer the data was written at, or -1 if the data is larger than the buffer
+     */
+    public int write(CommandList commandList, ByteBuffer data) {
+        int len = data.remaining();
+
+        if (len > this.capacity) {
+            return -1;
+        }
+
+        // Allocations never wrap around the end of the buffer, so skip the remaining space if it can't hold the data
+        int padding = this.head + len > this.capacity ? this.capacity - this.head : 0;
+
+        if (padding + len > this.capacity) {
+            // The data only fits once the whole buffer is free again, at which point it can start from the beginning
+            this.reclaim(commandList, this.capacity);
+
+            this.head = 0;
+            padding = 0;
+        } else {
+            this.reclaim(commandList, padding + len);
+        }
+
+        if (padding > 0) {
+            this.head = 0;
+        }
+
+        int offset = this.head;
+
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), this.buffer.getAddress() + offset, len);
+
+        this.head = (offset + len) % this.capacity;
+        this.used += padding + len;
+        this.unfencedBytes += padding + len;
+
+        return offset;
+    }
+
+    /**
+     * Inserts a fence after all copies which have been submitted so far. This must be called after the copies reading
+     * from the data returned by {@link GlStagingRingBuffer#write(CommandList, ByteBuffer)} have been submitted.
+     */
+    public void flush(CommandList commandList) {
+        if (this.unfencedBytes == 0) {
+            return;
+        }
+
+        this.pendingBatches.enqueue(new PendingBatch(commandList.createFence(), this.unfencedBytes));
+        this.unfencedBytes = 0;
+    }
+
+    /**
+     * Frees the memory of batches which the GPU has finished with, blocking until at least {@code bytes} are free.
+     */
+    private void reclaim(CommandList commandList, int bytes) {
+        while (!this.pendingBatches.isEmpty()) {
+            PendingBatch batch = this.pendingBatches.first();
+
+            if (this.capacity - this.used >= bytes) {
+                // Enough space is already available, so only release batches which are done without waiting
+                if (!batch.fence.isCompleted()) {
+                    break;
+                }
+            } else {
+                batch.fence.sync();
+            }
+
+            batch.fence.delete();
+
+            this.pendingBatches.dequeue();
+            this.used -= batch.length;
+        }
+
+        if (this.capacity - this.used < bytes) {
+            // The only memory left in use was written since the last fence, so fence it and wait for it to be released
+            this.flush(commandList);
+            this.reclaim(commandList, bytes);
+        }
+    }
+
+    public GlBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    public void delete(CommandList commandList) {
+        while (!this.pendingBatches.isEmpty()) {
+            this.pendingBatches.dequeue().fence.delete();
+        }
+
+        commandList.deleteBuffer(this.buffer);
+    }
+
+    private static class PendingBatch {
+        private final GlFence fence;
+        private final int length;
+
+        private PendingBatch(GlFence fence, int length) {
+            this.fence = fence;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package me.jellysquid.mods.sodium.client.gl.buffer;
+
+import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
+
+/**
+ * An immutable buffer type which is supported with OpenGL 4.4+ or the ARB_buffer_storage extension. The storage of the
+ * buffer is allocated once and stays mapped into client memory for the lifetime of the buffer, which allows it to be
+ * written to directly without any calls into the driver. Writes are coherent, so they become visible to the GPU
+ * without needing to be flushed, but the client must not overwrite memory which is still being read by the GPU.
+ */
+public class GlPersistentBuffer extends GlBuffer {
+    private final long size;
+    private long address;
+
+    public GlPersistentBuffer(RenderDevice owner, long size) {
+        super(owner, GlBufferUsage.GL_STREAM_DRAW);
+
+        this.size = size;
+    }
+
+    public void setAddress(long address) {
+        this.address = address;
+    }
+
+    /**
+     * @return The address of the mapped storage of this buffer in client memory
+     */
+    public long getAddress() {
+        return this.address;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+}
@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.gl.device;
 
 import me.jellysquid.mods.sodium.client.gl.array.GlVertexArray;
 import me.jellysquid.mods.sodium.client.gl.buffer.*;
+import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlPrimitiveType;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
 import me.jellysquid.mods.sodium.client.gl.tessellation.TessellationBinding;
@@ -13,7 +14,26 @@ public interface CommandList extends AutoCloseable {
 
     GlMutableBuffer createMutableBuffer(GlBufferUsage usage);
 
-    GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings);
+    /**
+     * Creates a buffer with immutable storage of the given size which stays mapped for writing until it is deleted.
+     * Requires {@link me.jellysquid.mods.sodium.client.gl.func.GlFunctions#isBufferStorageSupported()}.
+     */
+    GlPersistentBuffer createPersistentBuffer(long size);
+
+    /**
+     * Inserts a fence into the command stream which is signalled once all previously submitted commands have completed.
+     */
+    GlFence createFence();
+
+    default GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+        return this.createTessellation(primitiveType, bindings, null);
+    }
+
+    /**
+     * Creates a tessellation which also binds the given index buffer for indexed draw calls.
+     * @param indexBuffer The index buffer to bind, or null if the tessellation is only used for non-indexed draws
+     */
+    GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings, GlBuffer indexBuffer);
 
     void bindVertexArray(GlVertexArray array);
 
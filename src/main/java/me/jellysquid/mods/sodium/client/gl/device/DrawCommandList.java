@@ -7,6 +7,18 @@ public interface DrawCommandList extends AutoCloseable {
 
     void multiDrawArraysIndirect(long pointer, int count, int stride);
 
+    /**
+     * Draws the first {@param count} indices of the index buffer bound to the active tessellation. Indices are
+     * always 32-bit unsigned integers.
+     */
+    void drawElements(int count);
+
+    /**
+     * Performs a batch of indexed draw calls using the index buffer bound to the active tessellation. Indices are
+     * always 32-bit unsigned integers.
+     */
+    void multiDrawElementsIndirect(long pointer, int count, int stride);
+
     void endTessellating();
 
     void flush();
@@ -5,8 +5,10 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferTarget;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlPersistentBuffer;
 import me.jellysquid.mods.sodium.client.gl.func.GlFunctions;
 import me.jellysquid.mods.sodium.client.gl.state.GlStateTracker;
+import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
 import me.jellysquid.mods.sodium.client.gl.tessellation.*;
 import org.lwjgl.opengl.*;
 
@@ -170,14 +172,33 @@ public class GLRenderDevice implements RenderDevice {
         }
 
         @Override
-        public GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+        public GlPersistentBuffer createPersistentBuffer(long size) {
+            GlPersistentBuffer buffer = new GlPersistentBuffer(GLRenderDevice.this, size);
+
+            this.bindBuffer(GlBufferTarget.COPY_READ_BUFFER, buffer);
+
+            int flags = GL30C.GL_MAP_WRITE_BIT | GL44C.GL_MAP_PERSISTENT_BIT | GL44C.GL_MAP_COHERENT_BIT;
+
+            GlFunctions.BUFFER_STORAGE.glBufferStorage(GlBufferTarget.COPY_READ_BUFFER.getTargetParameter(), size, flags);
+            buffer.setAddress(GL30C.nglMapBufferRange(GlBufferTarget.COPY_READ_BUFFER.getTargetParameter(), 0L, size, flags));
+
+            return buffer;
+        }
+
+        @Override
+        public GlFence createFence() {
+            return new GlFence(GL32C.glFenceSync(GL32C.GL_SYNC_GPU_COMMANDS_COMPLETE, 0));
+        }
+
+        @Override
+        public GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings, GlBuffer indexBuffer) {
             if (GlVertexArrayTessellation.isSupported()) {
-                GlVertexArrayTessellation tessellation = new GlVertexArrayTessellation(new GlVertexArray(GLRenderDevice.this), primitiveType, bindings);
+                GlVertexArrayTessellation tessellation = new GlVertexArrayTessellation(new GlVertexArray(GLRenderDevice.this), primitiveType, bindings, indexBuffer);
                 tessellation.init(this);
 
                 return tessellation;
             } else {
-                return new GlFallbackTessellation(primitiveType, bindings);
+                return new GlFallbackTessellation(primitiveType, bindings, indexBuffer);
             }
         }
     }
@@ -199,6 +220,18 @@ public class GLRenderDevice implements RenderDevice {
             GlFunctions.INDIRECT_DRAW.glMultiDrawArraysIndirect(primitiveType.getId(), pointer, count, stride);
         }
 
+        @Override
+        public void drawElements(int count) {
+            GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
+            GL20C.glDrawElements(primitiveType.getId(), count, GL20C.GL_UNSIGNED_INT, 0L);
+        }
+
+        @Override
+        public void multiDrawElementsIndirect(long pointer, int count, int stride) {
+            GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
+            GlFunctions.INDIRECT_DRAW.glMultiDrawElementsIndirect(primitiveType.getId(), GL20C.GL_UNSIGNED_INT, pointer, count, stride);
+        }
+
         @Override
         public void endTessellating() {
             GLRenderDevice.this.activeTessellation.unbind(GLRenderDevice.this.commandList);
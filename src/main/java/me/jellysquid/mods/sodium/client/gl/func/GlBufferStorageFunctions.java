@@ -0,0 +1,41 @@
+package me.jellysquid.mods.sodium.client.gl.func;
+
+import org.lwjgl.opengl.ARBBufferStorage;
+import org.lwjgl.opengl.GL44C;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Requires OpenGL 4.4+ or the ARB_buffer_storage extension.
+ */
+public enum GlBufferStorageFunctions {
+    CORE {
+        @Override
+        public void glBufferStorage(int target, long size, int flags) {
+            GL44C.glBufferStorage(target, size, flags);
+        }
+    },
+    ARB {
+        @Override
+        public void glBufferStorage(int target, long size, int flags) {
+            ARBBufferStorage.glBufferStorage(target, size, flags);
+        }
+    },
+    UNSUPPORTED {
+        @Override
+        public void glBufferStorage(int target, long size, int flags) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    static GlBufferStorageFunctions load(GLCapabilities capabilities) {
+        if (capabilities.OpenGL44) {
+            return GlBufferStorageFunctions.CORE;
+        } else if (capabilities.GL_ARB_buffer_storage) {
+            return GlBufferStorageFunctions.ARB;
+        } else {
+            return GlBufferStorageFunctions.UNSUPPORTED;
+        }
+    }
+
+    public abstract void glBufferStorage(int target, long size, int flags);
+}
@@ -10,6 +10,7 @@ public class GlFunctions {
     public static final GlBufferCopyFunctions BUFFER_COPY = GlBufferCopyFunctions.load(capabilities);
     public static final GlIndirectMultiDrawFunctions INDIRECT_DRAW = GlIndirectMultiDrawFunctions.load(capabilities);
     public static final GlInstancedArrayFunctions INSTANCED_ARRAY = GlInstancedArrayFunctions.load(capabilities);
+    public static final GlBufferStorageFunctions BUFFER_STORAGE = GlBufferStorageFunctions.load(capabilities);
 
     public static boolean isVertexArraySupported() {
         return VERTEX_ARRAY != GlVertexArrayFunctions.UNSUPPORTED;
@@ -26,4 +27,12 @@ public class GlFunctions {
     public static boolean isInstancedArraySupported() {
         return INSTANCED_ARRAY != GlInstancedArrayFunctions.UNSUPPORTED;
     }
+
+    public static boolean isBufferStorageSupported() {
+        return BUFFER_STORAGE != GlBufferStorageFunctions.UNSUPPORTED;
+    }
+
+    public static boolean isShaderTextureLodSupported() {
+        return capabilities.GL_ARB_shader_texture_lod;
+    }
 }
@@ -10,18 +10,33 @@ public enum GlIndirectMultiDrawFunctions {
         public void glMultiDrawArraysIndirect(int mode, long indirect, int primcount, int stride) {
             GL43C.glMultiDrawArraysIndirect(mode, indirect, primcount, stride);
         }
+
+        @Override
+        public void glMultiDrawElementsIndirect(int mode, int type, long indirect, int primcount, int stride) {
+            GL43C.glMultiDrawElementsIndirect(mode, type, indirect, primcount, stride);
+        }
     },
     ARB {
         @Override
         public void glMultiDrawArraysIndirect(int mode, long indirect, int primcount, int stride) {
             ARBMultiDrawIndirect.glMultiDrawArraysIndirect(mode, indirect, primcount, stride);
         }
+
+        @Override
+        public void glMultiDrawElementsIndirect(int mode, int type, long indirect, int primcount, int stride) {
+            ARBMultiDrawIndirect.glMultiDrawElementsIndirect(mode, type, indirect, primcount, stride);
+        }
     },
     UNSUPPORTED {
         @Override
         public void glMultiDrawArraysIndirect(int mode, long indirect, int primcount, int stride) {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public void glMultiDrawElementsIndirect(int mode, int type, long indirect, int primcount, int stride) {
+            throw new UnsupportedOperationException();
+        }
     };
 
     public static GlIndirectMultiDrawFunctions load(GLCapabilities capabilities) {
@@ -35,4 +50,6 @@ public enum GlIndirectMultiDrawFunctions {
     }
 
     public abstract void glMultiDrawArraysIndirect(int mode, long indirect, int primcount, int stride);
+
+    public abstract void glMultiDrawElementsIndirect(int mode, int type, long indirect, int primcount, int stride);
 }
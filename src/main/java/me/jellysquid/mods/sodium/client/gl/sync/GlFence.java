@@ -0,0 +1,56 @@
+package me.jellysquid.mods.sodium.client.gl.sync;
+
+import org.lwjgl.opengl.GL32C;
+
+/**
+ * A fence sync object which is signalled once the GPU has finished executing all commands which were submitted before
+ * it. Requires OpenGL 3.2+.
+ */
+public class GlFence {
+    private long id;
+
+    public GlFence(long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return True if the GPU has finished executing all commands submitted before this fence, without blocking
+     */
+    public boolean isCompleted() {
+        this.checkValid();
+
+        int result = GL32C.glClientWaitSync(this.id, 0, 0L);
+
+        return result == GL32C.GL_ALREADY_SIGNALED || result == GL32C.GL_CONDITION_SATISFIED;
+    }
+
+    /**
+     * Blocks until the GPU has finished executing all commands submitted before this fence.
+     */
+    public void sync() {
+        this.checkValid();
+
+        int result;
+
+        do {
+            result = GL32C.glClientWaitSync(this.id, GL32C.GL_SYNC_FLUSH_COMMANDS_BIT, 1_000_000L);
+        } while (result == GL32C.GL_TIMEOUT_EXPIRED);
+
+        if (result == GL32C.GL_WAIT_FAILED) {
+            throw new RuntimeException("Failed to wait on fence");
+        }
+    }
+
+    public void delete() {
+        this.checkValid();
+
+        GL32C.glDeleteSync(this.id);
+        this.id = 0L;
+    }
+
+    private void checkValid() {
+        if (this.id == 0L) {
+            throw new IllegalStateException("Fence has been deleted");
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package me.jellysquid.mods.sodium.client.gl.tessellation;
 
 import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferTarget;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.func.GlFunctions;
 
 import com.mojang.blaze3d.platform.GlStateManager;
+import org.lwjgl.opengl.GL20C;
 
 public abstract class GlAbstractTessellation implements GlTessellation {
     protected final GlPrimitiveType primitiveType;
     protected final TessellationBinding[] bindings;
+    protected final GlBuffer indexBuffer;
 
-    protected GlAbstractTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+    protected GlAbstractTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings, GlBuffer indexBuffer) {
         this.primitiveType = primitiveType;
         this.bindings = bindings;
+        this.indexBuffer = indexBuffer;
     }
 
     @Override
@@ -35,5 +39,10 @@ public abstract class GlAbstractTessellation implements GlTessellation {
                 }
             }
         }
+
+        // The element array binding is part of the vertex array state, so it is not tracked by the command list
+        if (this.indexBuffer != null) {
+            GlStateManager._glBindBuffer(GL20C.GL_ELEMENT_ARRAY_BUFFER, this.indexBuffer.handle());
+        }
     }
 }
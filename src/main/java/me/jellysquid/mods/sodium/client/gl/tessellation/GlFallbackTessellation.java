@@ -1,12 +1,14 @@
 package me.jellysquid.mods.sodium.client.gl.tessellation;
 
+import com.mojang.blaze3d.platform.GlStateManager;
 import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import org.lwjgl.opengl.GL20C;
 
 public class GlFallbackTessellation extends GlAbstractTessellation {
-    public GlFallbackTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
-        super(primitiveType, bindings);
+    public GlFallbackTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings, GlBuffer indexBuffer) {
+        super(primitiveType, bindings, indexBuffer);
     }
 
     @Override
@@ -26,5 +28,9 @@ public class GlFallbackTessellation extends GlAbstractTessellation {
                 GL20C.glDisableVertexAttribArray(attrib.getIndex());
             }
         }
+
+        if (this.indexBuffer != null) {
+            GlStateManager._glBindBuffer(GL20C.GL_ELEMENT_ARRAY_BUFFER, GlBuffer.NULL_BUFFER_ID);
+        }
     }
 }
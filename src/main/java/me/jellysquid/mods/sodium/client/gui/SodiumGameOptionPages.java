@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.mojang.blaze3d.pipeline.RenderTarget;
 import com.mojang.blaze3d.platform.Window;
 import me.jellysquid.mods.sodium.client.compat.modernui.MuiGuiScaleHook;
+import me.jellysquid.mods.sodium.client.gl.func.GlFunctions;
 import me.jellysquid.mods.sodium.client.gui.options.*;
 import me.jellysquid.mods.sodium.client.gui.options.binding.compat.VanillaBooleanOptionBinding;
 import me.jellysquid.mods.sodium.client.gui.options.control.ControlValueFormatter;
@@ -245,6 +246,15 @@ public class SodiumGameOptionPages {
                         .setImpact(OptionImpact.EXTREME)
                         .setEnabled(MultidrawChunkRenderBackend.isSupported(sodiumOpts.getData().advanced.ignoreDriverBlacklist))
                         .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.use_persistent_mapping.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.use_persistent_mapping.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.advanced.usePersistentMapping = value, opts -> opts.advanced.usePersistentMapping)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(GlFunctions.isBufferStorageSupported())
+                        .build())
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(new TranslatableComponent("sodium.options.use_vertex_objects.name"))
                         .setTooltip(new TranslatableComponent("sodium.options.use_vertex_objects.tooltip"))
@@ -283,6 +293,15 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.cache_reachable_sections.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.cache_reachable_sections.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.advanced.cacheReachableSections = value, opts -> opts.advanced.cacheReachableSections)
+                        .setImpact(OptionImpact.LOW)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(new TranslatableComponent("sodium.options.translucency_sorting.name"))
                         .setTooltip(new TranslatableComponent("sodium.options.translucency_sorting.tooltip"))
@@ -292,6 +311,24 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.use_translucent_index_buffers.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.use_translucent_index_buffers.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.advanced.useTranslucentIndexBuffers = value, opts -> opts.advanced.useTranslucentIndexBuffers)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.merge_block_faces.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.merge_block_faces.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.advanced.mergeBlockFaces = value, opts -> opts.advanced.mergeBlockFaces)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(new TranslatableComponent("sodium.options.use_entity_culling.name"))
                         .setTooltip(new TranslatableComponent("sodium.options.use_entity_culling.tooltip"))
@@ -355,6 +392,22 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.performance.alwaysDeferChunkUpdates = value, opts -> opts.performance.alwaysDeferChunkUpdates)
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.prioritize_chunk_updates.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.prioritize_chunk_updates.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.performance.prioritizeChunkUpdates = value, opts -> opts.performance.prioritizeChunkUpdates)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableComponent("sodium.options.adaptive_chunk_update_threads.name"))
+                        .setTooltip(new TranslatableComponent("sodium.options.adaptive_chunk_update_threads.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.performance.adaptiveChunkBuilderThreads = value, opts -> opts.performance.adaptiveChunkBuilderThreads)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
                 .build());
 
         return new OptionPage(new TranslatableComponent("sodium.options.pages.performance"), ImmutableList.copyOf(groups));
@@ -28,22 +28,28 @@ public class SodiumGameOptions {
     public static class AdvancedSettings {
         public boolean useVertexArrayObjects = true;
         public boolean useChunkMultidraw = true;
+        public boolean usePersistentMapping = true;
 
         public boolean animateOnlyVisibleTextures = true;
         public boolean useEntityCulling = true;
         public boolean useParticleCulling = true;
         public boolean useFogOcclusion = true;
+        public boolean cacheReachableSections = false;
         public boolean useCompactVertexFormat = true;
         public boolean useBlockFaceCulling = true;
         public boolean allowDirectMemoryAccess = true;
         public boolean ignoreDriverBlacklist = false;
         public boolean translucencySorting = false;
+        public boolean useTranslucentIndexBuffers = true;
+        public boolean mergeBlockFaces = false;
         public boolean disableIncompatibleModWarnings = false;
     }
 
     public static class PerformanceSettings {
         public int chunkBuilderThreads = 0;
         public boolean alwaysDeferChunkUpdates = false;
+        public boolean prioritizeChunkUpdates = true;
+        public boolean adaptiveChunkBuilderThreads = true;
     }
 
     public static class QualitySettings {
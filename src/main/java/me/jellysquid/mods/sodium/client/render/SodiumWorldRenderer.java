@@ -12,6 +12,7 @@ import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.compat.FogHelper;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
+import me.jellysquid.mods.sodium.client.gl.func.GlFunctions;
 import me.jellysquid.mods.sodium.client.gui.SodiumGameOptions;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderBackend;
@@ -22,9 +23,12 @@ import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.DefaultModelVertexFormats;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
+import me.jellysquid.mods.sodium.client.render.pipeline.BlockModelQuadCache;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheShared;
+import me.jellysquid.mods.sodium.client.util.math.AabbBatch;
 import me.jellysquid.mods.sodium.client.util.math.FrustumExtended;
+import me.jellysquid.mods.sodium.client.world.BlockStateFlagTable;
 import me.jellysquid.mods.sodium.client.world.ChunkStatusListener;
 import me.jellysquid.mods.sodium.client.world.ChunkStatusListenerManager;
 import me.jellysquid.mods.sodium.client.world.WorldRendererExtended;
@@ -50,9 +54,11 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.fml.loading.FMLLoader;
+import org.embeddedt.embeddium.render.ShaderModBridge;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -76,6 +82,9 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
     private final LongSet loadedChunkPositions = new LongOpenHashSet();
     private final Set<BlockEntity> globalBlockEntities = new ObjectOpenHashSet<>();
 
+    // Re-used for testing the block entities which are about to be rendered against the frustum
+    private final AabbBatch blockEntityCullingBatch = new AabbBatch();
+
     private Frustum frustum;
     private ChunkRenderManager<?> chunkRenderManager;
     private BlockRenderPassManager renderPassManager;
@@ -291,6 +300,11 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
 
         this.globalBlockEntities.clear();
 
+        // The renderer is re-created whenever resources are reloaded or a world is joined, so drop any quads of models
+        // which may be stale and pick up any changes to the block state registry
+        BlockModelQuadCache.INSTANCE.clear();
+        BlockStateFlagTable.rebuild();
+
         RenderDevice device = RenderDevice.INSTANCE;
 
         this.renderDistance = this.client.options.renderDistance;
@@ -301,7 +315,11 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
 
         final ChunkVertexType vertexFormat;
 
-        if (opts.advanced.useCompactVertexFormat) {
+        // Merged faces repeat their sprite in the chunk shader, which shader packs replace, so they are only built when
+        // Sodium's own shader is in use
+        if (opts.advanced.mergeBlockFaces && !ShaderModBridge.areShadersEnabled() && GlFunctions.isShaderTextureLodSupported()) {
+            vertexFormat = DefaultModelVertexFormats.MODEL_VERTEX_TILED;
+        } else if (opts.advanced.useCompactVertexFormat) {
             vertexFormat = DefaultModelVertexFormats.MODEL_VERTEX_HFP;
         } else {
             vertexFormat = DefaultModelVertexFormats.MODEL_VERTEX_SFP;
@@ -320,7 +338,7 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
         boolean disableBlacklist = SodiumClientMod.options().advanced.ignoreDriverBlacklist;
 
         if (options.advanced.useChunkMultidraw && MultidrawChunkRenderBackend.isSupported(disableBlacklist)) {
-            return new MultidrawChunkRenderBackend(device, vertexFormat);
+            return new MultidrawChunkRenderBackend(device, vertexFormat, options.advanced.usePersistentMapping);
         } else {
             return new ChunkRenderBackendOneshot(vertexFormat);
         }
@@ -333,6 +351,37 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
         return frustum.isVisible(entity.getRenderBoundingBox());
     }
 
+    /**
+     * Tests the render bounds of the given block entities against the frustum all at once. The results are in the same
+     * order as the block entities are iterated in.
+     */
+    private AabbBatch cullBlockEntities(Collection<BlockEntity> entities, double cameraX, double cameraY, double cameraZ) {
+        AabbBatch batch = this.blockEntityCullingBatch;
+        batch.clear(cameraX, cameraY, cameraZ);
+
+        // Frustums from other mods may override the test for single boxes, so they are asked about each block entity
+        // in world coordinates, the same way as vanilla would
+        if (this.frustum.getClass() != Frustum.class) {
+            for (BlockEntity entity : entities) {
+                batch.setVisible(batch.add(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f), this.checkBEVisibility(entity));
+            }
+
+            return batch;
+        }
+
+        for (BlockEntity entity : entities) {
+            if (ENABLE_BLOCKENTITY_CULLING) {
+                batch.add(entity.getRenderBoundingBox());
+            } else {
+                batch.addVisible();
+            }
+        }
+
+        ((FrustumExtended) this.frustum).fastAabbTestBatch(batch);
+
+        return batch;
+    }
+
     public void renderTileEntities(PoseStack matrices, RenderBuffers bufferBuilders, Long2ObjectMap<SortedSet<BlockDestructionProgress>> blockBreakingProgressions,
                                    Camera camera, float tickDelta) {
         MultiBufferSource.BufferSource immediate = bufferBuilders.bufferSource();
@@ -342,8 +391,12 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
         double y = cameraPos.y();
         double z = cameraPos.z();
 
-        for (BlockEntity blockEntity : this.chunkRenderManager.getVisibleBlockEntities()) {
-            if(!checkBEVisibility(blockEntity))
+        Collection<BlockEntity> visibleBlockEntities = this.chunkRenderManager.getVisibleBlockEntities();
+        AabbBatch batch = this.cullBlockEntities(visibleBlockEntities, x, y, z);
+        int index = 0;
+
+        for (BlockEntity blockEntity : visibleBlockEntities) {
+            if(!batch.isVisible(index++))
                 continue;
             BlockPos pos = blockEntity.getBlockPos();
 
@@ -379,8 +432,11 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
             matrices.popPose();
         }
 
+        batch = this.cullBlockEntities(this.globalBlockEntities, x, y, z);
+        index = 0;
+
         for (BlockEntity blockEntity : this.globalBlockEntities) {
-            if(!checkBEVisibility(blockEntity))
+            if(!batch.isVisible(index++))
                 continue;
             BlockPos pos = blockEntity.getBlockPos();
 
@@ -470,6 +526,10 @@ public class SodiumWorldRenderer implements ChunkStatusListener {
         return this.frustum;
     }
 
+    public List<String> getDebugStrings() {
+        return this.chunkRenderManager.getDebugStrings();
+    }
+
     public String getChunksDebugString() {
         // C: visible/total
         // TODO: add dirty and queued counts
@@ -2,13 +2,9 @@ package me.jellysquid.mods.sodium.client.render.chunk;
 
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 
-import java.nio.ByteBuffer;
-
 public abstract class ChunkGraphicsState {
     private final int x, y, z;
 
-    private ByteBuffer translucencyData;
-
     protected ChunkGraphicsState(ChunkRenderContainer<?> container) {
         this.x = container.getRenderX();
         this.y = container.getRenderY();
@@ -17,6 +13,11 @@ public abstract class ChunkGraphicsState {
 
     public abstract void delete(CommandList commandList);
 
+    /**
+     * @return True if the mesh was uploaded with index data, which can be replaced without re-uploading the vertices
+     */
+    public abstract boolean isIndexed();
+
     public int getX() {
         return this.x;
     }
@@ -28,12 +29,4 @@ public abstract class ChunkGraphicsState {
     public int getZ() {
         return this.z;
     }
-
-    public ByteBuffer getTranslucencyData() {
-        return this.translucencyData;
-    }
-
-    public void setTranslucencyData(ByteBuffer data) {
-        this.translucencyData = data;
-    }
 }
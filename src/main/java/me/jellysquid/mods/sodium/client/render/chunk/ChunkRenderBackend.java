@@ -48,6 +48,14 @@ public interface ChunkRenderBackend<T extends ChunkGraphicsState> {
 
     Class<T> getGraphicsStateType();
 
+    /**
+     * @return True if this backend can draw translucent meshes using their index data, in which case sorting a mesh
+     * only requires its index data to be uploaded again
+     */
+    default boolean supportsIndexedTranslucency() {
+        return false;
+    }
+
     default String getRendererName() {
         return this.getClass().getSimpleName();
     }
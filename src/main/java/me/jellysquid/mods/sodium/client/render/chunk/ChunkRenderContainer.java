@@ -35,8 +35,13 @@ public class ChunkRenderContainer<T extends ChunkGraphicsState> {
     private boolean tickable;
     private int id;
 
+    private boolean disposed;
+
     private boolean rebuildableForTranslucents;
 
+    // The camera position which the translucent geometry of this render was last sorted for
+    private double lastSortX = Double.NaN, lastSortY = Double.NaN, lastSortZ = Double.NaN;
+
     public ChunkRenderContainer(ChunkRenderBackend<T> backend, SodiumWorldRenderer worldRenderer, int chunkX, int chunkY, int chunkZ, ChunkRenderColumn<T> column) {
         this.worldRenderer = worldRenderer;
 
@@ -93,6 +98,8 @@ public class ChunkRenderContainer<T extends ChunkGraphicsState> {
      * be used.
      */
     public void delete() {
+        this.disposed = true;
+
         this.cancelRebuildTask();
         this.setData(ChunkRenderData.ABSENT);
         this.deleteGraphicsState();
@@ -119,6 +126,35 @@ public class ChunkRenderContainer<T extends ChunkGraphicsState> {
         this.rebuildableForTranslucents = flag;
     }
 
+    public double getLastSortX() {
+        return this.lastSortX;
+    }
+
+    public double getLastSortY() {
+        return this.lastSortY;
+    }
+
+    public double getLastSortZ() {
+        return this.lastSortZ;
+    }
+
+    /**
+     * Records the camera position which the translucent geometry of this render has been sorted for.
+     */
+    public void setLastSortPosition(double x, double y, double z) {
+        this.lastSortX = x;
+        this.lastSortY = y;
+        this.lastSortZ = z;
+    }
+
+    /**
+     * Forgets the camera position which the translucent geometry of this render was last sorted for, so that it is
+     * sorted again as soon as the camera moves. This must be called whenever the geometry is replaced by a rebuild.
+     */
+    public void resetLastSortPosition() {
+        this.setLastSortPosition(Double.NaN, Double.NaN, Double.NaN);
+    }
+
 
     public void setData(ChunkRenderData info) {
         if (info == null) {
@@ -156,6 +192,13 @@ public class ChunkRenderContainer<T extends ChunkGraphicsState> {
         return changed;
     }
 
+    /**
+     * @return True if this render has been deleted and can no longer be used
+     */
+    public boolean isDisposed() {
+        return this.disposed;
+    }
+
     /**
      * @return True if the chunk render contains no data, otherwise false
      */
@@ -20,8 +20,11 @@ import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.cull.ChunkCuller;
 import me.jellysquid.mods.sodium.client.render.chunk.cull.ChunkFaceFlags;
 import me.jellysquid.mods.sodium.client.render.chunk.cull.graph.ChunkGraphCuller;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderBounds;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadOrder;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadPlanes;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderListIterator;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
@@ -35,6 +38,7 @@ import me.jellysquid.mods.sodium.common.util.collections.FutureDequeDrain;
 import net.minecraft.client.Camera;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.entity.BlockEntity;
@@ -43,6 +47,7 @@ import net.minecraft.world.phys.Vec3;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkStatusListener {
@@ -57,6 +62,17 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
      */
     private static final float FOG_PLANE_MIN_DISTANCE = (float) Math.pow(8.0f, 2.0);
 
+    /**
+     * The squared distance within which translucent sections are always re-sorted after the camera moves a block.
+     */
+    private static final double NEAR_SORT_DISTANCE_SQ = 32.0D * 32.0D;
+
+    /**
+     * Sections further away are re-sorted once the camera has moved 1/8th of the distance to them, which corresponds
+     * to the direction towards them changing by roughly 7 degrees.
+     */
+    private static final double SORT_ANGLE_FACTOR_SQ = 8.0D * 8.0D;
+
     /**
      * The distance past the fog's far plane at which to begin culling. Distance calculations use the center of each
      * chunk from the camera's position, and as such, special care is needed to ensure that the culling plane is pushed
@@ -109,7 +125,7 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
         this.renderer = renderer;
         this.world = world;
 
-        this.builder = new ChunkBuilder<>(backend.getVertexType(), this.backend);
+        this.builder = new ChunkBuilder<>(backend.getVertexType(), this.backend, renderDistance, this::isChunkVisible);
         this.builder.init(world, renderPassManager);
 
         this.dirty = true;
@@ -118,7 +134,7 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
             this.chunkRenderLists[i] = new ChunkRenderList<>();
         }
 
-        this.culler = new ChunkGraphCuller(world, renderDistance);
+        this.culler = new ChunkGraphCuller(world, renderDistance, SodiumClientMod.options().advanced.cacheReachableSections);
         this.translucencySorting = SodiumClientMod.options().advanced.translucencySorting;
         this.translucencyBlockRenderDistance = Math.min(9216, (renderDistance << 4) * (renderDistance << 4));
 
@@ -159,6 +175,7 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
         // Schedule new translucency sorting tasks if the camera has moved
         if(this.translucencySorting) {
             this.checkTranslucencyCameraMoved();
+            this.skippedSorts = 0;
             if(this.hasCameraMovedTranslucent) {
                 for(Object o : this.renders.getElements()) {
                     if(o == null)
@@ -167,8 +184,14 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
                     if(render.getData().isEmpty())
                         continue;
                     if(!render.needsRebuild() && render.canRebuild() && render.shouldRebuildForTranslucents() && render.getSquaredDistance(cameraX, cameraY, cameraZ) < translucencyBlockRenderDistance) {
+                        if(!this.shouldResort(render)) {
+                            this.skippedSorts++;
+                            continue;
+                        }
+
                         // put it at the end of the queue, after any "real" rebuild tasks
                         render.scheduleSort(false);
+                        render.setLastSortPosition(cameraX, cameraY, cameraZ);
                     }
                 }
             }
@@ -187,6 +210,102 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
     private float lastCameraTranslucentX, lastCameraTranslucentY, lastCameraTranslucentZ;
     private boolean hasCameraMovedTranslucent;
 
+    // The number of sorts which were skipped during the last pass over the translucent sections
+    private int skippedSorts;
+
+    /**
+     * Decides whether the translucent geometry of a section should be sorted again for the current camera position.
+     * Sections close to the camera are re-sorted whenever the camera has moved at least a block since they were last
+     * sorted. Further away, the order of the quads can only change noticeably once the direction towards them has
+     * changed enough, so those are only re-sorted once the camera has moved a distance proportional to how far away
+     * they are, or when it has crossed one of the planes bounding their translucent quads.
+     *
+     * Meshes which are in plane order are only re-sorted once the camera has crossed one of the planes their quads lie
+     * in, no matter how close they are, as their order can't change otherwise.
+     */
+    private boolean shouldResort(ChunkRenderContainer<T> render) {
+        double lastX = render.getLastSortX();
+        double lastY = render.getLastSortY();
+        double lastZ = render.getLastSortZ();
+
+        // Sections which have never been sorted have no last position
+        if (Double.isNaN(lastX)) {
+            return true;
+        }
+
+        BlockPos origin = render.getRenderOrigin();
+        ChunkRenderData data = render.getData();
+
+        float fromX = (float) (lastX - origin.getX());
+        float fromY = (float) (lastY - origin.getY());
+        float fromZ = (float) (lastZ - origin.getZ());
+
+        float toX = this.cameraX - origin.getX();
+        float toY = this.cameraY - origin.getY();
+        float toZ = this.cameraZ - origin.getZ();
+
+        boolean hasCentroidOrder = false;
+
+        for (BlockRenderPass pass : BlockRenderPass.VALUES) {
+            if (!pass.isTranslucent()) {
+                continue;
+            }
+
+            ChunkMeshData mesh = data.getMesh(pass);
+            TranslucentQuadOrder order = mesh != null ? mesh.getQuadOrder() : null;
+
+            if (order == null) {
+                continue;
+            }
+
+            TranslucentQuadPlanes planes = order.getPlanes();
+
+            if (planes == null) {
+                hasCentroidOrder = true;
+            } else if (planes.crossesPlanes(fromX, fromY, fromZ, toX, toY, toZ)) {
+                return true;
+            }
+        }
+
+        if (!hasCentroidOrder) {
+            return false;
+        }
+
+        double dx = this.cameraX - lastX;
+        double dy = this.cameraY - lastY;
+        double dz = this.cameraZ - lastZ;
+        double moved = (dx * dx) + (dy * dy) + (dz * dz);
+
+        if (moved < 1.0D) {
+            return false;
+        }
+
+        double distance = render.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ);
+
+        if (distance <= NEAR_SORT_DISTANCE_SQ) {
+            return true;
+        }
+
+        if (moved * SORT_ANGLE_FACTOR_SQ >= distance) {
+            return true;
+        }
+
+        for (BlockRenderPass pass : BlockRenderPass.VALUES) {
+            if (!pass.isTranslucent()) {
+                continue;
+            }
+
+            ChunkMeshData mesh = data.getMesh(pass);
+            TranslucentQuadOrder order = mesh != null ? mesh.getQuadOrder() : null;
+
+            if (order != null && order.getPlanes() == null && order.crossesBounds(fromX, fromY, fromZ, toX, toY, toZ)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private void checkTranslucencyCameraMoved() {
         float dx = (cameraX - lastCameraTranslucentX);
         float dy = (cameraY - lastCameraTranslucentY);
@@ -481,6 +600,8 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
         int budget = this.builder.getSchedulingBudget();
         int submitted = 0;
 
+        this.builder.beginBatch();
+
         while (!this.importantRebuildQueue.isEmpty()) {
             ChunkRenderContainer<T> render = this.importantRebuildQueue.dequeue();
 
@@ -533,6 +654,9 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
             submitted++;
         }
 
+        this.builder.endBatch();
+        this.builder.updateActiveWorkers(this.importantRebuildQueue.size() + this.rebuildQueue.size());
+
         this.dirty |= submitted > 0;
 
         // Try to complete some other work on the main thread while we wait for rebuilds to complete
@@ -543,7 +667,7 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
 
         if (!futures.isEmpty()) {
             this.dirty = true;
-            this.backend.upload(RenderDevice.INSTANCE.createCommandList(), this.builder.filterChunkBuilds(new FutureDequeDrain<>(futures)));
+            this.builder.performBlockingUploads(new FutureDequeDrain<>(futures));
         }
     }
 
@@ -639,6 +763,17 @@ public class ChunkRenderManager<T extends ChunkGraphicsState> implements ChunkSt
         this.culler.onSectionStateChanged(x, y, z, data.getOcclusionData());
     }
 
+    public List<String> getDebugStrings() {
+        List<String> list = this.builder.getDebugStrings();
+        list.add(this.culler.getDebugString());
+
+        if (this.translucencySorting) {
+            list.add(String.format("Translucency Sorts: %s queued, %s skipped", this.sortQueue.size(), this.skippedSorts));
+        }
+
+        return list;
+    }
+
     public Collection<ChunkRenderCacheLocal> getActiveChunkRenderCaches() {
         return this.builder.getChunkRenderCaches();
     }
@@ -8,7 +8,9 @@ import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 /**
- * Provides a fixed-size buffer which can be used to batch chunk section draw calls.
+ * Provides a fixed-size buffer which can be used to batch chunk section draw calls. A batcher either holds
+ * non-indexed draw commands (see {@link ChunkDrawCallBatcher#create(int)}) or indexed draw commands (see
+ * {@link ChunkDrawCallBatcher#createIndexed(int)}), since the two use a different command layout.
  */
 public abstract class ChunkDrawCallBatcher extends StructBuffer {
     protected final int capacity;
@@ -18,14 +20,22 @@ public abstract class ChunkDrawCallBatcher extends StructBuffer {
 
     protected int arrayLength;
 
-    protected ChunkDrawCallBatcher(int capacity) {
-        super(Mth.smallestEncompassingPowerOfTwo(capacity), 16);
+    protected ChunkDrawCallBatcher(int capacity, int stride) {
+        super(Mth.smallestEncompassingPowerOfTwo(capacity), stride);
 
         this.capacity = capacity;
     }
 
     public static ChunkDrawCallBatcher create(int capacity) {
-        return SodiumClientMod.isDirectMemoryAccessEnabled() ? new UnsafeChunkDrawCallBatcher(capacity) : new NioChunkDrawCallBatcher(capacity);
+        return create(capacity, 16);
+    }
+
+    public static ChunkDrawCallBatcher createIndexed(int capacity) {
+        return create(capacity, 20);
+    }
+
+    private static ChunkDrawCallBatcher create(int capacity, int stride) {
+        return SodiumClientMod.isDirectMemoryAccessEnabled() ? new UnsafeChunkDrawCallBatcher(capacity, stride) : new NioChunkDrawCallBatcher(capacity, stride);
     }
 
     public void begin() {
@@ -50,6 +60,8 @@ public abstract class ChunkDrawCallBatcher extends StructBuffer {
 
     public abstract void addIndirectDrawCall(int first, int count, int baseInstance, int instanceCount);
 
+    public abstract void addIndexedIndirectDrawCall(int firstIndex, int count, int baseVertex, int baseInstance, int instanceCount);
+
     public int getCount() {
         return this.count;
     }
@@ -63,8 +75,8 @@ public abstract class ChunkDrawCallBatcher extends StructBuffer {
         private final long basePointer;
         private long writePointer;
 
-        public UnsafeChunkDrawCallBatcher(int capacity) {
-            super(capacity);
+        public UnsafeChunkDrawCallBatcher(int capacity, int stride) {
+            super(capacity, stride);
 
             this.basePointer = MemoryUtil.memAddress(this.buffer);
         }
@@ -89,13 +101,28 @@ public abstract class ChunkDrawCallBatcher extends StructBuffer {
 
             this.writePointer += this.stride;
         }
+
+        @Override
+        public void addIndexedIndirectDrawCall(int firstIndex, int count, int baseVertex, int baseInstance, int instanceCount) {
+            if (this.count++ >= this.capacity) {
+                throw new BufferUnderflowException();
+            }
+
+            MemoryUtil.memPutInt(this.writePointer     , count);         // Index Count
+            MemoryUtil.memPutInt(this.writePointer +  4, instanceCount); // Instance Count
+            MemoryUtil.memPutInt(this.writePointer +  8, firstIndex);    // Index Start
+            MemoryUtil.memPutInt(this.writePointer + 12, baseVertex);    // Base Vertex
+            MemoryUtil.memPutInt(this.writePointer + 16, baseInstance);  // Base Instance
+
+            this.writePointer += this.stride;
+        }
     }
 
     public static class NioChunkDrawCallBatcher extends ChunkDrawCallBatcher {
         private int writeOffset;
 
-        public NioChunkDrawCallBatcher(int capacity) {
-            super(capacity);
+        public NioChunkDrawCallBatcher(int capacity, int stride) {
+            super(capacity, stride);
         }
 
         @Override
@@ -116,6 +143,19 @@ public abstract class ChunkDrawCallBatcher extends StructBuffer {
             this.writeOffset += this.stride;
             this.count++;
         }
+
+        @Override
+        public void addIndexedIndirectDrawCall(int firstIndex, int count, int baseVertex, int baseInstance, int instanceCount) {
+            ByteBuffer buf = this.buffer;
+            buf.putInt(this.writeOffset     , count);             // Index Count
+            buf.putInt(this.writeOffset +  4, instanceCount);     // Instance Count
+            buf.putInt(this.writeOffset +  8, firstIndex);        // Index Start
+            buf.putInt(this.writeOffset + 12, baseVertex);        // Base Vertex
+            buf.putInt(this.writeOffset + 16, baseInstance);      // Base Instance
+
+            this.writeOffset += this.stride;
+            this.count++;
+        }
     }
 
     public int getArrayLength() {
@@ -4,6 +4,7 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferArena;
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegment;
+import me.jellysquid.mods.sodium.client.gl.arena.GlStagingRingBuffer;
 import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttribute;
 import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
 import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
@@ -23,7 +24,9 @@ import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderContainer;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.MeshBufferPool;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderListIterator;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.region.ChunkRegion;
@@ -36,6 +39,7 @@ import org.lwjgl.opengl.GL20C;
 
 import com.mojang.blaze3d.platform.GlStateManager;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -78,25 +82,34 @@ import java.util.regex.Pattern;
  * reduced up to a factor of ~32x.
  */
 public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<MultidrawGraphicsState> {
+    /**
+     * The size of the persistently mapped staging buffer. Meshes which are larger than this fall back to being
+     * uploaded through the scratch buffer.
+     */
+    private static final int STAGING_BUFFER_SIZE = 16 * 1024 * 1024;
+
     private final ChunkRegionManager<MultidrawGraphicsState> bufferManager;
 
     private final ObjectArrayList<ChunkRegion<MultidrawGraphicsState>> pendingBatches = new ObjectArrayList<>();
     private final ObjectArrayFIFOQueue<ChunkRegion<MultidrawGraphicsState>> pendingUploads = new ObjectArrayFIFOQueue<>();
 
     private final GlMutableBuffer uploadBuffer;
+    private final GlStagingRingBuffer stagingBuffer;
     private final GlMutableBuffer uniformBuffer;
     private final GlMutableBuffer commandBuffer;
 
     private final ChunkDrawParamsVector uniformBufferBuilder;
     private final IndirectCommandBufferVector commandClientBufferBuilder;
 
-    public MultidrawChunkRenderBackend(RenderDevice device, ChunkVertexType vertexType) {
+    public MultidrawChunkRenderBackend(RenderDevice device, ChunkVertexType vertexType, boolean usePersistentMapping) {
         super(vertexType);
 
         this.bufferManager = new ChunkRegionManager<>(device);
 
         try (CommandList commands = device.createCommandList()) {
             this.uploadBuffer = commands.createMutableBuffer(GlBufferUsage.GL_STREAM_DRAW);
+            this.stagingBuffer = usePersistentMapping && GlFunctions.isBufferStorageSupported() ?
+                    new GlStagingRingBuffer(commands, STAGING_BUFFER_SIZE) : null;
             this.uniformBuffer = commands.createMutableBuffer(GlBufferUsage.GL_STATIC_DRAW);
             this.commandBuffer = isWindowsIntelDriver() ? null : commands.createMutableBuffer(GlBufferUsage.GL_STREAM_DRAW);
         }
@@ -118,6 +131,7 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
 
             GlBufferArena arena = region.getBufferArena();
             GlBuffer buffer = arena.getBuffer();
+            GlBuffer indexBuffer = region.getIndexBuffer();
 
             ObjectArrayList<ChunkBuildResult<MultidrawGraphicsState>> uploadQueue = region.getUploadQueue();
             arena.prepareBuffer(commandList, getUploadQueuePayloadSize(uploadQueue));
@@ -126,8 +140,22 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
                 ChunkRenderContainer<MultidrawGraphicsState> render = result.render;
                 ChunkRenderData data = result.data;
 
+                // The existing meshes can't be re-ordered, so keep them as they are until the render is rebuilt
+                if (!result.canApplyTo(render)) {
+                    result.releaseBuffers();
+                    render.scheduleRebuild(false);
+                    continue;
+                }
+
                 for (BlockRenderPass pass : result.passesToUpload) {
                     MultidrawGraphicsState graphics = render.getGraphicsState(pass);
+                    ChunkMeshData meshData = data.getMesh(pass);
+
+                    // If only the draw order of the quads has changed, the vertex data can be kept where it is
+                    if (!meshData.hasVertexData() && meshData.hasIndexData() && graphics != null && graphics.isIndexed()) {
+                        this.uploadIndexData(commandList, region, graphics, meshData);
+                        continue;
+                    }
 
                     // De-allocate the existing buffer arena for this render
                     // This will allow it to be cheaply re-allocated just below
@@ -135,22 +163,21 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
                         graphics.delete(commandList);
                     }
 
-                    ChunkMeshData meshData = data.getMesh(pass);
-
                     if (meshData.hasVertexData()) {
                         VertexData upload = meshData.takeVertexData();
 
-                        commandList.uploadData(this.uploadBuffer, upload.buffer);
+                        GlBufferSegment segment = this.uploadToArena(commandList, arena, upload.buffer);
 
-                        GlBufferSegment segment = arena.uploadBuffer(commandList, this.uploadBuffer, 0, upload.buffer.capacity());
+                        // The data has been copied, so the buffer can be re-used. Buffers which are kept for re-sorting
+                        // translucent meshes don't come from the pool, which makes this a no-op for them.
+                        MeshBufferPool.INSTANCE.release(upload.buffer);
 
                         MultidrawGraphicsState graphicsState = new MultidrawGraphicsState(render, region, segment, meshData, this.vertexFormat);
-                        if(pass.isTranslucent()) {
-                            upload.buffer.limit(upload.buffer.capacity());
-                            upload.buffer.position(0);
 
-                            graphicsState.setTranslucencyData(upload.buffer);
+                        if (meshData.hasIndexData()) {
+                            this.uploadIndexData(commandList, region, graphicsState, meshData);
                         }
+
                         render.setGraphicsState(pass, graphicsState);
                     } else {
                         render.setGraphicsState(pass, null);
@@ -158,27 +185,64 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
                 }
 
                 render.setData(data);
+
+                if (result.sourceData == null) {
+                    render.resetLastSortPosition();
+                }
             }
 
             // Check if the tessellation needs to be updated
-            // This happens whenever the backing buffer object for the arena changes, or if it hasn't already been created
-            if (region.getTessellation() == null || buffer != arena.getBuffer()) {
+            // This happens whenever the backing buffer object for either arena changes, or if it hasn't already been created
+            if (region.getTessellation() == null || buffer != arena.getBuffer() || indexBuffer != region.getIndexBuffer()) {
                 if (region.getTessellation() != null) {
                     commandList.deleteTessellation(region.getTessellation());
                 }
 
-                region.setTessellation(this.createRegionTessellation(commandList, arena.getBuffer()));
+                region.setTessellation(this.createRegionTessellation(commandList, arena.getBuffer(), region.getIndexBuffer()));
             }
 
             uploadQueue.clear();
         }
 
         commandList.invalidateBuffer(this.uploadBuffer);
+
+        if (this.stagingBuffer != null) {
+            this.stagingBuffer.flush(commandList);
+        }
+    }
+
+    private void uploadIndexData(CommandList commandList, ChunkRegion<MultidrawGraphicsState> region, MultidrawGraphicsState graphics, ChunkMeshData meshData) {
+        ByteBuffer indexData = meshData.takeIndexData();
+
+        GlBufferSegment segment = this.uploadToArena(commandList, region.getOrCreateIndexArena(), indexData);
+        graphics.setIndexSegment(segment);
+
+        MeshBufferPool.INSTANCE.release(indexData);
+    }
+
+    /**
+     * Copies the data into a new segment of the arena, going through the persistently mapped staging buffer if it is
+     * available and otherwise re-specifying the storage of the scratch buffer.
+     */
+    private GlBufferSegment uploadToArena(CommandList commandList, GlBufferArena arena, ByteBuffer data) {
+        int length = data.remaining();
+
+        if (this.stagingBuffer != null) {
+            int offset = this.stagingBuffer.write(commandList, data);
+
+            if (offset >= 0) {
+                return arena.uploadBuffer(commandList, this.stagingBuffer.getBuffer(), offset, length);
+            }
+        }
+
+        commandList.uploadData(this.uploadBuffer, data);
+
+        return arena.uploadBuffer(commandList, this.uploadBuffer, 0, length);
     }
 
-    private GlTessellation createRegionTessellation(CommandList commandList, GlBuffer buffer) {
+    private GlTessellation createRegionTessellation(CommandList commandList, GlBuffer buffer, GlBuffer indexBuffer) {
         return commandList.createTessellation(GlPrimitiveType.QUADS, new TessellationBinding[] {
-                new TessellationBinding(buffer, new GlVertexAttributeBinding[] {
+                new TessellationBinding(buffer, TiledModelVertexType.bindTileBounds(this.vertexFormat, new GlVertexAttributeBinding[] {
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.POSITION,
                                 this.vertexFormat.getAttribute(ChunkMeshAttribute.POSITION)),
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.COLOR,
@@ -187,12 +251,12 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
                                 this.vertexFormat.getAttribute(ChunkMeshAttribute.TEXTURE)),
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.LIGHT_COORD,
                                 this.vertexFormat.getAttribute(ChunkMeshAttribute.LIGHT))
-                }, false),
+                }), false),
                 new TessellationBinding(this.uniformBuffer, new GlVertexAttributeBinding[] {
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.MODEL_OFFSET,
                                 new GlVertexAttribute(GlVertexAttributeFormat.FLOAT, 4, false, 0, 0))
                 }, true)
-        });
+        }, indexBuffer);
     }
 
     private boolean reverseRegions = false;
@@ -208,6 +272,7 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
     @Override
     public void render(CommandList commandList, ChunkRenderListIterator<MultidrawGraphicsState> renders, ChunkCameraContext camera) {
         this.bufferManager.cleanup();
+        this.compactRegions(commandList);
 
         this.setupDrawBatches(commandList, renders, camera);
         this.buildCommandBuffer();
@@ -221,14 +286,21 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
 
         for (ChunkRegion<?> region : this.pendingBatches) {
             ChunkDrawCallBatcher batch = region.getDrawBatcher();
+            ChunkDrawCallBatcher indexedBatch = region.getIndexedDrawBatcher();
 
-            if (!batch.isEmpty()) {
+            if (!batch.isEmpty() || !indexedBatch.isEmpty()) {
 	            try (DrawCommandList drawCommandList = commandList.beginTessellating(region.getTessellation())) {
-	                drawCommandList.multiDrawArraysIndirect(pointer, batch.getCount(), 0 /* tightly packed */);
+	                if (!batch.isEmpty()) {
+	                    drawCommandList.multiDrawArraysIndirect(pointer, batch.getCount(), 0 /* tightly packed */);
+	                }
+
+	                if (!indexedBatch.isEmpty()) {
+	                    drawCommandList.multiDrawElementsIndirect(pointer + batch.getArrayLength(), indexedBatch.getCount(), 0 /* tightly packed */);
+	                }
 	            }
             }
 
-            pointer += batch.getArrayLength();
+            pointer += batch.getArrayLength() + indexedBatch.getArrayLength();
         }
 
         this.pendingBatches.clear();
@@ -256,6 +328,11 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
             batcher.end();
 
             this.commandClientBufferBuilder.pushCommandBuffer(batcher);
+
+            ChunkDrawCallBatcher indexedBatcher = region.getIndexedDrawBatcher();
+            indexedBatcher.end();
+
+            this.commandClientBufferBuilder.pushCommandBuffer(indexedBatcher);
         }
 
         this.commandClientBufferBuilder.end();
@@ -292,6 +369,26 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
         }
     }
 
+    /**
+     * Compacts the buffers of at most one fragmented region per render pass, so that the cost of copying the data is spread
+     * out over time instead of causing a stutter when many regions become fragmented at once.
+     */
+    private void compactRegions(CommandList commandList) {
+        ChunkRegion<MultidrawGraphicsState> region = this.bufferManager.getFragmentedRegion();
+
+        if (region == null) {
+            return;
+        }
+
+        region.compact(commandList);
+
+        if (region.getTessellation() != null) {
+            commandList.deleteTessellation(region.getTessellation());
+        }
+
+        region.setTessellation(this.createRegionTessellation(commandList, region.getBufferArena().getBuffer(), region.getIndexBuffer()));
+    }
+
     private void setupDrawBatches(CommandList commandList, ChunkRenderListIterator<MultidrawGraphicsState> it, ChunkCameraContext camera) {
         this.uniformBufferBuilder.reset();
         this.regionCamera = camera;
@@ -314,17 +411,27 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
 
             if (!batch.isBuilding()) {
                 batch.begin();
+                region.getIndexedDrawBatcher().begin();
 
                 this.pendingBatches.add(region);
             }
 
+            // Sorted translucent meshes are drawn as a whole through their index data, since sorting mixes the faces
+            if (state.isIndexed()) {
+                region.getIndexedDrawBatcher().addIndexedIndirectDrawCall(state.getFirstIndex(), state.getIndexCount(), state.getBaseVertex(), index, 1);
+
+                it.advance();
+                continue;
+            }
+
+            int baseVertex = state.getBaseVertex();
             int mask = 0b1;
 
             for (int i = 0; i < ModelQuadFacing.COUNT; i++) {
                 if ((visible & mask) != 0) {
                     long part = state.getModelPart(i);
 
-                    batch.addIndirectDrawCall(BufferSlice.unpackStart(part), BufferSlice.unpackLength(part), index, 1);
+                    batch.addIndirectDrawCall(baseVertex + BufferSlice.unpackStart(part), BufferSlice.unpackLength(part), index, 1);
                 }
 
                 mask <<= 1;
@@ -352,6 +459,10 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
 
         try (CommandList commands = RenderDevice.INSTANCE.createCommandList()) {
             commands.deleteBuffer(this.uploadBuffer);
+
+            if (this.stagingBuffer != null) {
+                this.stagingBuffer.delete(commands);
+            }
             commands.deleteBuffer(this.uniformBuffer);
 
             if (this.commandBuffer != null) {
@@ -365,6 +476,11 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
         this.uniformBufferBuilder.delete();
     }
 
+    @Override
+    public boolean supportsIndexedTranslucency() {
+        return true;
+    }
+
     @Override
     public Class<MultidrawGraphicsState> getGraphicsStateType() {
         return MultidrawGraphicsState.class;
@@ -439,8 +555,11 @@ public class MultidrawChunkRenderBackend extends ChunkRenderShaderBackend<Multid
     public List<String> getDebugStrings() {
         List<String> list = new ArrayList<>();
         list.add(String.format("Active Buffers: %s", this.bufferManager.getAllocatedRegionCount()));
+        list.add(this.bufferManager.getMemoryUsageString());
         list.add(String.format("Submission Mode: %s", this.commandBuffer != null ?
                 ChatFormatting.AQUA + "Buffer" : ChatFormatting.LIGHT_PURPLE + "Client Memory"));
+        list.add(String.format("Upload Mode: %s", this.stagingBuffer != null ?
+                ChatFormatting.AQUA + "Persistent" : ChatFormatting.LIGHT_PURPLE + "Scratch Buffer"));
 
         return list;
     }
@@ -17,6 +17,10 @@ public class MultidrawGraphicsState extends ChunkGraphicsState {
 
     private final GlBufferSegment segment;
     private final long[] parts;
+    private final int stride;
+
+    // The index data of sorted translucent meshes, which is replaced independently of the vertex data when re-sorting
+    private GlBufferSegment indexSegment;
 
     public MultidrawGraphicsState(ChunkRenderContainer<?> container, ChunkRegion<MultidrawGraphicsState> region, GlBufferSegment segment, ChunkMeshData meshData, GlVertexFormat<?> vertexFormat) {
         super(container);
@@ -25,12 +29,14 @@ public class MultidrawGraphicsState extends ChunkGraphicsState {
         this.segment = segment;
 
         this.parts = new long[ModelQuadFacing.COUNT];
+        this.stride = vertexFormat.getStride();
 
         for (Map.Entry<ModelQuadFacing, BufferSlice> entry : meshData.getSlices()) {
             ModelQuadFacing facing = entry.getKey();
             BufferSlice slice = entry.getValue();
 
-            int start = (segment.getStart() + slice.start) / vertexFormat.getStride();
+            // The parts are relative to the start of the segment, since the segment can be moved when the arena is compacted
+            int start = slice.start / vertexFormat.getStride();
             int count = slice.len / vertexFormat.getStride();
 
             this.parts[facing.ordinal()] = BufferSlice.pack(start, count);
@@ -40,12 +46,57 @@ public class MultidrawGraphicsState extends ChunkGraphicsState {
     @Override
     public void delete(CommandList commandList) {
         this.segment.delete();
+
+        if (this.indexSegment != null) {
+            this.indexSegment.delete();
+            this.indexSegment = null;
+        }
+
+        this.region.onSegmentFreed();
+    }
+
+    /**
+     * Replaces the index data of this mesh, freeing the previous index data if there was any.
+     */
+    public void setIndexSegment(GlBufferSegment segment) {
+        if (this.indexSegment != null) {
+            this.indexSegment.delete();
+            this.region.onSegmentFreed();
+        }
+
+        this.indexSegment = segment;
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return this.indexSegment != null;
+    }
+
+    /**
+     * @return The offset of the first index of this mesh in the index buffer of the region, in indices
+     */
+    public int getFirstIndex() {
+        return this.indexSegment.getStart() / 4;
+    }
+
+    public int getIndexCount() {
+        return this.indexSegment.getLength() / 4;
+    }
+
+    /**
+     * @return The offset of the first vertex of this mesh in the vertex buffer of the region, in vertices
+     */
+    public int getBaseVertex() {
+        return this.segment.getStart() / this.stride;
     }
 
     public ChunkRegion<MultidrawGraphicsState> getRegion() {
         return this.region;
     }
 
+    /**
+     * @return The packed slice of the vertices for the given facing, relative to {@link MultidrawGraphicsState#getBaseVertex()}
+     */
     public long getModelPart(int facing) {
         return this.parts[facing];
     }
@@ -15,15 +15,22 @@ import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderContainer;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.MeshBufferPool;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.shader.ChunkShaderBindingPoints;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Map;
 
 public class ChunkOneshotGraphicsState extends ChunkGraphicsState {
     private final GlMutableBuffer vertexBuffer;
 
+    // The index buffer used to draw sorted translucent meshes, or null if the mesh is drawn without one
+    private GlMutableBuffer indexBuffer;
+    private int indexCount;
+
     protected GlTessellation tessellation;
 
     private final long[] parts;
@@ -62,6 +69,33 @@ public class ChunkOneshotGraphicsState extends ChunkGraphicsState {
     @Override
     public void delete(CommandList commandList) {
         commandList.deleteBuffer(this.vertexBuffer);
+
+        if (this.indexBuffer != null) {
+            commandList.deleteBuffer(this.indexBuffer);
+        }
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return this.indexCount > 0;
+    }
+
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * Replaces the index data of this mesh without touching its vertex data. The index buffer keeps its handle, so
+     * the existing tessellation stays valid.
+     */
+    public void uploadIndexData(CommandList commandList, ChunkMeshData meshData) {
+        ByteBuffer indexData = meshData.takeIndexData();
+
+        this.indexCount = indexData.remaining() / 4;
+
+        commandList.uploadData(this.indexBuffer, indexData);
+
+        MeshBufferPool.INSTANCE.release(indexData);
     }
 
     public void upload(CommandList commandList, ChunkMeshData meshData) {
@@ -69,21 +103,31 @@ public class ChunkOneshotGraphicsState extends ChunkGraphicsState {
 
         commandList.uploadData(this.vertexBuffer, vertexData);
 
+        // The data has been copied, so the buffer can be re-used. Buffers which are kept for re-sorting translucent
+        // meshes don't come from the pool, which makes this a no-op for them.
+        MeshBufferPool.INSTANCE.release(vertexData.buffer);
+
+        if (meshData.hasIndexData()) {
+            if (this.indexBuffer == null) {
+                this.indexBuffer = commandList.createMutableBuffer(GlBufferUsage.GL_DYNAMIC_DRAW);
+            }
+
+            this.uploadIndexData(commandList, meshData);
+        } else {
+            this.indexCount = 0;
+        }
+
         GlVertexFormat<ChunkMeshAttribute> vertexFormat = (GlVertexFormat<ChunkMeshAttribute>) vertexData.format;
 
         this.tessellation = commandList.createTessellation(GlPrimitiveType.QUADS, new TessellationBinding[] {
-                new TessellationBinding(this.vertexBuffer, new GlVertexAttributeBinding[] {
+                new TessellationBinding(this.vertexBuffer, TiledModelVertexType.bindTileBounds(vertexFormat, new GlVertexAttributeBinding[] {
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.POSITION, vertexFormat.getAttribute(ChunkMeshAttribute.POSITION)),
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.COLOR, vertexFormat.getAttribute(ChunkMeshAttribute.COLOR)),
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.TEX_COORD, vertexFormat.getAttribute(ChunkMeshAttribute.TEXTURE)),
                         new GlVertexAttributeBinding(ChunkShaderBindingPoints.LIGHT_COORD, vertexFormat.getAttribute(ChunkMeshAttribute.LIGHT))
-                }, false)
-        });
+                }), false)
+        }, this.indexCount > 0 ? this.indexBuffer : null);
 
         this.setupModelParts(meshData, vertexData.format);
-
-        vertexData.buffer.limit(vertexData.buffer.capacity());
-        vertexData.buffer.position(0);
-        this.setTranslucencyData(vertexData.buffer);
     }
 }
@@ -37,6 +37,13 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
             ChunkRenderContainer<ChunkOneshotGraphicsState> render = result.render;
             ChunkRenderData data = result.data;
 
+            // The existing meshes can't be re-ordered, so keep them as they are until the render is rebuilt
+            if (!result.canApplyTo(render)) {
+                result.releaseBuffers();
+                render.scheduleRebuild(false);
+                continue;
+            }
+
             for (BlockRenderPass pass : result.passesToUpload) {
                 ChunkOneshotGraphicsState state = render.getGraphicsState(pass);
                 ChunkMeshData mesh = data.getMesh(pass);
@@ -47,11 +54,9 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
                     }
 
                     state.upload(commandList, mesh);
-                    // For code simplicity, ChunkOneshotGraphicsState stores the buffer unconditionally
-                    // Reset it here if the pass isn't translucent, as we don't want to store useless
-                    // buffers
-                    if(!pass.isTranslucent())
-                        state.setTranslucencyData(null);
+                } else if (mesh.hasIndexData() && state != null && state.isIndexed()) {
+                    // Only the draw order of the quads has changed, so the vertex data can be kept
+                    state.uploadIndexData(commandList, mesh);
                 } else {
                     if (state != null) {
                         state.delete(commandList);
@@ -64,6 +69,10 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
             }
 
             render.setData(data);
+
+            if (result.sourceData == null) {
+                render.resetLastSortPosition();
+            }
         }
     }
 
@@ -73,6 +82,14 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
             ChunkOneshotGraphicsState state = it.getGraphicsState();
             int visibleFaces = it.getVisibleFaces();
 
+            if (state.isIndexed()) {
+                this.prepareDrawBatch(camera, state);
+                this.drawIndexed(commandList, state);
+
+                it.advance();
+                continue;
+            }
+
             this.buildBatch(state, visibleFaces);
 
             if (this.batch.isBuilding()) {
@@ -123,6 +140,13 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
         }
     }
 
+    protected void drawIndexed(CommandList commandList, ChunkOneshotGraphicsState state) {
+        // The index buffer covers every quad of the mesh in sorted order, so the faces can't be drawn separately
+        try (DrawCommandList drawCommandList = commandList.beginTessellating(state.tessellation)) {
+            drawCommandList.drawElements(state.getIndexCount());
+        }
+    }
+
     @Override
     public void delete() {
         super.delete();
@@ -130,6 +154,11 @@ public class ChunkRenderBackendOneshot extends ChunkRenderShaderBackend<ChunkOne
         this.batch.delete();
     }
 
+    @Override
+    public boolean supportsIndexedTranslucency() {
+        return true;
+    }
+
     @Override
     public Class<ChunkOneshotGraphicsState> getGraphicsStateType() {
         return ChunkOneshotGraphicsState.class;
@@ -1,19 +1,30 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
-import com.google.common.primitives.Floats;
-import it.unimi.dsi.fastutil.ints.IntArrays;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.data.MeshBufferPool;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadOrder;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadPlanes;
 import me.jellysquid.mods.sodium.client.render.chunk.format.hfp.HFPModelVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.format.sfp.SFPModelVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
 
 public class ChunkBufferSorter {
+    /**
+     * The maximum number of quads in a mesh which lie in planes of more than one axis for it to be put in plane order.
+     * Ordering such a mesh compares every pair of quads, so larger meshes are sorted by their centroids instead.
+     */
+    private static final int MAX_TOPOLOGICAL_SORT_QUADS = 512;
 
     private static final Class<?> OCULUS_VERTEX_TYPE;
 
@@ -27,15 +38,46 @@ public class ChunkBufferSorter {
         OCULUS_VERTEX_TYPE = clz;
     }
 
-    public static void sortStandardFormat(ChunkVertexType vertexType, ByteBuffer buffer, int bufferLen, float x, float y, float z) {
+    /**
+     * Sorts the quads of a translucent mesh back-to-front in place, and returns the order which the quads are left in
+     * alongside their centroids. This can later be passed to {@link ChunkBufferSorter#sortQuads(TranslucentQuadOrder, int[], float, float, float)}
+     * to re-sort the mesh without decoding the vertex data again.
+     * @return The new order of the quads, or null if the vertex type is not supported
+     */
+    @Nullable
+    public static TranslucentQuadOrder sortStandardFormat(ChunkVertexType vertexType, ByteBuffer buffer, int bufferLen, float x, float y, float z) {
+        TranslucentQuadOrder order = createQuadOrder(vertexType, buffer, bufferLen);
+
+        if (order == null) {
+            return null;
+        }
+
+        int[] cell = order.getPlaneCell(x, y, z);
+        int[] permutation = sortQuads(order, cell, x, y, z);
+
+        if (permutation != null) {
+            // Quad stride by Float size
+            rearrangeQuads(buffer, permutation, vertexType.getBufferVertexFormat().getStride(), ((Buffer)buffer).position());
+        }
+
+        return order.permute(buffer, permutation, cell);
+    }
+
+    /**
+     * Computes the centroid of every quad in the given buffer, which is assumed to be in the order the mesh was built,
+     * and the planes the quads lie in if they are all axis-aligned.
+     * @return The quad order of the buffer, or null if the vertex type is not supported
+     */
+    @Nullable
+    public static TranslucentQuadOrder createQuadOrder(ChunkVertexType vertexType, ByteBuffer buffer, int bufferLen) {
         boolean isCompact;
 
         if(vertexType.getClass() == HFPModelVertexType.class || vertexType.getClass() == OCULUS_VERTEX_TYPE) {
             isCompact = true;
-        } else if(vertexType.getClass() == SFPModelVertexType.class) {
+        } else if(vertexType.getClass() == SFPModelVertexType.class || vertexType.getClass() == TiledModelVertexType.class) {
             isCompact = false;
         } else
-            return; // ignore unsupported vertex types to avoid corruption
+            return null; // ignore unsupported vertex types to avoid corruption
 
         // Quad stride by Float size
         int quadStride = vertexType.getBufferVertexFormat().getStride();
@@ -43,28 +85,482 @@ public class ChunkBufferSorter {
         int quadStart = ((Buffer)buffer).position();
         int quadCount = bufferLen/quadStride/4;
 
-        float[] distanceArray = new float[quadCount];
-        int[] indicesArray = new int[quadCount];
+        ShortBuffer shortBuffer = isCompact ? buffer.asShortBuffer() : null;
+        FloatBuffer floatBuffer = isCompact ? null : buffer.asFloatBuffer();
+
+        // The position (x, y, z) of each of the four vertices of every quad
+        float[] positions = new float[quadCount * 12];
+
+        for (int quadIdx = 0; quadIdx < quadCount; ++quadIdx) {
+            if (isCompact) {
+                readQuadHFP(shortBuffer, positions, quadIdx * 12, quadStride / 2, quadStart + (quadIdx * quadStride * 2));
+            } else {
+                readQuadSFP(floatBuffer, positions, quadIdx * 12, quadStride / 4, quadStart + (quadIdx * quadStride));
+            }
+        }
+
+        return createQuadOrder(buffer, quadStride * 4, positions);
+    }
+
+    /**
+     * Creates the quad order of a mesh from the vertex positions of its quads, which are in the order the mesh was built.
+     */
+    static TranslucentQuadOrder createQuadOrder(ByteBuffer buffer, int quadStride, float[] positions) {
+        int quadCount = positions.length / 12;
+
+        float[] centroids = new float[quadCount * 3];
+        int[] order = new int[quadCount];
+
+        float[] bounds = new float[] {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+
+        for (int quadIdx = 0; quadIdx < quadCount; ++quadIdx) {
+            int base = quadIdx * 12;
+
+            for (int axis = 0; axis < 3; axis++) {
+                centroids[quadIdx * 3 + axis] = (positions[base + axis] + positions[base + axis + 3] + positions[base + axis + 6] + positions[base + axis + 9]) * 0.25F;
+
+                for (int vertex = base + axis; vertex < base + 12; vertex += 3) {
+                    bounds[axis] = Math.min(bounds[axis], positions[vertex]);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], positions[vertex]);
+                }
+            }
+
+            order[quadIdx] = quadIdx;
+        }
+
+        return new TranslucentQuadOrder(buffer, quadStride, centroids, bounds, order, createPlanes(positions, quadCount), null);
+    }
 
-        if(isCompact) {
-            ShortBuffer shortBuffer = buffer.asShortBuffer();
-            int vertexSizeShort = quadStride / 2;
-            for (int quadIdx = 0; quadIdx < quadCount; ++quadIdx) {
-                distanceArray[quadIdx] = getDistanceSqHFP(shortBuffer, x, y, z, vertexSizeShort, quadStart + (quadIdx * quadStride * 2));
-                indicesArray[quadIdx] = quadIdx;
+    /**
+     * Finds the planes which the quads of a mesh lie in.
+     * @return The planes of the quads, or null if some quad is not perpendicular to one of the axes, or if the mesh is
+     * too large to be put in plane order
+     */
+    @Nullable
+    private static TranslucentQuadPlanes createPlanes(float[] positions, int quadCount) {
+        byte[] quadAxes = new byte[quadCount];
+        int[] quadCounts = new int[3];
+
+        for (int quadIdx = 0; quadIdx < quadCount; quadIdx++) {
+            int axis = getPerpendicularAxis(positions, quadIdx * 12);
+
+            if (axis < 0) {
+                return null;
             }
-        } else {
-            FloatBuffer floatBuffer = buffer.asFloatBuffer();
-            int vertexSizeInteger = quadStride / 4;
-            for (int quadIdx = 0; quadIdx < quadCount; ++quadIdx) {
-                distanceArray[quadIdx] = getDistanceSqSFP(floatBuffer, x, y, z, vertexSizeInteger, quadStart + (quadIdx * quadStride));
-                indicesArray[quadIdx] = quadIdx;
+
+            quadAxes[quadIdx] = (byte) axis;
+            quadCounts[axis]++;
+        }
+
+        boolean singleAxis = quadCounts[0] == quadCount || quadCounts[1] == quadCount || quadCounts[2] == quadCount;
+
+        if (!singleAxis && quadCount > MAX_TOPOLOGICAL_SORT_QUADS) {
+            return null;
+        }
+
+        float[] quadBounds = null;
+
+        if (!singleAxis) {
+            quadBounds = new float[quadCount * 6];
+
+            for (int quadIdx = 0; quadIdx < quadCount; quadIdx++) {
+                int base = quadIdx * 12;
+
+                for (int axis = 0; axis < 3; axis++) {
+                    float min = positions[base + axis];
+                    float max = min;
+
+                    for (int vertex = base + axis + 3; vertex < base + 12; vertex += 3) {
+                        min = Math.min(min, positions[vertex]);
+                        max = Math.max(max, positions[vertex]);
+                    }
+
+                    quadBounds[(quadIdx * 6) + axis] = min;
+                    quadBounds[(quadIdx * 6) + axis + 3] = max;
+                }
             }
         }
 
-        IntArrays.mergeSort(indicesArray, (a, b) -> Floats.compare(distanceArray[b], distanceArray[a]));
+        float[][] planes = new float[3][];
+
+        for (int axis = 0; axis < 3; axis++) {
+            float[] offsets;
+            int count = 0;
 
-        rearrangeQuads(buffer, indicesArray, quadStride, quadStart);
+            if (singleAxis) {
+                offsets = new float[quadCounts[axis]];
+
+                for (int quadIdx = 0; quadIdx < quadCount; quadIdx++) {
+                    if (quadAxes[quadIdx] == axis) {
+                        offsets[count++] = positions[(quadIdx * 12) + axis];
+                    }
+                }
+            } else {
+                // The edges of the quads are planes as well, so that the cell decides which side of every quad the
+                // camera is on when quads of different axes are compared
+                offsets = new float[quadCount * 2];
+
+                for (int quadIdx = 0; quadIdx < quadCount; quadIdx++) {
+                    offsets[count++] = quadBounds[(quadIdx * 6) + axis];
+                    offsets[count++] = quadBounds[(quadIdx * 6) + axis + 3];
+                }
+            }
+
+            Arrays.sort(offsets);
+
+            int distinct = 0;
+
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || offsets[distinct - 1] != offsets[i]) {
+                    offsets[distinct++] = offsets[i];
+                }
+            }
+
+            planes[axis] = Arrays.copyOf(offsets, distinct);
+        }
+
+        int[] quadPlanes = new int[quadCount];
+
+        for (int quadIdx = 0; quadIdx < quadCount; quadIdx++) {
+            int axis = quadAxes[quadIdx];
+
+            quadPlanes[quadIdx] = Arrays.binarySearch(planes[axis], positions[(quadIdx * 12) + axis]);
+        }
+
+        return new TranslucentQuadPlanes(planes, quadAxes, quadPlanes, quadBounds);
+    }
+
+    /**
+     * @return The axis which all four vertices of the quad starting at the given index share a coordinate on, or -1
+     * if the quad isn't perpendicular to any axis
+     */
+    private static int getPerpendicularAxis(float[] positions, int base) {
+        for (int axis = 0; axis < 3; axis++) {
+            float value = positions[base + axis];
+
+            if (positions[base + axis + 3] == value && positions[base + axis + 6] == value && positions[base + axis + 9] == value) {
+                return axis;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sorts the quads of a mesh back-to-front, by putting them in plane order for the given cell if there is one, or
+     * by sorting them by their centroids otherwise.
+     * @return The position of the quad to move to each position of the mesh, or null if the order is unchanged
+     */
+    @Nullable
+    public static int[] sortQuads(TranslucentQuadOrder order, @Nullable int[] planeCell, float x, float y, float z) {
+        return planeCell != null ? sortQuadsByPlanes(order, planeCell) : sortQuads(order, x, y, z);
+    }
+
+    /**
+     * Sorts the quads of a mesh back-to-front for the given camera position, starting from their current order. Since
+     * the previous order is usually close to the new one after a small camera movement, the sort keys are laid out in
+     * the current order of the quads so that the adaptive sort of {@link Arrays#sort(long[])} can take advantage of
+     * the existing runs. Quads which are at the same distance keep their relative order.
+     * @return The position of the quad to move to each position of the mesh, or null if the order is unchanged
+     */
+    @Nullable
+    public static int[] sortQuads(TranslucentQuadOrder order, float x, float y, float z) {
+        float[] centroids = order.getCentroids();
+        int[] quads = order.getOrder();
+
+        long[] keys = new long[quads.length];
+
+        for (int i = 0; i < quads.length; i++) {
+            int base = quads[i] * 3;
+
+            float xDist = centroids[base] - x;
+            float yDist = centroids[base + 1] - y;
+            float zDist = centroids[base + 2] - z;
+
+            float distance = (xDist * xDist) + (yDist * yDist) + (zDist * zDist);
+
+            // The distance is never negative, so the raw bits of its float representation sort in the same order as
+            // the distance itself. These are inverted to sort the farthest quads first.
+            keys[i] = ((long) (Integer.MAX_VALUE - Float.floatToRawIntBits(distance)) << 32) | i;
+        }
+
+        Arrays.sort(keys);
+
+        int[] permutation = new int[keys.length];
+        boolean changed = false;
+
+        for (int i = 0; i < keys.length; i++) {
+            int quadIdx = (int) keys[i];
+
+            permutation[i] = quadIdx;
+            changed |= quadIdx != i;
+        }
+
+        return changed ? permutation : null;
+    }
+
+    /**
+     * Puts the quads of a mesh whose quads all lie in axis-aligned planes in plane order for the given cell.
+     *
+     * The quads are first ranked by the number of planes of their axis which lie between them and the camera, farthest
+     * first, which already draws every quad before the parallel quads in front of it. If the quads lie in planes of
+     * more than one axis, each pair of quads which could overlap on screen, and which are separated on one of the axes,
+     * is also ordered so that the quad further from the camera is drawn first. The quads are
+     * then ordered topologically, taking the highest ranked quad whenever there is a choice. Should these constraints
+     * form a cycle, the highest ranked remaining quad is drawn next regardless.
+     *
+     * The result only depends on the cell and not on the current order of the quads, so the quads of a mesh which is
+     * already in plane order for a cell are never moved.
+     * @return The position of the quad to move to each position of the mesh, or null if the order is unchanged
+     */
+    @Nullable
+    public static int[] sortQuadsByPlanes(TranslucentQuadOrder order, int[] cell) {
+        TranslucentQuadPlanes planes = order.getPlanes();
+        int[] quads = order.getOrder();
+
+        long[] keys = new long[quads.length];
+
+        for (int quadIdx = 0; quadIdx < quads.length; quadIdx++) {
+            int axis = planes.getQuadAxis(quadIdx);
+            int plane = planes.getQuadPlane(quadIdx);
+
+            // The number of planes from the plane of the quad up to the camera, including the plane of the quad
+            int layers = plane < cell[axis] ? cell[axis] - plane : plane - cell[axis] + 1;
+
+            keys[quadIdx] = ((long) (Integer.MAX_VALUE - layers) << 32) | quadIdx;
+        }
+
+        Arrays.sort(keys);
+
+        int[] ranked = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            ranked[i] = (int) keys[i];
+        }
+
+        if (!planes.isSingleAxis()) {
+            ranked = orderTopologically(planes, cell, ranked);
+        }
+
+        // The current position of each quad, indexed by the position of the quad in the mesh as it was originally built
+        int[] positions = new int[quads.length];
+
+        for (int i = 0; i < quads.length; i++) {
+            positions[quads[i]] = i;
+        }
+
+        int[] permutation = new int[quads.length];
+        boolean changed = false;
+
+        for (int i = 0; i < quads.length; i++) {
+            permutation[i] = positions[ranked[i]];
+            changed |= permutation[i] != i;
+        }
+
+        return changed ? permutation : null;
+    }
+
+    /**
+     * Orders the given quads so that every quad is drawn before the quads which may hide it from the camera, preferring
+     * the order they are given in.
+     */
+    private static int[] orderTopologically(TranslucentQuadPlanes planes, int[] cell, int[] ranked) {
+        int count = ranked.length;
+        int words = (count + 63) >>> 6;
+
+        // The box (min x, y, z, then max x, y, z) between the planes on either side of the cell, which contains every
+        // camera position in it
+        float[] cellBounds = new float[6];
+
+        for (int axis = 0; axis < 3; axis++) {
+            float[] offsets = planes.getPlanes(axis);
+
+            cellBounds[axis] = cell[axis] > 0 ? offsets[cell[axis] - 1] : Float.NEGATIVE_INFINITY;
+            cellBounds[axis + 3] = cell[axis] < offsets.length ? offsets[cell[axis]] : Float.POSITIVE_INFINITY;
+        }
+
+        // The quads which must be drawn after each quad, and the number of quads which must be drawn before it, both
+        // indexed by rank
+        long[] successors = new long[count * words];
+        int[] predecessors = new int[count];
+
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                int relation = compareQuads(planes, cellBounds, ranked[a], ranked[b]);
+
+                if (relation < 0) {
+                    successors[(a * words) + (b >>> 6)] |= 1L << b;
+                    predecessors[b]++;
+                } else if (relation > 0) {
+                    successors[(b * words) + (a >>> 6)] |= 1L << a;
+                    predecessors[a]++;
+                }
+            }
+        }
+
+        boolean[] drawn = new boolean[count];
+        int[] result = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            int next = -1;
+            int first = -1;
+
+            for (int rank = 0; rank < count; rank++) {
+                if (drawn[rank]) {
+                    continue;
+                }
+
+                if (first < 0) {
+                    first = rank;
+                }
+
+                if (predecessors[rank] == 0) {
+                    next = rank;
+                    break;
+                }
+            }
+
+            // Every remaining quad must be drawn after another one, so one of the constraints has to be ignored
+            if (next < 0) {
+                next = first;
+            }
+
+            drawn[next] = true;
+            result[i] = ranked[next];
+
+            for (int word = 0; word < words; word++) {
+                long bits = successors[(next * words) + word];
+
+                while (bits != 0) {
+                    predecessors[(word << 6) + Long.numberOfTrailingZeros(bits)]--;
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return A negative number if quad {@param a} must be drawn before quad {@param b}, a positive number if it must be
+     * drawn after it, or zero if neither can hide the other
+     */
+    private static int compareQuads(TranslucentQuadPlanes planes, float[] cellBounds, int a, int b) {
+        float[] quadBounds = planes.getQuadBounds();
+
+        boolean aHidesB = mayHide(quadBounds, cellBounds, a, b);
+        boolean bHidesA = mayHide(quadBounds, cellBounds, b, a);
+
+        if (!aHidesB && !bHidesA) {
+            return 0;
+        }
+
+        int relation = 0;
+
+        for (int axis = 0; axis < 3; axis++) {
+            float aMin = quadBounds[(a * 6) + axis], aMax = quadBounds[(a * 6) + axis + 3];
+            float bMin = quadBounds[(b * 6) + axis], bMax = quadBounds[(b * 6) + axis + 3];
+
+            int side;
+
+            if (aMax <= bMin && bMax <= aMin) {
+                // Both quads lie in the same plane of this axis
+                continue;
+            } else if (aMax <= bMin) {
+                side = getSeparatedSide(cellBounds, axis, aMax, bMin);
+            } else if (bMax <= aMin) {
+                side = -getSeparatedSide(cellBounds, axis, bMax, aMin);
+            } else {
+                continue;
+            }
+
+            // Either the camera is between the quads, or the quads are separated such that neither can hide the other
+            if (side == 0 || (relation != 0 && relation != side)) {
+                return 0;
+            }
+
+            relation = side;
+        }
+
+        // Only keep the constraints which draw a quad before another quad that may hide it
+        if ((relation < 0 && !bHidesA) || (relation > 0 && !aHidesB)) {
+            return 0;
+        }
+
+        return relation;
+    }
+
+    /**
+     * Decides which of two quads which are separated on an axis must be drawn first, where the lower quad ends at
+     * {@param lowerMax} and the upper quad starts at {@param upperMin}. Both are planes, so the camera is always on
+     * the same side of them for every position in the cell.
+     * @return A negative number if the lower quad must be drawn first, a positive number if the upper quad must be
+     * drawn first, or zero if the camera is between the quads, in which case neither can hide the other
+     */
+    private static int getSeparatedSide(float[] cellBounds, int axis, float lowerMax, float upperMin) {
+        boolean aboveLower = cellBounds[axis] >= lowerMax;
+        boolean belowUpper = cellBounds[axis + 3] <= upperMin;
+
+        if (aboveLower == belowUpper) {
+            return 0;
+        }
+
+        return aboveLower ? -1 : 1;
+    }
+
+    /**
+     * @return True if quad {@param front} overlaps the smallest box which contains both quad {@param back} and the
+     * cell, which it must do to be between the camera and any part of the back quad
+     */
+    private static boolean mayHide(float[] quadBounds, float[] cellBounds, int front, int back) {
+        for (int axis = 0; axis < 3; axis++) {
+            float min = Math.min(cellBounds[axis], quadBounds[(back * 6) + axis]);
+            float max = Math.max(cellBounds[axis + 3], quadBounds[(back * 6) + axis + 3]);
+
+            if (quadBounds[(front * 6) + axis + 3] <= min || quadBounds[(front * 6) + axis] >= max) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates an index buffer which draws the quads of a mesh in the given order, without the vertex data itself
+     * having to be re-arranged. The indices are relative to the first vertex of the mesh.
+     */
+    public static ByteBuffer createIndexData(TranslucentQuadOrder order) {
+        int[] quads = order.getOrder();
+
+        ByteBuffer buffer = MeshBufferPool.INSTANCE.borrow(quads.length * 4 * 4);
+        IntBuffer indices = buffer.asIntBuffer();
+
+        for (int quadIdx : quads) {
+            int vertexIdx = quadIdx * 4;
+
+            indices.put(vertexIdx);
+            indices.put(vertexIdx + 1);
+            indices.put(vertexIdx + 2);
+            indices.put(vertexIdx + 3);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Copies the quads of {@param src} into {@param dst}, moving the quad at position {@code permutation[i]} to
+     * position {@code i}. Both buffers must be direct.
+     */
+    public static void copyQuads(ByteBuffer src, ByteBuffer dst, int[] permutation, int quadStride) {
+        long srcAddr = MemoryUtil.memAddress0(src);
+        long dstAddr = MemoryUtil.memAddress0(dst);
+
+        for (int i = 0; i < permutation.length; i++) {
+            MemoryUtil.memCopy(srcAddr + ((long) permutation[i] * quadStride), dstAddr + ((long) i * quadStride), quadStride);
+        }
     }
 
     private static void rearrangeQuads(ByteBuffer quadBuffer, int[] indicesArray, int quadStride, int quadStart) {
@@ -113,75 +609,23 @@ public class ChunkBufferSorter {
         ((Buffer)floatBuffer).position(base);
     }
 
-    private static float getDistanceSqSFP(FloatBuffer buffer, float xCenter, float yCenter, float zCenter, int stride, int start) {
-        int vertexBase = start;
-        float x1 = buffer.get(vertexBase);
-        float y1 = buffer.get(vertexBase + 1);
-        float z1 = buffer.get(vertexBase + 2);
-
-        //System.out.println("camera: " + xCenter + "," + yCenter + "," + zCenter);
-        //System.out.println("buffer1: " + x1 + "," + y1 + "," + z1);
-
-        vertexBase += stride;
-        float x2 = buffer.get(vertexBase);
-        float y2 = buffer.get(vertexBase + 1);
-        float z2 = buffer.get(vertexBase + 2);
-        //System.out.println("buffer2: " + x2 + "," + y2 + "," + z2);
-
-        vertexBase += stride;
-        float x3 = buffer.get(vertexBase);
-        float y3 = buffer.get(vertexBase + 1);
-        float z3 = buffer.get(vertexBase + 2);
-        //System.out.println("buffer3: " + x3 + "," + y3 + "," + z3);
-
-        vertexBase += stride;
-        float x4 = buffer.get(vertexBase);
-        float y4 = buffer.get(vertexBase + 1);
-        float z4 = buffer.get(vertexBase + 2);
-        //System.out.println("buffer4: " + x4 + "," + y4 + "," + z4);
-
-        float xDist = ((x1 + x2 + x3 + x4) * 0.25F) - xCenter;
-        float yDist = ((y1 + y2 + y3 + y4) * 0.25F) - yCenter;
-        float zDist = ((z1 + z2 + z3 + z4) * 0.25F) - zCenter;
-
-        return (xDist * xDist) + (yDist * yDist) + (zDist * zDist);
+    private static void readQuadSFP(FloatBuffer buffer, float[] positions, int offset, int stride, int start) {
+        for (int vertexBase = start, i = offset; i < offset + 12; vertexBase += stride, i += 3) {
+            positions[i] = buffer.get(vertexBase);
+            positions[i + 1] = buffer.get(vertexBase + 1);
+            positions[i + 2] = buffer.get(vertexBase + 2);
+        }
     }
 
     private static float normalizeShort(short s) {
         return (float)Short.toUnsignedInt(s) / 2048.0f;
     }
 
-    private static float getDistanceSqHFP(ShortBuffer buffer, float xCenter, float yCenter, float zCenter, int stride, int start) {
-        int vertexBase = start;
-        float x1 = normalizeShort(buffer.get(vertexBase));
-        float y1 = normalizeShort(buffer.get(vertexBase + 1));
-        float z1 = normalizeShort(buffer.get(vertexBase + 2));
-
-        //System.out.println("camera: " + xCenter + "," + yCenter + "," + zCenter);
-        //System.out.println("buffer1: " + x1 + "," + y1 + "," + z1);
-
-        vertexBase += stride;
-        float x2 = normalizeShort(buffer.get(vertexBase));
-        float y2 = normalizeShort(buffer.get(vertexBase + 1));
-        float z2 = normalizeShort(buffer.get(vertexBase + 2));
-        //System.out.println("buffer2: " + x2 + "," + y2 + "," + z2);
-
-        vertexBase += stride;
-        float x3 = normalizeShort(buffer.get(vertexBase));
-        float y3 = normalizeShort(buffer.get(vertexBase + 1));
-        float z3 = normalizeShort(buffer.get(vertexBase + 2));
-        //System.out.println("buffer3: " + x3 + "," + y3 + "," + z3);
-
-        vertexBase += stride;
-        float x4 = normalizeShort(buffer.get(vertexBase));
-        float y4 = normalizeShort(buffer.get(vertexBase + 1));
-        float z4 = normalizeShort(buffer.get(vertexBase + 2));
-        //System.out.println("buffer4: " + x4 + "," + y4 + "," + z4);
-
-        float xDist = ((x1 + x2 + x3 + x4) * 0.25F) - xCenter;
-        float yDist = ((y1 + y2 + y3 + y4) * 0.25F) - yCenter;
-        float zDist = ((z1 + z2 + z3 + z4) * 0.25F) - zCenter;
-
-        return (xDist * xDist) + (yDist * yDist) + (zDist * zDist);
+    private static void readQuadHFP(ShortBuffer buffer, float[] positions, int offset, int stride, int start) {
+        for (int vertexBase = start, i = offset; i < offset + 12; vertexBase += stride, i += 3) {
+            positions[i] = normalizeShort(buffer.get(vertexBase));
+            positions[i + 1] = normalizeShort(buffer.get(vertexBase + 1));
+            positions[i + 2] = normalizeShort(buffer.get(vertexBase + 2));
+        }
     }
 }
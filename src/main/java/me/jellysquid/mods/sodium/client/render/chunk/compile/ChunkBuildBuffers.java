@@ -11,8 +11,11 @@ import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelB
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelVertexTransformer;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.MeshBufferPool;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadOrder;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelOffset;
 import me.jellysquid.mods.sodium.client.render.chunk.format.sfp.SFPModelVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import net.minecraft.client.renderer.RenderType;
@@ -29,12 +32,18 @@ public class ChunkBuildBuffers {
     private final ChunkModelBuffers[] delegates;
     private final VertexBufferBuilder[][] buffersByLayer;
     private final ChunkVertexType vertexType;
+    private final boolean indexedTranslucency;
 
     private final BlockRenderPassManager renderPassManager;
     private final ChunkModelOffset offset;
 
-    public ChunkBuildBuffers(ChunkVertexType vertexType, BlockRenderPassManager renderPassManager) {
+    // Merges the faces of solid blocks, or null if the vertex type can't repeat sprites
+    private final ChunkFaceMerger faceMerger;
+    private final int faceMergerPassId;
+
+    public ChunkBuildBuffers(ChunkVertexType vertexType, BlockRenderPassManager renderPassManager, boolean indexedTranslucency) {
         this.vertexType = vertexType;
+        this.indexedTranslucency = indexedTranslucency;
         this.renderPassManager = renderPassManager;
 
         this.delegates = new ChunkModelBuffers[BlockRenderPass.COUNT];
@@ -42,6 +51,9 @@ public class ChunkBuildBuffers {
 
         this.offset = new ChunkModelOffset();
 
+        this.faceMerger = vertexType instanceof TiledModelVertexType ? new ChunkFaceMerger() : null;
+        this.faceMergerPassId = this.renderPassManager.getRenderPassId(RenderType.solid());
+
         for (RenderType layer : RenderType.chunkBufferLayers()) {
             int passId = this.renderPassManager.getRenderPassId(layer);
 
@@ -61,8 +73,29 @@ public class ChunkBuildBuffers {
                 writers[facing.ordinal()] = new ChunkModelVertexTransformer(this.vertexType.createBufferWriter(this.buffersByLayer[i][facing.ordinal()], SodiumClientMod.isDirectMemoryAccessEnabled()), this.offset);
             }
 
-            this.delegates[i] = new BakedChunkModelBuffers(writers, renderData);
+            this.delegates[i] = new BakedChunkModelBuffers(writers, renderData, i == this.faceMergerPassId ? this.faceMerger : null);
+        }
+
+        // Drop the faces of a previous build which was cancelled before they were flushed
+        if (this.faceMerger != null) {
+            this.faceMerger.reset();
+        }
+    }
+
+    /**
+     * Writes the faces which were merged while rendering the blocks of a section into the meshes. This must be called
+     * after all blocks have been rendered and before the meshes are created.
+     * @param x The x-position of the origin of the section, relative to the render origin
+     * @param y The y-position of the origin of the section, relative to the render origin
+     * @param z The z-position of the origin of the section, relative to the render origin
+     */
+    public void flushMergedFaces(int x, int y, int z) {
+        if (this.faceMerger == null) {
+            return;
         }
+
+        this.setRenderOffset(x, y, z);
+        this.faceMerger.flush(this.delegates[this.faceMergerPassId]);
     }
 
     /**
@@ -106,7 +139,9 @@ public class ChunkBuildBuffers {
             return null;
         }
 
-        ByteBuffer buffer = MemoryTracker.createByteBuffer(bufferLen);
+        // The vertex data of sorted translucent meshes is kept around for re-sorting, so it can't be returned to the pool
+        ByteBuffer buffer = sortTranslucent && pass.isTranslucent() ? MemoryTracker.createByteBuffer(bufferLen) :
+                MeshBufferPool.INSTANCE.borrow(bufferLen);
 
         for (Map.Entry<ModelQuadFacing, BufferSlice> entry : meshData.getSlices()) {
             BufferSlice slice = entry.getValue();
@@ -119,7 +154,11 @@ public class ChunkBuildBuffers {
         buffer.flip();
 
         if (sortTranslucent && pass.isTranslucent()) {
-            ChunkBufferSorter.sortStandardFormat(vertexType, buffer, bufferLen, x, y, z);
+            if (this.indexedTranslucency) {
+                this.createIndexedMesh(meshData, buffer, bufferLen, x, y, z);
+            } else {
+                meshData.setQuadOrder(ChunkBufferSorter.sortStandardFormat(vertexType, buffer, bufferLen, x, y, z));
+            }
         }
 
         meshData.setVertexData(new VertexData(buffer, this.vertexType.getCustomVertexFormat()));
@@ -127,6 +166,33 @@ public class ChunkBuildBuffers {
         return meshData;
     }
 
+    /**
+     * Sorts a translucent mesh by generating an index buffer for it, leaving the vertex data in the order it was built
+     * in. Later sorts of the mesh then only need to replace its index buffer.
+     */
+    private void createIndexedMesh(ChunkMeshData meshData, ByteBuffer buffer, int bufferLen, float x, float y, float z) {
+        TranslucentQuadOrder order = ChunkBufferSorter.createQuadOrder(this.vertexType, buffer, bufferLen);
+
+        if (order == null) {
+            return;
+        }
+
+        int[] cell = order.getPlaneCell(x, y, z);
+        int[] permutation = ChunkBufferSorter.sortQuads(order, cell, x, y, z);
+
+        order = order.permute(buffer, permutation, cell);
+
+        meshData.setQuadOrder(order);
+        meshData.setIndexData(ChunkBufferSorter.createIndexData(order));
+    }
+
+    /**
+     * @return True if translucent meshes are sorted using index buffers rather than by re-arranging their vertex data
+     */
+    public boolean isIndexedTranslucency() {
+        return this.indexedTranslucency;
+    }
+
     public void setRenderOffset(int x, int y, int z) {
         this.offset.set(x, y, z);
     }
@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderContainer;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 
@@ -15,9 +16,50 @@ public class ChunkBuildResult<T extends ChunkGraphicsState> {
     public final ChunkRenderData data;
     public BlockRenderPass[] passesToUpload;
 
+    /**
+     * The render data which this result only partially replaces, or null if it replaces the render data entirely. If
+     * the render has been updated with other data in the meantime, this result is stale and must be discarded.
+     */
+    public ChunkRenderData sourceData;
+
     public ChunkBuildResult(ChunkRenderContainer<T> render, ChunkRenderData data) {
         this.render = render;
         this.data = data;
         this.passesToUpload = BlockRenderPass.VALUES;
     }
+
+    /**
+     * Tests whether this result can be applied to the current graphics state of the render. A mesh which only has
+     * index data replaces the draw order of the existing vertices, which is not possible if those vertices were not
+     * uploaded with index data in the first place, or have since been deleted.
+     */
+    public boolean canApplyTo(ChunkRenderContainer<T> render) {
+        for (BlockRenderPass pass : this.passesToUpload) {
+            ChunkMeshData mesh = this.data.getMesh(pass);
+
+            if (mesh != null && !mesh.hasVertexData() && mesh.hasIndexData()) {
+                T state = render.getGraphicsState(pass);
+
+                if (state == null || !state.isIndexed()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Releases the pending mesh data of this result back to the pool. This must be called for results which are
+     * discarded instead of being uploaded.
+     */
+    public void releaseBuffers() {
+        for (BlockRenderPass pass : this.passesToUpload) {
+            ChunkMeshData mesh = this.data.getMesh(pass);
+
+            if (mesh != null) {
+                mesh.releaseBuffers();
+            }
+        }
+    }
 }
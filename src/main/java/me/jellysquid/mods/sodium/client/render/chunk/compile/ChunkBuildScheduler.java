@@ -0,0 +1,66 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
+
+import java.util.function.Consumer;
+
+/**
+ * Decides the order in which pending build tasks are handed out to the worker threads of a {@link ChunkBuilder}.
+ *
+ * Tasks are enqueued and the camera is updated from the main thread, while worker threads concurrently poll for the
+ * next task to execute. Implementations must be safe for this access pattern.
+ *
+ * @param <T> The graphics state of the chunk render
+ */
+public interface ChunkBuildScheduler<T extends ChunkGraphicsState> {
+    /**
+     * Adds a task to the set of pending tasks.
+     */
+    void enqueue(ChunkBuilder.WrappedTask<T> job);
+
+    /**
+     * Removes and returns the most urgent pending task, or null if there are no tasks pending.
+     * @param worker The index of the worker thread which is asking for a task
+     */
+    ChunkBuilder.WrappedTask<T> poll(int worker);
+
+    /**
+     * @return The number of tasks which are still pending
+     */
+    int size();
+
+    /**
+     * @return True if there are no tasks pending
+     */
+    default boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Notifies the scheduler of the current camera position. Implementations may use this to re-order pending tasks,
+     * and to drop tasks which are no longer useful. Every task dropped in this way, including tasks which had already
+     * been cancelled, is passed to {@code evicted}.
+     */
+    void updateCamera(double x, double y, double z, Consumer<ChunkBuilder.WrappedTask<T>> evicted);
+
+    /**
+     * Removes every pending task, passing each one to {@param consumer}.
+     */
+    void drain(Consumer<ChunkBuilder.WrappedTask<T>> consumer);
+
+    /**
+     * Notifies the scheduler that only the workers with an index below {@param count} will poll for tasks until
+     * this is called again. This is only called from the main thread.
+     */
+    default void setActiveWorkers(int count) {
+
+    }
+
+    /**
+     * Tests whether a chunk section was visible to the camera during the last frame.
+     */
+    @FunctionalInterface
+    interface SectionVisibility {
+        boolean isSectionVisible(int x, int y, int z);
+    }
+}
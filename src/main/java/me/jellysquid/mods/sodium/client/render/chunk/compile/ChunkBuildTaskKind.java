@@ -0,0 +1,20 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+/**
+ * The kind of work a scheduled build task performs. The declaration order is also the order of precedence used by
+ * schedulers which prioritize tasks, with earlier kinds being more urgent.
+ */
+public enum ChunkBuildTaskKind {
+    /**
+     * A rebuild which the main thread may block on before rendering the next frame.
+     */
+    IMPORTANT_REBUILD,
+    /**
+     * A rebuild which is processed whenever the result becomes available.
+     */
+    REBUILD,
+    /**
+     * A re-sort of the translucent geometry of an already built section.
+     */
+    SORT
+}
@@ -1,14 +1,20 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.compat.forge.ForgeBlockRenderer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderBackend;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderContainer;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.MeshBufferPool;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderBuildTask;
@@ -17,6 +23,7 @@ import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderTranslucen
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.WorldSliceBatch;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
 import me.jellysquid.mods.sodium.common.util.collections.DequeDrain;
@@ -31,9 +38,13 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class ChunkBuilder<T extends ChunkGraphicsState> {
     /**
@@ -48,11 +59,49 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
      */
     private static final int MBS_PER_CHUNK_BUILDER = 64;
 
-    private final Deque<WrappedTask<T>> buildQueue = new ConcurrentLinkedDeque<>();
+    /**
+     * The maximum number of bytes of mesh data which will be uploaded per frame when processing pending uploads.
+     * Results which don't fit are left queued for the next frame.
+     */
+    private static final long UPLOAD_BUDGET_BYTES = 8L * 1024L * 1024L;
+
+    /**
+     * The maximum amount of time which will be spent uploading mesh data per frame when processing pending uploads.
+     * This is only checked between batches, so a single batch can exceed it.
+     */
+    private static final long UPLOAD_BUDGET_NANOS = 2_000_000L;
+
+    /**
+     * The maximum number of results which will be passed to the backend in a single upload call.
+     */
+    private static final int UPLOAD_BATCH_SIZE = 16;
+
+    /**
+     * The amount of time the backlog must stay small enough for fewer workers before one worker is deactivated.
+     */
+    private static final long SCALE_DOWN_DELAY_NANOS = 1_000_000_000L;
+
+    private final ChunkBuildScheduler<T> buildQueue;
     private final Deque<ChunkBuildResult<T>> uploadQueue = new ConcurrentLinkedDeque<>();
     private final Deque<Throwable> failureQueue = new ConcurrentLinkedDeque<>();
 
-    private final Object jobNotifier = new Object();
+    // Results which did not fit into the upload budget of a previous frame, only accessed from the main thread
+    private final ObjectArrayList<ChunkBuildResult<T>> deferredUploads = new ObjectArrayList<>();
+    private long deferredUploadBytes;
+    private long lastUploadBytes;
+
+    // The worker threads which are currently parked while waiting for tasks to become available
+    private final Queue<Thread> idleWorkers = new ConcurrentLinkedQueue<>();
+
+    // The number of tasks scheduled during the current batch whose workers have not been woken up yet
+    private int pendingWakeups;
+    private boolean batching;
+
+    // Shares the sections and model data acquired while preparing the rebuild tasks of the current batch
+    private WorldSliceBatch sliceBatch;
+    private long lastSlicePrepareTime;
+    private int lastSliceSectionCount;
+    private int lastSliceContextCount;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final List<Thread> threads = new ArrayList<>();
@@ -65,13 +114,35 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     private BlockRenderPassManager renderPassManager;
 
     private final int limitThreads;
+    private final int minThreads;
+
+    // The number of workers which are allowed to take tasks. Workers with an index at or above this park until they
+    // are activated again, but keep their buffers and caches so that scaling back up is cheap.
+    private volatile int activeThreads;
+
+    // The last time the backlog required at least as many workers as are active, only accessed from the main thread
+    private long lastBusyTime;
+    private int resizeCount;
+
     private final ChunkVertexType vertexType;
     private final ChunkRenderBackend<T> backend;
+    private final boolean indexedTranslucency;
 
-    public ChunkBuilder(ChunkVertexType vertexType, ChunkRenderBackend<T> backend) {
+    public ChunkBuilder(ChunkVertexType vertexType, ChunkRenderBackend<T> backend, int renderDistance, ChunkBuildScheduler.SectionVisibility visibility) {
         this.vertexType = vertexType;
         this.backend = backend;
+        this.indexedTranslucency = backend.supportsIndexedTranslucency() && SodiumClientMod.options().advanced.useTranslucentIndexBuffers;
         this.limitThreads = getThreadCount();
+        this.minThreads = SodiumClientMod.options().performance.adaptiveChunkBuilderThreads ? Math.max(1, this.limitThreads / 4) : this.limitThreads;
+        this.buildQueue = createScheduler(this.limitThreads, renderDistance, visibility);
+    }
+
+    private static <T extends ChunkGraphicsState> ChunkBuildScheduler<T> createScheduler(int workers, int renderDistance, ChunkBuildScheduler.SectionVisibility visibility) {
+        if (SodiumClientMod.options().performance.prioritizeChunkUpdates) {
+            return new PriorityChunkBuildScheduler<>(visibility, renderDistance, workers);
+        } else {
+            return new WorkStealingChunkBuildScheduler<>(workers);
+        }
     }
 
     /**
@@ -84,7 +155,8 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
 
     /**
      * Spawns a number of work-stealing threads to process results in the build queue. If the builder is already
-     * running, this method does nothing and exits.
+     * running, this method does nothing and exits. Only the minimum number of workers is spawned up-front, and more
+     * are added by {@link ChunkBuilder#updateActiveWorkers(int)} as the backlog grows.
      */
     public void startWorkers() {
         if (this.running.getAndSet(true)) {
@@ -95,23 +167,75 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
             throw new IllegalStateException("Threads are still alive while in the STOPPED state");
         }
 
-        Minecraft client = Minecraft.getInstance();
+        for (int i = 0; i < this.minThreads; i++) {
+            this.spawnWorker(i);
+        }
+
+        this.activeThreads = this.minThreads;
+        this.buildQueue.setActiveWorkers(this.minThreads);
+        this.lastBusyTime = System.nanoTime();
+
+        LOGGER.info("Started {} worker threads (up to {})", this.threads.size(), this.limitThreads);
+    }
+
+    private void spawnWorker(int id) {
+        ChunkBuildBuffers buffers = new ChunkBuildBuffers(this.vertexType, this.renderPassManager, this.indexedTranslucency);
+        ChunkRenderCacheLocal pipeline = new ChunkRenderCacheLocal(Minecraft.getInstance(), this.world);
+
+        WorkerRunnable worker = new WorkerRunnable(id, buffers, pipeline);
+
+        Thread thread = new Thread(worker, "Chunk Render Task Executor #" + id);
+        thread.setPriority(Math.max(0, Thread.NORM_PRIORITY - 2));
+        thread.start();
+
+        this.threads.add(thread);
+        this.chunkRenderCaches.add(pipeline);
+    }
+
+    /**
+     * Resizes the set of active workers to match the amount of outstanding work. Workers are activated as soon as the
+     * backlog grows, spawning new threads if needed, but are only deactivated one at a time once the backlog has
+     * stayed small for a while. Deactivated workers finish their current task and keep their resources. This must
+     * only be called from the main thread.
+     * @param backlog The number of sections which are waiting to be scheduled, in addition to the queued tasks
+     */
+    public void updateActiveWorkers(int backlog) {
+        if (!this.running.get() || this.minThreads == this.limitThreads) {
+            return;
+        }
 
-        for (int i = 0; i < this.limitThreads; i++) {
-            ChunkBuildBuffers buffers = new ChunkBuildBuffers(this.vertexType, this.renderPassManager);
-            ChunkRenderCacheLocal pipeline = new ChunkRenderCacheLocal(client, this.world);
+        int pending = backlog + this.buildQueue.size();
+        int target = Mth.clamp((pending + TASK_QUEUE_LIMIT_PER_WORKER - 1) / TASK_QUEUE_LIMIT_PER_WORKER, this.minThreads, this.limitThreads);
 
-            WorkerRunnable worker = new WorkerRunnable(buffers, pipeline);
+        int active = this.activeThreads;
+        long now = System.nanoTime();
 
-            Thread thread = new Thread(worker, "Chunk Render Task Executor #" + i);
-            thread.setPriority(Math.max(0, Thread.NORM_PRIORITY - 2));
-            thread.start();
+        if (target >= active) {
+            this.lastBusyTime = now;
+        }
+
+        if (target > active) {
+            for (int i = this.threads.size(); i < target; i++) {
+                this.spawnWorker(i);
+            }
 
-            this.threads.add(thread);
-            this.chunkRenderCaches.add(pipeline);
+            this.setActiveWorkers(target);
+
+            for (int i = active; i < target; i++) {
+                LockSupport.unpark(this.threads.get(i));
+            }
+        } else if (target < active && now - this.lastBusyTime >= SCALE_DOWN_DELAY_NANOS) {
+            this.lastBusyTime = now;
+            this.setActiveWorkers(active - 1);
         }
+    }
 
-        LOGGER.info("Started {} worker threads", this.threads.size());
+    private void setActiveWorkers(int count) {
+        LOGGER.debug("Resizing active worker threads from {} to {} ({} spawned)", this.activeThreads, count, this.threads.size());
+
+        this.activeThreads = count;
+        this.buildQueue.setActiveWorkers(count);
+        this.resizeCount++;
     }
 
     /**
@@ -131,8 +255,8 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
         LOGGER.info("Stopping worker threads");
 
         // Notify all worker threads to wake up, where they will then terminate
-        synchronized (this.jobNotifier) {
-            this.jobNotifier.notifyAll();
+        for (Thread thread : this.threads) {
+            LockSupport.unpark(thread);
         }
 
         // Wait for every remaining thread to terminate
@@ -145,17 +269,22 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
 
         this.threads.clear();
         this.chunkRenderCaches.clear();
+        this.activeThreads = 0;
 
         // Drop any pending work queues and cancel futures
+        this.uploadQueue.forEach(ChunkBuildResult::releaseBuffers);
         this.uploadQueue.clear();
+        this.deferredUploads.forEach(ChunkBuildResult::releaseBuffers);
+        this.deferredUploads.clear();
+        this.deferredUploadBytes = 0;
         this.failureQueue.clear();
 
-        for (WrappedTask<?> job : this.buildQueue) {
+        this.buildQueue.drain(job -> {
             job.future.cancel(true);
-        }
-
-        this.buildQueue.clear();
+            job.task.releaseResources();
+        });
 
+        this.sliceBatch = null;
         this.world = null;
         this.sectionCache = null;
     }
@@ -181,6 +310,12 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
             // * The new upload replaces more render types than the old one (in practice, is a rebuild while the other is a sort)
             if(oldResult == null || result.passesToUpload.length >= oldResult.passesToUpload.length) {
                 map.put(section, result);
+
+                if (oldResult != null) {
+                    oldResult.releaseBuffers();
+                }
+            } else {
+                result.releaseBuffers();
             }
         }
 
@@ -188,19 +323,142 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     }
 
     /**
-     * Processes all pending build task uploads using the chunk render backend.
+     * Processes pending build task uploads using the chunk render backend, starting with the results closest to the
+     * camera. Uploading stops once either the byte or the time budget for this frame has been used up, and any
+     * results which remain are deferred to the next call. At least one batch is always uploaded.
      */
-    // TODO: Limit the amount of time this can take per frame
     public boolean performPendingUploads() {
-        if (this.uploadQueue.isEmpty()) {
+        MeshBufferPool.INSTANCE.checkLeaks();
+
+        if (this.uploadQueue.isEmpty() && this.deferredUploads.isEmpty()) {
             return false;
         }
 
-        this.backend.upload(RenderDevice.INSTANCE.createCommandList(), filterChunkBuilds(new DequeDrain<>(this.uploadQueue)));
+        // Deferred results are older than anything in the upload queue, so they must come first in order for newer
+        // results of the same section to replace them
+        Iterator<ChunkBuildResult<T>> it = this.filterChunkBuilds(Iterators.concat(this.deferredUploads.iterator(),
+                new DequeDrain<>(this.uploadQueue)));
+
+        ObjectArrayList<ChunkBuildResult<T>> pending = new ObjectArrayList<>();
+
+        while (it.hasNext()) {
+            ChunkBuildResult<T> result = it.next();
+
+            // The section may have been unloaded while its result was waiting to be uploaded, and sort results may have
+            // been computed from data which was since replaced by a rebuild
+            if (!result.render.isDisposed() && !isStale(result)) {
+                pending.add(result);
+            } else {
+                result.releaseBuffers();
+            }
+        }
+
+        this.deferredUploads.clear();
+        this.deferredUploadBytes = 0;
+
+        Vec3 camera = this.cameraPosition;
+        pending.sort(Comparator.comparingDouble(result -> result.render.getSquaredDistance(camera.x, camera.y, camera.z)));
+
+        CommandList commandList = RenderDevice.INSTANCE.createCommandList();
+
+        long start = System.nanoTime();
+        long bytes = 0;
+        int uploaded = 0;
+
+        while (uploaded < pending.size()) {
+            if (uploaded > 0 && (bytes >= UPLOAD_BUDGET_BYTES || System.nanoTime() - start >= UPLOAD_BUDGET_NANOS)) {
+                break;
+            }
+
+            int batchEnd = uploaded;
+
+            while (batchEnd < pending.size() && batchEnd - uploaded < UPLOAD_BATCH_SIZE && bytes < UPLOAD_BUDGET_BYTES) {
+                bytes += getUploadSize(pending.get(batchEnd++));
+            }
+
+            this.backend.upload(commandList, pending.subList(uploaded, batchEnd).iterator());
+
+            uploaded = batchEnd;
+        }
+
+        for (int i = uploaded; i < pending.size(); i++) {
+            ChunkBuildResult<T> result = pending.get(i);
+
+            this.deferredUploads.add(result);
+            this.deferredUploadBytes += getUploadSize(result);
+        }
+
+        this.lastUploadBytes = bytes;
 
         return true;
     }
 
+    /**
+     * Uploads the results of tasks which the main thread blocked on, bypassing the per-frame upload budget. Any
+     * deferred results for the same sections are older than these and are discarded.
+     */
+    public void performBlockingUploads(Iterator<ChunkBuildResult<T>> results) {
+        ObjectArrayList<ChunkBuildResult<T>> list = new ObjectArrayList<>(this.filterChunkBuilds(results));
+
+        if (!this.deferredUploads.isEmpty()) {
+            ReferenceOpenHashSet<ChunkRenderContainer<T>> renders = new ReferenceOpenHashSet<>();
+
+            for (ChunkBuildResult<T> result : list) {
+                renders.add(result.render);
+            }
+
+            this.deferredUploads.removeIf(result -> {
+                if (renders.contains(result.render)) {
+                    result.releaseBuffers();
+                    return true;
+                }
+
+                return false;
+            });
+            this.deferredUploadBytes = 0;
+
+            for (ChunkBuildResult<T> result : this.deferredUploads) {
+                this.deferredUploadBytes += getUploadSize(result);
+            }
+        }
+
+        this.backend.upload(RenderDevice.INSTANCE.createCommandList(), list.iterator());
+    }
+
+    private static boolean isStale(ChunkBuildResult<?> result) {
+        return result.sourceData != null && result.sourceData != result.render.getData();
+    }
+
+    /**
+     * @return The number of bytes of vertex and index data which will be uploaded for the given result
+     */
+    private static long getUploadSize(ChunkBuildResult<?> result) {
+        long size = 0;
+
+        for (BlockRenderPass pass : result.passesToUpload) {
+            ChunkMeshData mesh = result.data.getMesh(pass);
+
+            if (mesh != null) {
+                size += mesh.getVertexDataSize() + mesh.getIndexDataSize();
+            }
+        }
+
+        return size;
+    }
+
+    public List<String> getDebugStrings() {
+        List<String> list = new ArrayList<>();
+        list.add(String.format("Chunk Uploads: %s KB, %s deferred (%s KB)", this.lastUploadBytes / 1024L,
+                this.deferredUploads.size(), this.deferredUploadBytes / 1024L));
+        list.add(String.format("Chunk Builders: %s active, %s spawned, %s max (%s resizes)", this.activeThreads,
+                this.threads.size(), this.limitThreads, this.resizeCount));
+        list.add(String.format("Slice Prep: %s us, %s sections, %s contexts", this.lastSlicePrepareTime / 1000L,
+                this.lastSliceSectionCount, this.lastSliceContextCount));
+        list.add(MeshBufferPool.INSTANCE.getDebugString());
+
+        return list;
+    }
+
     public void handleFailures() {
         Iterator<Throwable> errorIterator = new DequeDrain<>(this.failureQueue);
 
@@ -217,22 +475,112 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
         }
     }
 
-    public CompletableFuture<ChunkBuildResult<T>> schedule(ChunkRenderBuildTask<T> task) {
+    public CompletableFuture<ChunkBuildResult<T>> schedule(ChunkRenderBuildTask<T> task, ChunkRenderContainer<T> render, ChunkBuildTaskKind kind) {
         if (!this.running.get()) {
             throw new IllegalStateException("Executor is stopped");
         }
 
-        WrappedTask<T> job = new WrappedTask<>(task);
+        WrappedTask<T> job = new WrappedTask<>(task, render, kind);
 
-        this.buildQueue.add(job);
+        this.buildQueue.enqueue(job);
 
-        synchronized (this.jobNotifier) {
-            this.jobNotifier.notify();
+        if (this.batching) {
+            this.pendingWakeups++;
+        } else {
+            this.wakeWorkers(1);
         }
 
         return job.future;
     }
 
+    /**
+     * Begins a batch of task submissions. Until {@link ChunkBuilder#endBatch()} is called, scheduling a task will not
+     * wake up any worker threads, which avoids waking workers one at a time while many tasks are being submitted.
+     * The world slices of all the rebuild tasks created during the batch are prepared together, so that the sections
+     * they have in common are only acquired once.
+     */
+    public void beginBatch() {
+        this.batching = true;
+
+        if (this.world != null) {
+            this.sliceBatch = new WorldSliceBatch(this.world, this.sectionCache);
+        }
+    }
+
+    /**
+     * Ends the current batch of task submissions and wakes up as many idle workers as there were tasks submitted.
+     * This must be called before the main thread blocks on any task which was scheduled during the batch.
+     */
+    public void endBatch() {
+        this.batching = false;
+
+        WorldSliceBatch sliceBatch = this.sliceBatch;
+
+        if (sliceBatch != null) {
+            this.sliceBatch = null;
+
+            // Only update the statistics when something was rebuilt, so that they don't flicker back to zero
+            if (sliceBatch.getPreparedCount() > 0) {
+                this.lastSlicePrepareTime = sliceBatch.getPrepareTime();
+                this.lastSliceSectionCount = sliceBatch.getSectionCount();
+                this.lastSliceContextCount = sliceBatch.getPreparedCount();
+            }
+
+            sliceBatch.close();
+        }
+
+        int count = this.pendingWakeups;
+        this.pendingWakeups = 0;
+
+        this.wakeWorkers(count);
+    }
+
+    /**
+     * Wakes up to {@param count} parked worker threads. This never takes a lock and does nothing when all workers are
+     * already busy.
+     */
+    private void wakeWorkers(int count) {
+        Thread thread;
+
+        while (count-- > 0 && (thread = this.idleWorkers.poll()) != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Parks the calling worker thread until it is woken up by {@link ChunkBuilder#wakeWorkers(int)}, the builder is
+     * shut down, or a spurious wake-up happens. The caller is expected to poll for work again afterwards.
+     */
+    private void waitForWork() {
+        Thread thread = Thread.currentThread();
+
+        this.idleWorkers.add(thread);
+
+        // A task could have been scheduled after the caller last polled the queue but before this thread was
+        // registered as idle, in which case nobody would wake us up
+        if (this.running.get() && this.buildQueue.isEmpty()) {
+            LockSupport.park(this);
+        }
+
+        this.idleWorkers.remove(thread);
+    }
+
+    /**
+     * Parks a worker which is not currently active until it is activated again by
+     * {@link ChunkBuilder#updateActiveWorkers(int)} or the builder is shut down.
+     */
+    private void waitForActivation(int id) {
+        // The worker may have been deactivated while parked in waitForWork(), in which case it could have consumed a
+        // wake-up meant for an active worker, so pass it on
+        if (!this.buildQueue.isEmpty()) {
+            this.wakeWorkers(1);
+        }
+
+        if (this.running.get() && id >= this.activeThreads) {
+            LockSupport.park(this);
+        }
+    }
+
     /**
      * Get the list of current chunk render caches.
      */
@@ -241,10 +589,36 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     }
 
     /**
-     * Sets the current camera position of the player used for task prioritization.
+     * Sets the current camera position of the player used for task prioritization. This must only be called from the
+     * main thread.
      */
     public void setCameraPosition(double x, double y, double z) {
         this.cameraPosition = new Vec3(x, y, z);
+
+        this.buildQueue.updateCamera(x, y, z, this::onTaskEvicted);
+
+        // Workers which polled while the scheduler was re-ordering its tasks may have gone idle
+        this.wakeWorkers(this.buildQueue.size());
+    }
+
+    /**
+     * Cancels a task which the scheduler dropped from the queue. Rebuilds must not be lost, so the section is flagged
+     * as needing a rebuild again and will be re-scheduled once it is visited by the graph search.
+     */
+    private void onTaskEvicted(WrappedTask<T> job) {
+        // The task will never run, so return the sections it would have used
+        job.task.releaseResources();
+
+        if (job.isCancelled()) {
+            // The task was already cancelled by whoever replaced it, so there is nothing left to do
+            return;
+        }
+
+        job.future.cancel(true);
+
+        if (job.kind != ChunkBuildTaskKind.SORT) {
+            job.render.scheduleRebuild(false);
+        }
     }
 
     /**
@@ -255,10 +629,10 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     }
 
     /**
-     * @return True if the build queue is empty
+     * @return True if the build queue is empty and no results are waiting to be uploaded
      */
     public boolean isBuildQueueEmpty() {
-        return this.buildQueue.isEmpty();
+        return this.buildQueue.isEmpty() && this.deferredUploads.isEmpty();
     }
 
     /**
@@ -311,6 +685,11 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
      */
     public void handleCompletion(CompletableFuture<ChunkBuildResult<T>> future) {
         future.whenComplete((res, ex) -> {
+            if (ex instanceof CancellationException || ex instanceof CompletionException && ex.getCause() instanceof CancellationException) {
+                // Tasks which were dropped by the scheduler are not failures
+                return;
+            }
+
             if (ex != null) {
                 this.failureQueue.add(ex);
             } else if (res != null) {
@@ -346,10 +725,12 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
      */
     @Nullable
     public CompletableFuture<ChunkBuildResult<T>> scheduleRebuildTaskAsync(ChunkRenderContainer<T> render) {
+        // Creating the task clears the rebuild flags of the render, so the kind must be determined first
+        ChunkBuildTaskKind kind = render.needsImportantRebuild() ? ChunkBuildTaskKind.IMPORTANT_REBUILD : ChunkBuildTaskKind.REBUILD;
         ChunkRenderBuildTask<T> task = this.createRebuildTask(render);
 
         if(task != null) {
-            return this.schedule(task);
+            return this.schedule(task, render, kind);
         } else {
             return null;
         }
@@ -360,7 +741,7 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
      * @param render The render to rebuild
      */
     public CompletableFuture<ChunkBuildResult<T>> scheduleSortTaskAsync(ChunkRenderContainer<T> render) {
-        return this.schedule(this.createSortTask(render));
+        return this.schedule(this.createSortTask(render), render, ChunkBuildTaskKind.SORT);
     }
 
     /**
@@ -370,7 +751,13 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     private ChunkRenderBuildTask<T> createRebuildTask(ChunkRenderContainer<T> render) {
         render.cancelRebuildTask();
 
-        ChunkRenderContext context = WorldSlice.prepare(this.world, render.getChunkPos(), this.sectionCache);
+        ChunkRenderContext context;
+
+        if (this.sliceBatch != null) {
+            context = this.sliceBatch.prepare(render.getChunkPos());
+        } else {
+            context = WorldSlice.prepare(this.world, render.getChunkPos(), this.sectionCache);
+        }
 
         if (context == null) {
             return null;
@@ -392,6 +779,9 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
     private class WorkerRunnable implements Runnable {
         private final AtomicBoolean running = ChunkBuilder.this.running;
 
+        // The index of this worker, which the scheduler uses to pick the worker's own queue
+        private final int id;
+
         // The re-useable build buffers used by this worker for building chunk meshes
         private final ChunkBuildBuffers bufferCache;
 
@@ -399,7 +789,8 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
         // caches between different CPU cores
         private final ChunkRenderCacheLocal cache;
 
-        public WorkerRunnable(ChunkBuildBuffers bufferCache, ChunkRenderCacheLocal cache) {
+        public WorkerRunnable(int id, ChunkBuildBuffers bufferCache, ChunkRenderCacheLocal cache) {
+            this.id = id;
             this.bufferCache = bufferCache;
             this.cache = cache;
         }
@@ -411,7 +802,13 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
                 WrappedTask<T> job = this.getNextJob();
 
                 // If the job is null or no longer valid, keep searching for a task
-                if (job == null || job.isCancelled()) {
+                if (job == null) {
+                    continue;
+                }
+
+                if (job.isCancelled()) {
+                    // Return the sections the task would have used so that they can be recycled
+                    job.task.releaseResources();
                     continue;
                 }
 
@@ -431,8 +828,10 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
 
                 // The result can be null if the task is cancelled
                 if (result != null) {
-                    // Notify the future that the result is now available
-                    job.future.complete(result);
+                    // Notify the future that the result is now available, or discard it if the task was cancelled meanwhile
+                    if (!job.future.complete(result)) {
+                        result.releaseBuffers();
+                    }
                 } else if (!job.isCancelled()) {
                     // If the job wasn't cancelled and no result was produced, we've hit a bug
                     job.future.completeExceptionally(new RuntimeException("No result was produced by the task"));
@@ -442,33 +841,50 @@ public class ChunkBuilder<T extends ChunkGraphicsState> {
 
         /**
          * Returns the next task which this worker can work on or blocks until one becomes available. If no tasks are
-         * currently available, it will wait on {@link ChunkBuilder#jobNotifier} field until notified.
+         * currently available, the worker parks itself until it is woken up by a newly scheduled task.
          */
         private WrappedTask<T> getNextJob() {
-            WrappedTask<T> job = ChunkBuilder.this.buildQueue.poll();
+            if (this.id >= ChunkBuilder.this.activeThreads) {
+                ChunkBuilder.this.waitForActivation(this.id);
+
+                return null;
+            }
+
+            WrappedTask<T> job = ChunkBuilder.this.buildQueue.poll(this.id);
 
             if (job == null) {
-                synchronized (ChunkBuilder.this.jobNotifier) {
-                    try {
-                        ChunkBuilder.this.jobNotifier.wait();
-                    } catch (InterruptedException ignored) {
-                    }
-                }
+                ChunkBuilder.this.waitForWork();
             }
 
             return job;
         }
     }
 
-    private static class WrappedTask<T extends ChunkGraphicsState> implements CancellationSource {
+    public static class WrappedTask<T extends ChunkGraphicsState> implements CancellationSource {
         private final ChunkRenderBuildTask<T> task;
+        private final ChunkRenderContainer<T> render;
+        private final ChunkBuildTaskKind kind;
         private final CompletableFuture<ChunkBuildResult<T>> future;
 
-        private WrappedTask(ChunkRenderBuildTask<T> task) {
+        // Scheduling state owned by the ChunkBuildScheduler which this task is queued in
+        long priority;
+        long sequence;
+
+        private WrappedTask(ChunkRenderBuildTask<T> task, ChunkRenderContainer<T> render, ChunkBuildTaskKind kind) {
             this.task = task;
+            this.render = render;
+            this.kind = kind;
             this.future = new CompletableFuture<>();
         }
 
+        public ChunkRenderContainer<T> getRender() {
+            return this.render;
+        }
+
+        public ChunkBuildTaskKind getKind() {
+            return this.kind;
+        }
+
         @Override
         public boolean isCancelled() {
             return this.future.isCancelled();
@@ -0,0 +1,439 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.model.quad.ModelQuadView;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuffers;
+import me.jellysquid.mods.sodium.client.render.chunk.format.TiledModelVertexSink;
+
+import java.util.Arrays;
+
+/**
+ * Merges the full faces of neighbouring blocks in a section into larger quads, which repeat the sprite of the faces
+ * across their surface. A face is only merged with the faces next to it in the same plane that show the same sprite
+ * in the same orientation, and that have the same color and light at every vertex. That is the case for most faces
+ * of blocks such as stone or dirt, but not for faces with ambient occlusion or a blended biome tint which varies across
+ * them. Those still get a quad of their own.
+ *
+ * The faces are collected while the blocks of a section are rendered. Once all blocks have been rendered, they are
+ * written into the meshes by a greedy search, which grows each quad as far as it can along one axis of the plane and
+ * then along the other.
+ *
+ * The merged quads need a vertex format which can repeat a sprite, such as
+ * {@link me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType}.
+ */
+public class ChunkFaceMerger {
+    private static final int SIZE = 16;
+    private static final int PLANE_CELLS = SIZE * SIZE;
+    private static final int FACING_CELLS = SIZE * PLANE_CELLS;
+    private static final int FACING_ROWS = SIZE * SIZE;
+    private static final int FACING_COUNT = 6;
+
+    // Baked quads are shrunk slightly towards the center of their sprite, so their texture coordinates are only
+    // approximately at the edges of the sprite
+    private static final float TEXTURE_EPSILON = 0.01f;
+
+    // The axis which each facing is perpendicular to, and whether the faces are at the positive side of their block,
+    // indexed by the ordinal of the facing
+    private static final int[] AXES = { 1, 1, 0, 0, 2, 2 };
+    private static final boolean[] POSITIVE = { true, false, true, false, true, false };
+
+    // The number of ints describing each distinct face: the origin and size of its sprite, its color, its light and
+    // its shape (see ChunkFaceMerger#getShape)
+    private static final int FACE_STRIDE = 5;
+
+    // The face in each cell of the section, as its index plus one. Indexed by facing, then position along the axis
+    // of the facing, then position along the two other axes. Only the cells which are marked in the row masks hold
+    // a face, the others may hold stale data.
+    private final int[] cells = new int[FACING_COUNT * FACING_CELLS];
+
+    // A bit mask of the cells in each row which hold a face, so that only those have to be visited or cleared
+    private final int[] rowMasks = new int[FACING_COUNT * FACING_ROWS];
+
+    // The number of faces added for each facing
+    private final int[] cellCounts = new int[FACING_COUNT];
+
+    private int[] faces = new int[FACE_STRIDE * 64];
+    private int faceCount;
+
+    // An open-addressing hash table from the attributes of a face to its index plus one
+    private int[] faceTable = new int[128];
+
+    // The last quad which was added for each facing, and its face as an index plus one. Neighbouring blocks mostly
+    // share the same quads, which then only have to be examined once.
+    private final ModelQuadView[] lastQuads = new ModelQuadView[FACING_COUNT];
+    private final int[] lastFaces = new int[FACING_COUNT];
+
+    private final int[] cornerTexCoords = new int[4];
+    private final float[] position = new float[3];
+
+    /**
+     * Adds the face of the block at the given position within the section, if it covers the entire side of the block
+     * and shows its whole sprite in one of the eight orientations of a square.
+     * @param facing The side of the block which the face is on
+     * @param x The x-position of the block within the section
+     * @param y The y-position of the block within the section
+     * @param z The z-position of the block within the section
+     * @param quad The quad of the face, with its positions relative to the block, which must not be modified later on
+     * @param minU The minimum u-coordinate of the sprite of the quad
+     * @param minV The minimum v-coordinate of the sprite of the quad
+     * @param maxU The maximum u-coordinate of the sprite of the quad
+     * @param maxV The maximum v-coordinate of the sprite of the quad
+     * @param color The ABGR-packed color of every vertex of the quad
+     * @param light The packed light-map coordinates of every vertex of the quad
+     * @return True if the face was added, otherwise it has to be rendered as a quad of its own
+     */
+    public boolean add(ModelQuadFacing facing, int x, int y, int z, ModelQuadView quad, float minU, float minV,
+                       float maxU, float maxV, int color, int light) {
+        int facingId = facing.ordinal();
+
+        if (facingId >= FACING_COUNT) {
+            return false;
+        }
+
+        int axis = AXES[facingId];
+        int layer = axis == 0 ? x : axis == 1 ? y : z;
+        int u = axis == 0 ? y : axis == 1 ? z : x;
+        int v = axis == 0 ? z : axis == 1 ? x : y;
+
+        int row = (facingId * FACING_ROWS) + (layer * SIZE) + v;
+
+        if ((this.rowMasks[row] & (1 << u)) != 0) {
+            return false;
+        }
+
+        int face = this.lastFaces[facingId];
+
+        if (this.lastQuads[facingId] != quad || this.faces[((face - 1) * FACE_STRIDE) + 2] != color ||
+                this.faces[((face - 1) * FACE_STRIDE) + 3] != light) {
+            face = this.findFace(facingId, quad, minU, minV, maxU, maxV, color, light);
+
+            if (face == 0) {
+                return false;
+            }
+
+            this.lastQuads[facingId] = quad;
+            this.lastFaces[facingId] = face;
+        }
+
+        this.cells[(row * SIZE) + u] = face;
+        this.rowMasks[row] |= 1 << u;
+        this.cellCounts[facingId]++;
+
+        return true;
+    }
+
+    /**
+     * @return The face for the given quad as an index plus one, or zero if the quad can't be merged
+     */
+    private int findFace(int facingId, ModelQuadView quad, float minU, float minV, float maxU, float maxV, int color,
+                         int light) {
+        int shape = this.getShape(facingId, quad, minU, minV, maxU, maxV);
+
+        if (shape < 0) {
+            return 0;
+        }
+
+        // Sprites which span the entire atlas can't be encoded, which never happens for the block atlas in practice
+        int tileOrigin = encodeTexCoords(minU, minV);
+        int tileSize = encodeTexCoords(maxU - minU, maxV - minV);
+
+        if (tileOrigin < 0 || tileSize < 0 || (tileSize & 0xFFFF) == 0 || (tileSize >>> 16) == 0) {
+            return 0;
+        }
+
+        return this.findOrAddFace(tileOrigin, tileSize, color, light, shape) + 1;
+    }
+
+    /**
+     * Describes how the quad of a face is laid out, which must be the same for faces to be merged. The texture
+     * coordinates of the quad have to be an affine function of the position in the plane of the face, where moving by
+     * one block moves by exactly one sprite. Moving by one block in a merged quad then repeats the sprite once.
+     *
+     * The shape holds the corner of the face that each vertex is at in its lowest 8 bits, with 2 bits per vertex. The
+     * next 8 bits hold the change of the texture coordinates when moving along each of the two axes of the plane,
+     * with 2 bits for each change of -1, 0 or +1.
+     *
+     * @return The shape of the quad, or -1 if the quad doesn't cover the entire face or doesn't show its whole sprite
+     */
+    private int getShape(int facingId, ModelQuadView quad, float minU, float minV, float maxU, float maxV) {
+        int axis = AXES[facingId];
+        float plane = POSITIVE[facingId] ? 1.0f : 0.0f;
+
+        int corners = 0;
+        int seenCorners = 0;
+
+        for (int i = 0; i < 4; i++) {
+            if (getCoordinate(quad, i, axis) != plane) {
+                return -1;
+            }
+
+            int a = toUnit(getCoordinate(quad, i, (axis + 1) % 3), 0.0f);
+            int b = toUnit(getCoordinate(quad, i, (axis + 2) % 3), 0.0f);
+
+            int s = toUnit((quad.getTexU(i) - minU) / (maxU - minU), TEXTURE_EPSILON);
+            int t = toUnit((quad.getTexV(i) - minV) / (maxV - minV), TEXTURE_EPSILON);
+
+            if (a < 0 || b < 0 || s < 0 || t < 0) {
+                return -1;
+            }
+
+            int corner = a | (b << 1);
+
+            corners |= corner << (i * 2);
+            seenCorners |= 1 << corner;
+
+            this.cornerTexCoords[corner] = s | (t << 1);
+        }
+
+        // Each vertex must be at a different corner
+        if (seenCorners != 0b1111) {
+            return -1;
+        }
+
+        int[] tex = this.cornerTexCoords;
+
+        int sA = (tex[0b01] & 1) - (tex[0b00] & 1);
+        int tA = (tex[0b01] >> 1) - (tex[0b00] >> 1);
+        int sB = (tex[0b10] & 1) - (tex[0b00] & 1);
+        int tB = (tex[0b10] >> 1) - (tex[0b00] >> 1);
+
+        // The texture coordinates of the last corner must follow from the others, and the sprite mustn't collapse
+        // into a line
+        if ((tex[0b11] & 1) != (tex[0b00] & 1) + sA + sB || (tex[0b11] >> 1) != (tex[0b00] >> 1) + tA + tB ||
+                (sA * tB) - (tA * sB) == 0) {
+            return -1;
+        }
+
+        int gradients = (sA + 1) | ((tA + 1) << 2) | ((sB + 1) << 4) | ((tB + 1) << 6);
+
+        return corners | (gradients << 8);
+    }
+
+    private static float getCoordinate(ModelQuadView quad, int vertex, int axis) {
+        return axis == 0 ? quad.getX(vertex) : axis == 1 ? quad.getY(vertex) : quad.getZ(vertex);
+    }
+
+    /**
+     * @return 0 or 1 if the value is within the given distance of it, otherwise -1
+     */
+    private static int toUnit(float value, float epsilon) {
+        if (Math.abs(value) <= epsilon) {
+            return 0;
+        } else if (Math.abs(value - 1.0f) <= epsilon) {
+            return 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return The given texture coordinates as two unsigned shorts in 1/65536ths of the atlas, or -1 if they are out
+     * of range
+     */
+    private static int encodeTexCoords(float u, float v) {
+        int encodedU = Math.round(u * 65536.0f);
+        int encodedV = Math.round(v * 65536.0f);
+
+        if (encodedU < 0 || encodedU > 0xFFFF || encodedV < 0 || encodedV > 0xFFFF) {
+            return -1;
+        }
+
+        return encodedU | (encodedV << 16);
+    }
+
+    private int findOrAddFace(int tileOrigin, int tileSize, int color, int light, int shape) {
+        int hash = tileOrigin;
+        hash = (hash * 31) + tileSize;
+        hash = (hash * 31) + color;
+        hash = (hash * 31) + light;
+        hash = (hash * 31) + shape;
+
+        int mask = this.faceTable.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        while (this.faceTable[slot] != 0) {
+            int base = (this.faceTable[slot] - 1) * FACE_STRIDE;
+
+            if (this.faces[base] == tileOrigin && this.faces[base + 1] == tileSize && this.faces[base + 2] == color &&
+                    this.faces[base + 3] == light && this.faces[base + 4] == shape) {
+                return this.faceTable[slot] - 1;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        int face = this.faceCount++;
+
+        if ((face + 1) * FACE_STRIDE > this.faces.length) {
+            this.faces = Arrays.copyOf(this.faces, this.faces.length * 2);
+        }
+
+        int base = face * FACE_STRIDE;
+
+        this.faces[base] = tileOrigin;
+        this.faces[base + 1] = tileSize;
+        this.faces[base + 2] = color;
+        this.faces[base + 3] = light;
+        this.faces[base + 4] = shape;
+
+        this.faceTable[slot] = face + 1;
+
+        // Keep the table at most half full
+        if (this.faceCount * 2 > this.faceTable.length) {
+            this.rehash(this.faceTable.length * 2);
+        }
+
+        return face;
+    }
+
+    private void rehash(int size) {
+        this.faceTable = new int[size];
+        int count = this.faceCount;
+
+        this.faceCount = 0;
+
+        for (int face = 0; face < count; face++) {
+            int base = face * FACE_STRIDE;
+
+            this.findOrAddFace(this.faces[base], this.faces[base + 1], this.faces[base + 2], this.faces[base + 3],
+                    this.faces[base + 4]);
+        }
+    }
+
+    /**
+     * Writes the merged quads of all faces which have been added since the last flush or reset into the given buffers,
+     * and then resets the merger. The positions of the quads are relative to the origin of the section.
+     * @param buffers The buffers to write to, whose sinks must be {@link TiledModelVertexSink}s
+     * @return The number of quads which were written
+     */
+    public int flush(ChunkModelBuffers buffers) {
+        int quadCount = 0;
+
+        for (int facingId = 0; facingId < FACING_COUNT; facingId++) {
+            if (this.cellCounts[facingId] == 0) {
+                continue;
+            }
+
+            TiledModelVertexSink sink = (TiledModelVertexSink) buffers.getSink(ModelQuadFacing.VALUES[facingId]);
+            sink.ensureCapacity(this.cellCounts[facingId] * 4);
+
+            for (int layer = 0; layer < SIZE; layer++) {
+                int planeRow = (facingId * FACING_ROWS) + (layer * SIZE);
+
+                for (int v = 0; v < SIZE; v++) {
+                    int row = planeRow + v;
+                    int mask;
+
+                    while ((mask = this.rowMasks[row]) != 0) {
+                        int u = Integer.numberOfTrailingZeros(mask);
+                        int start = (row * SIZE) + u;
+                        int face = this.cells[start];
+
+                        int width = 1;
+
+                        while (u + width < SIZE && (mask & (1 << (u + width))) != 0 && this.cells[start + width] == face) {
+                            width++;
+                        }
+
+                        int span = ((1 << width) - 1) << u;
+                        int height = 1;
+
+                        grow:
+                        while (v + height < SIZE) {
+                            if ((this.rowMasks[row + height] & span) != span) {
+                                break;
+                            }
+
+                            int next = start + (height * SIZE);
+
+                            for (int i = 0; i < width; i++) {
+                                if (this.cells[next + i] != face) {
+                                    break grow;
+                                }
+                            }
+
+                            height++;
+                        }
+
+                        for (int i = 0; i < height; i++) {
+                            this.rowMasks[row + i] &= ~span;
+                        }
+
+                        this.writeQuad(sink, facingId, layer, u, v, width, height, face - 1);
+                        quadCount++;
+                    }
+                }
+            }
+
+            sink.flush();
+
+            this.cellCounts[facingId] = 0;
+        }
+
+        this.clearFaces();
+
+        return quadCount;
+    }
+
+    private void writeQuad(TiledModelVertexSink sink, int facingId, int layer, int u, int v, int width, int height, int face) {
+        int base = face * FACE_STRIDE;
+
+        int tileOrigin = this.faces[base];
+        int tileSize = this.faces[base + 1];
+        int color = this.faces[base + 2];
+        int light = this.faces[base + 3];
+        int shape = this.faces[base + 4];
+
+        int sA = ((shape >> 8) & 3) - 1;
+        int tA = ((shape >> 10) & 3) - 1;
+        int sB = ((shape >> 12) & 3) - 1;
+        int tB = ((shape >> 14) & 3) - 1;
+
+        int axis = AXES[facingId];
+        int axisA = (axis + 1) % 3;
+        int axisB = (axis + 2) % 3;
+
+        float[] position = this.position;
+
+        position[axis] = POSITIVE[facingId] ? layer + 1 : layer;
+
+        for (int i = 0; i < 4; i++) {
+            int corner = (shape >> (i * 2)) & 3;
+
+            int a = (corner & 1) != 0 ? u + width : u;
+            int b = (corner & 2) != 0 ? v + height : v;
+
+            position[axisA] = a;
+            position[axisB] = b;
+
+            // The texture coordinates of different blocks only differ by whole sprites, which the repetition hides, so
+            // they can be counted from the origin of the section instead of from any one block
+            sink.writeTiledQuad(position[0], position[1], position[2], color, (a * sA) + (b * sB), (a * tA) + (b * tB),
+                    light, tileOrigin, tileSize);
+        }
+    }
+
+    /**
+     * Discards all faces which have been added since the last flush or reset, such as when a build is cancelled.
+     */
+    public void reset() {
+        for (int facingId = 0; facingId < FACING_COUNT; facingId++) {
+            if (this.cellCounts[facingId] != 0) {
+                Arrays.fill(this.rowMasks, facingId * FACING_ROWS, (facingId + 1) * FACING_ROWS, 0);
+
+                this.cellCounts[facingId] = 0;
+            }
+        }
+
+        this.clearFaces();
+    }
+
+    private void clearFaces() {
+        if (this.faceCount != 0) {
+            Arrays.fill(this.faceTable, 0);
+            Arrays.fill(this.lastQuads, null);
+
+            this.faceCount = 0;
+        }
+    }
+}
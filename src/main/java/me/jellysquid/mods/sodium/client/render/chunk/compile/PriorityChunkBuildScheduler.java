@@ -0,0 +1,236 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderContainer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hands out tasks ordered by their kind, then by whether their section was visible in the last frame, and finally by
+ * the distance of their section to the camera. This ensures that the sections right in front of the camera are built
+ * first after the player teleports or moves quickly, instead of whichever sections the graph search reached first.
+ *
+ * The priority of a task is computed once when it is enqueued and is only re-computed when the camera has moved far
+ * enough from the position the current priorities were computed at. At that point, tasks belonging to sections which
+ * are now outside the render distance are also evicted from the queue.
+ *
+ * Each worker thread has its own priority queue, so workers do not contend on a single lock. New tasks are distributed
+ * round-robin across the queues of the active workers, and a worker whose queue is empty steals the most urgent task
+ * from the other queues. The ordering is therefore only exact within each queue: across workers, a task may be picked
+ * up slightly before a more urgent task which was placed in another worker's queue.
+ */
+public class PriorityChunkBuildScheduler<T extends ChunkGraphicsState> implements ChunkBuildScheduler<T> {
+    /**
+     * The squared distance the camera must move before the priorities of all pending tasks are re-computed.
+     */
+    private static final double REPRIORITIZE_DISTANCE_SQ = 16.0D * 16.0D;
+
+    private static final Comparator<ChunkBuilder.WrappedTask<?>> COMPARATOR = (a, b) -> {
+        int cmp = Long.compare(a.priority, b.priority);
+
+        if (cmp == 0) {
+            cmp = Long.compare(a.sequence, b.sequence);
+        }
+
+        return cmp;
+    };
+
+    private final PriorityBlockingQueue<ChunkBuilder.WrappedTask<T>>[] queues;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private int nextQueue;
+    private int activeQueues;
+
+    private final SectionVisibility visibility;
+    private final int renderDistance;
+
+    private double cameraX, cameraY, cameraZ;
+    private double lastPrioritizedX, lastPrioritizedY, lastPrioritizedZ;
+
+    @SuppressWarnings("unchecked")
+    public PriorityChunkBuildScheduler(SectionVisibility visibility, int renderDistance, int workers) {
+        this.visibility = visibility;
+        this.renderDistance = renderDistance;
+        this.queues = new PriorityBlockingQueue[Math.max(1, workers)];
+
+        for (int i = 0; i < this.queues.length; i++) {
+            this.queues[i] = new PriorityBlockingQueue<>(64, COMPARATOR);
+        }
+
+        this.activeQueues = this.queues.length;
+    }
+
+    @Override
+    public void enqueue(ChunkBuilder.WrappedTask<T> job) {
+        job.sequence = this.sequence.getAndIncrement();
+        job.priority = this.computePriority(job);
+
+        this.distribute(job);
+    }
+
+    @Override
+    public ChunkBuilder.WrappedTask<T> poll(int worker) {
+        int count = this.queues.length;
+        int home = Math.floorMod(worker, count);
+
+        ChunkBuilder.WrappedTask<T> job = this.queues[home].poll();
+
+        if (job == null) {
+            job = this.steal(home);
+        }
+
+        if (job != null) {
+            this.size.decrementAndGet();
+        }
+
+        return job;
+    }
+
+    /**
+     * Takes the most urgent task at the head of the other workers' queues, including those of parked workers. The
+     * queue which held the chosen task may have been emptied by its owner in the meantime, in which case the next
+     * candidate is tried.
+     */
+    private ChunkBuilder.WrappedTask<T> steal(int home) {
+        int count = this.queues.length;
+
+        while (true) {
+            PriorityBlockingQueue<ChunkBuilder.WrappedTask<T>> victim = null;
+            ChunkBuilder.WrappedTask<T> best = null;
+
+            for (int i = 1; i < count; i++) {
+                PriorityBlockingQueue<ChunkBuilder.WrappedTask<T>> queue = this.queues[(home + i) % count];
+                ChunkBuilder.WrappedTask<T> head = queue.peek();
+
+                if (head != null && (best == null || COMPARATOR.compare(head, best) < 0)) {
+                    best = head;
+                    victim = queue;
+                }
+            }
+
+            if (victim == null) {
+                return null;
+            }
+
+            ChunkBuilder.WrappedTask<T> job = victim.poll();
+
+            if (job != null) {
+                return job;
+            }
+        }
+    }
+
+    private void distribute(ChunkBuilder.WrappedTask<T> job) {
+        // Only ever called from the main thread, so the round-robin index does not need to be atomic
+        int index = this.nextQueue;
+        this.nextQueue = (index + 1) % this.activeQueues;
+
+        // Increment before publishing the task so a worker which finds the task never sees a negative size
+        this.size.incrementAndGet();
+        this.queues[index].add(job);
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, this.size.get());
+    }
+
+    @Override
+    public void setActiveWorkers(int count) {
+        this.activeQueues = Math.max(1, Math.min(count, this.queues.length));
+
+        if (this.nextQueue >= this.activeQueues) {
+            this.nextQueue = 0;
+        }
+    }
+
+    @Override
+    public void updateCamera(double x, double y, double z, Consumer<ChunkBuilder.WrappedTask<T>> evicted) {
+        this.cameraX = x;
+        this.cameraY = y;
+        this.cameraZ = z;
+
+        double dx = x - this.lastPrioritizedX;
+        double dy = y - this.lastPrioritizedY;
+        double dz = z - this.lastPrioritizedZ;
+
+        if ((dx * dx) + (dy * dy) + (dz * dz) < REPRIORITIZE_DISTANCE_SQ) {
+            return;
+        }
+
+        this.lastPrioritizedX = x;
+        this.lastPrioritizedY = y;
+        this.lastPrioritizedZ = z;
+
+        List<ChunkBuilder.WrappedTask<T>> jobs = new ArrayList<>(this.size());
+
+        for (PriorityBlockingQueue<ChunkBuilder.WrappedTask<T>> queue : this.queues) {
+            this.size.addAndGet(-queue.drainTo(jobs));
+        }
+
+        int centerX = ((int) Math.floor(x)) >> 4;
+        int centerZ = ((int) Math.floor(z)) >> 4;
+
+        for (ChunkBuilder.WrappedTask<T> job : jobs) {
+            if (job.isCancelled()) {
+                evicted.accept(job);
+                continue;
+            }
+
+            ChunkRenderContainer<T> render = job.getRender();
+
+            if (Math.abs(render.getChunkX() - centerX) > this.renderDistance ||
+                    Math.abs(render.getChunkZ() - centerZ) > this.renderDistance) {
+                evicted.accept(job);
+                continue;
+            }
+
+            job.priority = this.computePriority(job);
+        }
+
+        // Hand the surviving tasks out in priority order, so that the most urgent tasks are spread evenly across the
+        // queues instead of piling up in whichever queue they happened to be in before
+        jobs.sort(COMPARATOR);
+
+        for (ChunkBuilder.WrappedTask<T> job : jobs) {
+            if (!job.isCancelled()) {
+                this.distribute(job);
+            }
+        }
+    }
+
+    @Override
+    public void drain(Consumer<ChunkBuilder.WrappedTask<T>> consumer) {
+        for (PriorityBlockingQueue<ChunkBuilder.WrappedTask<T>> queue : this.queues) {
+            ChunkBuilder.WrappedTask<T> job;
+
+            while ((job = queue.poll()) != null) {
+                this.size.decrementAndGet();
+
+                consumer.accept(job);
+            }
+        }
+    }
+
+    /**
+     * Packs the task's kind, visibility, and squared distance to the camera into a single key. Lower values are more
+     * urgent. Since the distance is never negative, the raw bits of its float representation sort in the same order
+     * as the distance itself.
+     */
+    private long computePriority(ChunkBuilder.WrappedTask<T> job) {
+        ChunkRenderContainer<T> render = job.getRender();
+
+        long kind = job.getKind().ordinal();
+        long hidden = this.visibility.isSectionVisible(render.getChunkX(), render.getChunkY(), render.getChunkZ()) ? 0L : 1L;
+        long distance = Float.floatToRawIntBits((float) render.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ)) & 0xFFFFFFFFL;
+
+        return (kind << 33) | (hidden << 32) | distance;
+    }
+}
@@ -0,0 +1,102 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hands out tasks in roughly the order they were scheduled, using one deque per worker thread instead of a single
+ * shared queue. New tasks are distributed round-robin across the deques, and each worker takes tasks from the head of
+ * its own deque. Only the deques of the currently active workers receive new tasks, so tasks are not left behind in
+ * the deques of parked workers after the pool shrinks. A worker whose deque is empty steals from the head of the other
+ * workers' deques, so no worker sits idle while there is still work queued anywhere, and stolen tasks are still the
+ * oldest ones. None of these operations take a lock.
+ *
+ * This is used when chunk updates are not prioritized. Unlike {@link PriorityChunkBuildScheduler}, it never needs
+ * to compare tasks with each other, so it can use lock-free deques instead of priority queues.
+ */
+public class WorkStealingChunkBuildScheduler<T extends ChunkGraphicsState> implements ChunkBuildScheduler<T> {
+    private final Deque<ChunkBuilder.WrappedTask<T>>[] queues;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private int nextQueue;
+    private int activeQueues;
+
+    @SuppressWarnings("unchecked")
+    public WorkStealingChunkBuildScheduler(int workers) {
+        this.queues = new Deque[Math.max(1, workers)];
+
+        for (int i = 0; i < this.queues.length; i++) {
+            this.queues[i] = new ConcurrentLinkedDeque<>();
+        }
+
+        this.activeQueues = this.queues.length;
+    }
+
+    @Override
+    public void enqueue(ChunkBuilder.WrappedTask<T> job) {
+        // Only ever called from the main thread, so the round-robin index does not need to be atomic
+        int index = this.nextQueue;
+        this.nextQueue = (index + 1) % this.activeQueues;
+
+        // Increment before publishing the task so a worker which finds the task never sees a negative size
+        this.size.incrementAndGet();
+        this.queues[index].addLast(job);
+    }
+
+    @Override
+    public ChunkBuilder.WrappedTask<T> poll(int worker) {
+        int count = this.queues.length;
+        int home = Math.floorMod(worker, count);
+
+        ChunkBuilder.WrappedTask<T> job = this.queues[home].pollFirst();
+
+        // Steal from the head of the other queues, including those of parked workers, so that the oldest tasks are
+        // still handed out first
+        for (int i = 1; job == null && i < count; i++) {
+            job = this.queues[(home + i) % count].pollFirst();
+        }
+
+        if (job != null) {
+            this.size.decrementAndGet();
+        }
+
+        return job;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, this.size.get());
+    }
+
+    @Override
+    public void updateCamera(double x, double y, double z, Consumer<ChunkBuilder.WrappedTask<T>> evicted) {
+        // Tasks are handed out in the order they were scheduled, so the camera position has no effect on them. Tasks
+        // for sections which left the render distance are cancelled when their section is unloaded instead.
+    }
+
+    @Override
+    public void setActiveWorkers(int count) {
+        this.activeQueues = Math.max(1, Math.min(count, this.queues.length));
+
+        if (this.nextQueue >= this.activeQueues) {
+            this.nextQueue = 0;
+        }
+    }
+
+    @Override
+    public void drain(Consumer<ChunkBuilder.WrappedTask<T>> consumer) {
+        for (Deque<ChunkBuilder.WrappedTask<T>> queue : this.queues) {
+            ChunkBuilder.WrappedTask<T> job;
+
+            while ((job = queue.pollFirst()) != null) {
+                this.size.decrementAndGet();
+
+                consumer.accept(job);
+            }
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
 
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkFaceMerger;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 
 public class BakedChunkModelBuffers implements ChunkModelBuffers {
     private final ModelVertexSink[] builders;
     private final ChunkRenderData.Builder renderData;
+    private final ChunkFaceMerger faceMerger;
 
     public BakedChunkModelBuffers(ModelVertexSink[] builders, ChunkRenderData.Builder renderData) {
+        this(builders, renderData, null);
+    }
+
+    public BakedChunkModelBuffers(ModelVertexSink[] builders, ChunkRenderData.Builder renderData, ChunkFaceMerger faceMerger) {
         this.builders = builders;
         this.renderData = renderData;
+        this.faceMerger = faceMerger;
     }
 
     @Override
@@ -22,4 +29,9 @@ public class BakedChunkModelBuffers implements ChunkModelBuffers {
     public ChunkRenderData.Builder getRenderData() {
         return this.renderData;
     }
+
+    @Override
+    public ChunkFaceMerger getFaceMerger() {
+        return this.faceMerger;
+    }
 }
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
 
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkFaceMerger;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 
@@ -9,4 +10,12 @@ public interface ChunkModelBuffers {
 
     @Deprecated
     ChunkRenderData.Builder getRenderData();
+
+    /**
+     * @return The merger which full block faces rendered into these buffers can be handed to, or null if the faces of
+     * these buffers are not merged
+     */
+    default ChunkFaceMerger getFaceMerger() {
+        return null;
+    }
 }
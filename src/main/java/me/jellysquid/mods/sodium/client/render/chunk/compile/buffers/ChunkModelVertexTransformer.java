@@ -3,8 +3,9 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
 import me.jellysquid.mods.sodium.client.model.vertex.transformers.AbstractVertexTransformer;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelOffset;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.format.TiledModelVertexSink;
 
-public class ChunkModelVertexTransformer extends AbstractVertexTransformer<ModelVertexSink> implements ModelVertexSink {
+public class ChunkModelVertexTransformer extends AbstractVertexTransformer<ModelVertexSink> implements TiledModelVertexSink {
     /**
      * The translation to be applied to all quads written into this mesh builder.
      */
@@ -20,4 +21,12 @@ public class ChunkModelVertexTransformer extends AbstractVertexTransformer<Model
     public void writeQuad(float x, float y, float z, int color, float u, float v, int light) {
         this.delegate.writeQuad(x + this.offset.x, y + this.offset.y, z + this.offset.z, color, u, v, light);
     }
+
+    /**
+     * Only supported if the delegate is a {@link TiledModelVertexSink}.
+     */
+    @Override
+    public void writeTiledQuad(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize) {
+        ((TiledModelVertexSink) this.delegate).writeTiledQuad(x + this.offset.x, y + this.offset.y, z + this.offset.z, color, u, v, light, tileOrigin, tileSize);
+    }
 }
@@ -13,4 +13,6 @@ public interface ChunkCuller {
     void onSectionUnloaded(int x, int y, int z);
 
     boolean isSectionVisible(int x, int y, int z);
+
+    String getDebugString();
 }
@@ -1,9 +1,9 @@
 package me.jellysquid.mods.sodium.client.render.chunk.cull.graph;
 
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import me.jellysquid.mods.sodium.client.render.chunk.cull.ChunkCuller;
+import me.jellysquid.mods.sodium.client.render.chunk.region.ChunkRegionManager;
 import me.jellysquid.mods.sodium.client.util.math.FrustumExtended;
 import me.jellysquid.mods.sodium.common.util.DirectionUtil;
 import net.minecraft.client.Camera;
@@ -14,14 +14,109 @@ import net.minecraft.core.Direction;
 import net.minecraft.core.SectionPos;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
+import java.util.Arrays;
+
+/**
+ * Searches the graph of loaded chunk sections for the sections which are visible from the camera.
+ *
+ * The state of each section is kept in flat arrays which are indexed by the position of the section, rather than in
+ * node objects which are looked up in a hash map and linked to their neighbours. The arrays form a ring buffer over the
+ * chunk columns in the same way as the client's chunk storage, so the neighbour of a section can be found with a bit
+ * of index arithmetic, and the search only touches a few primitive arrays instead of chasing pointers.
+ *
+ * A slot in the buffer may be shared by columns which are exactly one buffer width apart. The client never has two
+ * such columns loaded at once, but the coordinates of the column which owns each slot are stored so that a stale
+ * column is never mistaken for its neighbour.
+ *
+ * The result of a search only depends on the section containing the camera, the frustum, the occlusion settings and
+ * the graph itself. The renderer asks for a new search whenever anything at all may have changed, such as when chunk
+ * meshes are uploaded while the camera stands still, so the result of the last search is re-used as long as none of
+ * these inputs have changed since. Every change to the graph which could alter the result increments its version.
+ *
+ * Before a section is tested against the frustum, the render region containing it is classified as being completely
+ * inside, outside or intersecting the frustum. This happens at most once per region in each search, and only the
+ * sections of intersecting regions need to be tested on their own.
+ *
+ * Optionally, the sections reachable from the camera's section are searched for once without the frustum and cached, so
+ * that each frame only filters them by the frustum while the camera stays in that section. That search restricts the
+ * directions a section can be left through by the section's position instead of the path it was reached on, and it
+ * revisits a section whenever it is entered through another face, so it reaches every section the search with the
+ * frustum could reach. Filtering it by the frustum therefore gives all the sections the search with the frustum would
+ * find, and possibly a few more which are hidden behind other sections.
+ */
 public class ChunkGraphCuller implements ChunkCuller {
-    private final Long2ObjectMap<ChunkGraphNode> nodes = new Long2ObjectOpenHashMap<>();
+    // Sections start out as if they were empty, which means every face can see every other face
+    private static final long DEFAULT_VISIBILITY_DATA = calculateVisibilityData(null);
+    private static final float FRUSTUM_EPSILON = 1.0f /* block model margin */ + 0.125f /* epsilon */;
+
+    private static final int SECTIONS_PER_COLUMN = 16;
+
+    private static final int[] STEP_X = new int[DirectionUtil.DIRECTION_COUNT];
+    private static final int[] STEP_Y = new int[DirectionUtil.DIRECTION_COUNT];
+    private static final int[] STEP_Z = new int[DirectionUtil.DIRECTION_COUNT];
+    private static final int[] OPPOSITE = new int[DirectionUtil.DIRECTION_COUNT];
+
+    static {
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            STEP_X[dir.ordinal()] = dir.getStepX();
+            STEP_Y[dir.ordinal()] = dir.getStepY();
+            STEP_Z[dir.ordinal()] = dir.getStepZ();
+            OPPOSITE[dir.ordinal()] = dir.getOpposite().ordinal();
+        }
+    }
+
+    // The width of the ring buffer in chunks, and the mask which wraps a chunk coordinate into it
+    private final int width;
+    private final int mask;
+
+    // The coordinates of the column which currently owns each column slot
+    private final int[] columnX;
+    private final int[] columnZ;
+
+    // The state of each section slot, where a slot is indexed by (column slot * 16 + section y)
+    private final int[] ids;
+    private final long[] visibilityData;
+    private final short[] cullingState;
+    private final int[] lastVisibleFrame;
+
+    // The stamp of the last search which reached each section slot
+    private final int[] lastSearch;
+
+    // The width of the ring buffer in regions, and the mask which wraps a region coordinate into it
+    private final int regionWidth;
+    private final int regionMask;
+
+    // The frustum classification of each region slot, which is only valid if the search stamp matches the current one
+    private final long[] regionKeys;
+    private final int[] regionSearch;
+    private final byte[] regionFrustumState;
+
+    private int searchCount;
+
+    // Statistics about the frustum tests of the last search
+    private int regionTests;
+    private int sectionTests;
+    private int skippedSectionTests;
 
     private final ChunkGraphIterationQueue visible = new ChunkGraphIterationQueue();
+
+    // Whether the sections reachable from the camera's section are cached and filtered by the frustum each frame
+    private final boolean cacheReachableSections;
+
+    // The sections which are reachable from the section containing the camera, in the order they were found
+    private final ChunkGraphIterationQueue reachable = new ChunkGraphIterationQueue();
+    private boolean hasReachableSet;
+    private int reachableSearch;
+    private long reachableOrigin;
+    private boolean reachableUseOcclusionCulling;
+
+    // The faces each reachable section was entered through, and the directions it can be left through as a result
+    private final byte[] reachableFaces;
+    private final byte[] reachableDirections;
+
+    // The reachable sections which can be left through more directions than when they were last visited
+    private final IntArrayFIFOQueue pendingReachable = new IntArrayFIFOQueue();
+
     private final Level world;
     private final int renderDistance;
 
@@ -31,53 +126,171 @@ public class ChunkGraphCuller implements ChunkCuller {
     private int activeFrame = 0;
     private int centerChunkX, centerChunkY, centerChunkZ;
 
-    public ChunkGraphCuller(Level world, int renderDistance) {
+    // Incremented whenever a section is loaded, unloaded, or its visibility data changes
+    private int graphVersion;
+
+    // The inputs of the last search, which its result can be re-used for
+    private boolean hasLastSearch;
+    private int lastGraphVersion;
+    private long lastOrigin;
+    private boolean lastUseOcclusionCulling;
+    private boolean lastInsideSolidBlock;
+    private float[] lastFrustumState = new float[FrustumExtended.STATE_LENGTH];
+    private float[] frustumState = new float[FrustumExtended.STATE_LENGTH];
+
+    // Whether the camera is a spectator inside a solid block, which disables occlusion culling
+    private boolean insideSolidBlock;
+
+    public ChunkGraphCuller(Level world, int renderDistance, boolean cacheReachableSections) {
         this.world = world;
         this.renderDistance = renderDistance;
+        this.cacheReachableSections = cacheReachableSections;
+
+        // Matches the load distance of the client's chunk storage, which is the furthest a loaded chunk can be
+        int loadDistance = Math.max(2, renderDistance) + 3;
+
+        this.width = Mth.smallestEncompassingPowerOfTwo(loadDistance * 2 + 1);
+        this.mask = this.width - 1;
+
+        int columns = this.width * this.width;
+        int sections = columns * SECTIONS_PER_COLUMN;
+
+        this.columnX = new int[columns];
+        this.columnZ = new int[columns];
+
+        // No real column can have these coordinates, so every slot starts out empty
+        Arrays.fill(this.columnX, Integer.MIN_VALUE);
+        Arrays.fill(this.columnZ, Integer.MIN_VALUE);
+
+        this.ids = new int[sections];
+        this.visibilityData = new long[sections];
+        this.cullingState = new short[sections];
+        this.lastVisibleFrame = new int[sections];
+        this.lastSearch = new int[sections];
+
+        this.reachableFaces = new byte[sections];
+        this.reachableDirections = new byte[sections];
+
+        Arrays.fill(this.ids, -1);
+
+        this.regionWidth = this.width / ChunkRegionManager.BUFFER_WIDTH;
+        this.regionMask = this.regionWidth - 1;
+
+        int regions = this.regionWidth * this.regionWidth * (SECTIONS_PER_COLUMN / ChunkRegionManager.BUFFER_HEIGHT);
+
+        this.regionKeys = new long[regions];
+        this.regionSearch = new int[regions];
+        this.regionFrustumState = new byte[regions];
     }
 
     @Override
     public IntArrayList computeVisible(Camera camera, FrustumExtended frustum, int frame, boolean spectator) {
-        this.initSearch(camera, frustum, frame, spectator);
+        BlockPos origin = camera.getBlockPosition();
+
+        boolean useOcclusionCulling = Minecraft.getInstance().smartCull;
+        boolean insideSolidBlock = spectator && this.world.getBlockState(origin).isSolidRender(this.world, origin);
+
+        return this.computeVisible(origin, frustum, frame, useOcclusionCulling, insideSolidBlock);
+    }
+
+    /**
+     * Searches for the sections which are visible from the given block position, given everything which would
+     * otherwise be taken from the camera and the client.
+     */
+    IntArrayList computeVisible(BlockPos origin, FrustumExtended frustum, int frame, boolean useOcclusionCulling,
+                                boolean insideSolidBlock) {
+        if (this.canReuseLastSearch(origin, frustum, useOcclusionCulling, insideSolidBlock)) {
+            // The sections visited by the last search are still stamped with its frame, which remains active
+            return this.visible.getOrderedIdList();
+        }
+
+        this.initSearch(origin, frustum, frame, useOcclusionCulling);
 
-        ChunkGraphIterationQueue queue = this.visible;
+        return this.visible.getOrderedIdList();
+    }
 
+    private void search(ChunkGraphIterationQueue queue) {
         for (int i = 0; i < queue.size(); i++) {
-            ChunkGraphNode node = queue.getNode(i);
-            short cullData = node.computeQueuePop();
+            int slot = queue.getSlot(i);
+            short cullData = this.computeQueuePop(slot);
+
+            int x = this.columnX[slot >> 4];
+            int y = slot & (SECTIONS_PER_COLUMN - 1);
+            int z = this.columnZ[slot >> 4];
 
-            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-                if (useOcclusionCulling && (cullData & (1 << dir.ordinal())) == 0) {
+            for (int dir = 0; dir < DirectionUtil.DIRECTION_COUNT; dir++) {
+                if (this.useOcclusionCulling && (cullData & (1 << dir)) == 0) {
                     continue;
                 }
 
-                ChunkGraphNode adj = node.getConnectedNode(dir);
+                int adjX = x + STEP_X[dir];
+                int adjZ = z + STEP_Z[dir];
 
-                if (adj != null && this.isWithinRenderDistance(adj)) {
-                    this.bfsEnqueue(node, adj, dir.getOpposite(), cullData);
+                if (!this.isWithinRenderDistance(adjX, adjZ)) {
+                    continue;
+                }
+
+                int adj = this.getSlot(adjX, y + STEP_Y[dir], adjZ);
+
+                if (adj >= 0) {
+                    this.bfsEnqueue(queue, adj, OPPOSITE[dir], cullData);
                 }
             }
         }
+    }
 
-        return this.visible.getOrderedIdList();
+    /**
+     * Records the inputs of the search for the current frame, and checks whether they are the same as the inputs of the
+     * last search.
+     */
+    private boolean canReuseLastSearch(BlockPos origin, FrustumExtended frustum, boolean useOcclusionCulling,
+                                       boolean insideSolidBlock) {
+        long originKey = origin.asLong();
+
+        // Swap the buffers so that the state of the last search is kept in lastFrustumState
+        float[] frustumState = this.lastFrustumState;
+        this.lastFrustumState = this.frustumState;
+        this.frustumState = frustumState;
+
+        boolean hasFrustumState = frustum.captureState(frustumState);
+
+        boolean reusable = this.hasLastSearch &&
+                this.lastGraphVersion == this.graphVersion &&
+                this.lastOrigin == originKey &&
+                this.lastUseOcclusionCulling == useOcclusionCulling &&
+                this.lastInsideSolidBlock == insideSolidBlock &&
+                Arrays.equals(this.lastFrustumState, frustumState);
+
+        this.hasLastSearch = hasFrustumState;
+        this.lastGraphVersion = this.graphVersion;
+        this.lastOrigin = originKey;
+        this.lastUseOcclusionCulling = useOcclusionCulling;
+        this.lastInsideSolidBlock = insideSolidBlock;
+
+        this.insideSolidBlock = insideSolidBlock;
+
+        return reusable;
     }
 
-    private boolean isWithinRenderDistance(ChunkGraphNode adj) {
-        int x = Math.abs(adj.getChunkX() - this.centerChunkX);
-        int z = Math.abs(adj.getChunkZ() - this.centerChunkZ);
+    private boolean isWithinRenderDistance(int chunkX, int chunkZ) {
+        int x = Math.abs(chunkX - this.centerChunkX);
+        int z = Math.abs(chunkZ - this.centerChunkZ);
 
         return x <= this.renderDistance && z <= this.renderDistance;
     }
 
-    private void initSearch(Camera camera, FrustumExtended frustum, int frame, boolean spectator) {
+    private void initSearch(BlockPos origin, FrustumExtended frustum, int frame, boolean useOcclusionCulling) {
         this.activeFrame = frame;
+        this.searchCount++;
+
+        this.regionTests = 0;
+        this.sectionTests = 0;
+        this.skippedSectionTests = 0;
         this.frustum = frustum;
-        this.useOcclusionCulling = Minecraft.getInstance().smartCull;
+        this.useOcclusionCulling = useOcclusionCulling;
 
         this.visible.clear();
 
-        BlockPos origin = camera.getBlockPosition();
-
         int chunkX = origin.getX() >> 4;
         int chunkY = origin.getY() >> 4;
         int chunkZ = origin.getZ() >> 4;
@@ -86,133 +299,472 @@ public class ChunkGraphCuller implements ChunkCuller {
         this.centerChunkY = chunkY;
         this.centerChunkZ = chunkZ;
 
-        ChunkGraphNode rootNode = this.getNode(chunkX, chunkY, chunkZ);
-
-        if (rootNode != null) {
-            rootNode.resetCullingState();
-            rootNode.setLastVisibleFrame(frame);
+        int rootSlot = this.getSlot(chunkX, chunkY, chunkZ);
 
-            if (spectator && this.world.getBlockState(origin).isSolidRender(this.world, origin)) {
+        if (rootSlot >= 0) {
+            if (this.insideSolidBlock) {
                 this.useOcclusionCulling = false;
             }
 
-            this.visible.add(rootNode);
+            if (!this.cacheReachableSections) {
+                this.cullingState[rootSlot] = -1;
+                this.lastVisibleFrame[rootSlot] = frame;
+                this.lastSearch[rootSlot] = this.searchCount;
+
+                this.visible.add(rootSlot, this.ids[rootSlot]);
+
+                this.search(this.visible);
+
+                return;
+            }
+
+            long rootKey = SectionPos.asLong(chunkX, chunkY, chunkZ);
+
+            if (!this.hasReachableSet || this.reachableOrigin != rootKey ||
+                    this.reachableUseOcclusionCulling != this.useOcclusionCulling) {
+                this.findReachable(rootSlot);
+
+                this.hasReachableSet = true;
+                this.reachableSearch = this.searchCount;
+                this.reachableOrigin = rootKey;
+                this.reachableUseOcclusionCulling = this.useOcclusionCulling;
+            }
+
+            this.filterReachable();
         } else {
+            // The search starts from sections chosen by the frustum, so there is nothing which could be cached
+            this.hasReachableSet = false;
+
             chunkY = Mth.clamp(origin.getY() >> 4, 0, 15);
 
-            List<ChunkGraphNode> bestNodes = new ArrayList<>();
+            IntArrayList bestSlots = new IntArrayList();
 
             for (int x2 = -this.renderDistance; x2 <= this.renderDistance; ++x2) {
                 for (int z2 = -this.renderDistance; z2 <= this.renderDistance; ++z2) {
-                    ChunkGraphNode node = this.getNode(chunkX + x2, chunkY, chunkZ + z2);
+                    int slot = this.getSlot(chunkX + x2, chunkY, chunkZ + z2);
 
-                    if (node == null || node.isCulledByFrustum(frustum)) {
+                    if (slot < 0 || this.isCulledByFrustum(slot, frustum)) {
                         continue;
                     }
 
-                    node.resetCullingState();
-                    node.setLastVisibleFrame(frame);
+                    this.cullingState[slot] = -1;
+                    this.lastVisibleFrame[slot] = frame;
+                    this.lastSearch[slot] = this.searchCount;
 
-                    bestNodes.add(node);
+                    bestSlots.add(slot);
                 }
             }
 
-            bestNodes.sort(Comparator.comparingDouble(node -> node.getSquaredDistance(origin)));
+            bestSlots.sort((int a, int b) -> Double.compare(this.getSquaredDistance(a, origin), this.getSquaredDistance(b, origin)));
+
+            for (int i = 0; i < bestSlots.size(); i++) {
+                int slot = bestSlots.getInt(i);
 
-            for (ChunkGraphNode node : bestNodes) {
-                this.visible.add(node);
+                this.visible.add(slot, this.ids[slot]);
             }
+
+            this.search(this.visible);
         }
     }
 
+    /**
+     * Finds every section which is reachable from the given section without considering the frustum.
+     *
+     * Unlike the search with the frustum, a section is visited again whenever it is entered through a face it wasn't
+     * entered through before, as that may allow it to be left through more directions. The directions a section can be
+     * left through only depend on the faces it was entered through and on its position relative to the camera's
+     * section, and not on the path it was reached on, so the search always ends up with every section and direction
+     * the search with the frustum could possibly use.
+     */
+    private void findReachable(int rootSlot) {
+        ChunkGraphIterationQueue reachable = this.reachable;
+        IntArrayFIFOQueue pending = this.pendingReachable;
+
+        reachable.clear();
+
+        this.lastSearch[rootSlot] = this.searchCount;
+        this.reachableFaces[rootSlot] = 0;
+        this.reachableDirections[rootSlot] = (byte) ((1 << DirectionUtil.DIRECTION_COUNT) - 1);
+
+        reachable.add(rootSlot, this.ids[rootSlot]);
+        pending.enqueue(rootSlot);
+
+        while (!pending.isEmpty()) {
+            int slot = pending.dequeueInt();
+            int directions = this.reachableDirections[slot];
+
+            int x = this.columnX[slot >> 4];
+            int y = slot & (SECTIONS_PER_COLUMN - 1);
+            int z = this.columnZ[slot >> 4];
+
+            for (int dir = 0; dir < DirectionUtil.DIRECTION_COUNT; dir++) {
+                if ((directions & (1 << dir)) == 0) {
+                    continue;
+                }
+
+                int adjX = x + STEP_X[dir];
+                int adjZ = z + STEP_Z[dir];
 
-    private void bfsEnqueue(ChunkGraphNode parent, ChunkGraphNode node, Direction flow, short parentalData) {
-        if (node.getLastVisibleFrame() == this.activeFrame) {
-            node.updateCullingState(flow, parentalData);
-            return;
+                if (!this.isWithinRenderDistance(adjX, adjZ)) {
+                    continue;
+                }
+
+                int adj = this.getSlot(adjX, y + STEP_Y[dir], adjZ);
+
+                if (adj >= 0) {
+                    this.enterReachable(adj, OPPOSITE[dir]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enters a section through the given face during the search for reachable sections, and queues it to be visited
+     * again if it can now be left through more directions.
+     */
+    private void enterReachable(int slot, int face) {
+        if (this.lastSearch[slot] != this.searchCount) {
+            this.lastSearch[slot] = this.searchCount;
+            this.reachableFaces[slot] = 0;
+            this.reachableDirections[slot] = 0;
+
+            this.reachable.add(slot, this.ids[slot]);
         }
-        node.setLastVisibleFrame(this.activeFrame);
 
-        if (node.isCulledByFrustum(this.frustum)) {
+        int faces = this.reachableFaces[slot];
+
+        if ((faces & (1 << face)) != 0) {
             return;
         }
 
-        node.setCullingState(parentalData);
-        node.updateCullingState(flow, parentalData);
+        this.reachableFaces[slot] = (byte) (faces | (1 << face));
+
+        int directions = this.reachableDirections[slot];
+        int allowed = (1 << DirectionUtil.DIRECTION_COUNT) - 1;
+
+        if (this.useOcclusionCulling) {
+            allowed = (int) ((this.visibilityData[slot] >> (face << 3)) & 0xFF) & this.getDirectionsAwayFromCenter(slot);
+        }
+
+        if ((directions | allowed) != directions) {
+            this.reachableDirections[slot] = (byte) (directions | allowed);
+            this.pendingReachable.enqueue(slot);
+        }
+    }
+
+    /**
+     * Returns the directions which don't lead back towards the camera's section on any axis the given section is offset
+     * from it on. The search with the frustum stops a section from being left through the face it was entered through,
+     * and passes that restriction on to the sections it enters next, so it never turns back towards the camera's
+     * section. These are therefore the directions it allows the section to be left through, whichever path it took.
+     */
+    private int getDirectionsAwayFromCenter(int slot) {
+        int x = this.columnX[slot >> 4] - this.centerChunkX;
+        int y = (slot & (SECTIONS_PER_COLUMN - 1)) - this.centerChunkY;
+        int z = this.columnZ[slot >> 4] - this.centerChunkZ;
+
+        int directions = (1 << DirectionUtil.DIRECTION_COUNT) - 1;
+
+        if (x != 0) {
+            directions &= ~(1 << (x > 0 ? Direction.WEST : Direction.EAST).ordinal());
+        }
 
-        this.visible.add(node);
+        if (y != 0) {
+            directions &= ~(1 << (y > 0 ? Direction.DOWN : Direction.UP).ordinal());
+        }
+
+        if (z != 0) {
+            directions &= ~(1 << (z > 0 ? Direction.NORTH : Direction.SOUTH).ordinal());
+        }
+
+        return directions;
     }
 
-    private void connectNeighborNodes(ChunkGraphNode node) {
-        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-            ChunkGraphNode adj = this.findAdjacentNode(node, dir);
+    /**
+     * Adds the sections which are reachable from the camera and inside the frustum to the visible list, in the order
+     * they were found in.
+     */
+    private void filterReachable() {
+        ChunkGraphIterationQueue reachable = this.reachable;
 
-            if (adj != null) {
-                adj.setAdjacentNode(dir.getOpposite(), node);
+        for (int i = 0; i < reachable.size(); i++) {
+            int slot = reachable.getSlot(i);
+
+            // The section containing the camera is always visible, even if it somehow isn't inside the frustum
+            if (i != 0 && this.isCulledByFrustum(slot, this.frustum)) {
+                continue;
             }
 
-            node.setAdjacentNode(dir, adj);
+            this.lastVisibleFrame[slot] = this.activeFrame;
+            this.visible.add(slot, this.ids[slot]);
+
+            this.markNeighborsVisible(slot);
         }
     }
 
-    private void disconnectNeighborNodes(ChunkGraphNode node) {
-        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-            ChunkGraphNode adj = node.getConnectedNode(dir);
+    /**
+     * The search with the frustum also marks the sections it reaches but culls as visible, which gives their rebuilds
+     * a higher priority as they are likely to come into view. Do the same for every section the given one can see into.
+     */
+    private void markNeighborsVisible(int slot) {
+        int directions = this.reachableDirections[slot];
+
+        int x = this.columnX[slot >> 4];
+        int y = slot & (SECTIONS_PER_COLUMN - 1);
+        int z = this.columnZ[slot >> 4];
+
+        for (int dir = 0; dir < DirectionUtil.DIRECTION_COUNT; dir++) {
+            if ((directions & (1 << dir)) == 0) {
+                continue;
+            }
+
+            int adjX = x + STEP_X[dir];
+            int adjZ = z + STEP_Z[dir];
+
+            if (!this.isWithinRenderDistance(adjX, adjZ)) {
+                continue;
+            }
+
+            int adj = this.getSlot(adjX, y + STEP_Y[dir], adjZ);
 
-            if (adj != null) {
-                adj.setAdjacentNode(dir.getOpposite(), null);
+            if (adj >= 0) {
+                this.lastVisibleFrame[adj] = this.activeFrame;
             }
+        }
+    }
+
+    private void bfsEnqueue(ChunkGraphIterationQueue queue, int slot, int flow, short parentalData) {
+        if (this.lastSearch[slot] == this.searchCount) {
+            this.updateCullingState(slot, flow, parentalData);
+            return;
+        }
+        this.lastSearch[slot] = this.searchCount;
+        this.lastVisibleFrame[slot] = this.activeFrame;
+
+        if (this.isCulledByFrustum(slot, this.frustum)) {
+            return;
+        }
+
+        this.cullingState[slot] = (short) (parentalData & 0xFF00);
+        this.updateCullingState(slot, flow, parentalData);
+
+        queue.add(slot, this.ids[slot]);
+    }
+
+    //The way this works now is that the culling state contains 2 inner states
+    // visited directions mask, and visitable direction mask
+    //On graph start, the root node(s) have the visit and visitable masks set to all visible
+    // when a chunk section is popped off the queue, the visited direction mask is anded with the
+    // visitable direction mask to return a bitfield containing what directions the graph can flow too
+    //When a chunk is visited in the graph the inbound direction is masked off from the visited direction mask
+    // and the visitable direction mask is updated (ored) with the visibilityData of the inbound direction
+    //When a chunk hasnt been visited before, it uses the parents data as the initial visited direction mask
+
+    private short computeQueuePop(int slot) {
+        short cullingState = this.cullingState[slot];
+        short retVal = (short) (cullingState & (((cullingState >> 8) & 0xFF) | 0xFF00));
+        this.cullingState[slot] = 0;
+        return retVal;
+    }
+
+    private void updateCullingState(int slot, int inbound, short parent) {
+        short cullingState = this.cullingState[slot];
+        cullingState |= (this.visibilityData[slot] >> (inbound<<3)) & 0xFF;
+        cullingState &= ~(1 << (inbound + 8));
+        //NOTE: this isnt strictly needed, due to the properties provided from the bfs search (never backtracking),
+        // but just incase/better readability/understandability
+        cullingState &= parent|0x00FF;
+        this.cullingState[slot] = cullingState;
+    }
+
+    private boolean isCulledByFrustum(int slot, FrustumExtended frustum) {
+        int regionState = this.getRegionFrustumState(slot, frustum);
+
+        if (regionState != FrustumExtended.INTERSECT) {
+            this.skippedSectionTests++;
+
+            return regionState == FrustumExtended.OUTSIDE;
+        }
+
+        this.sectionTests++;
 
-            node.setAdjacentNode(dir, null);
+        return this.isSectionCulledByFrustum(slot, frustum);
+    }
+
+    /**
+     * @return The classification of the region containing the section in the given slot, which is computed the first
+     * time the region is reached during each search
+     */
+    private int getRegionFrustumState(int slot, FrustumExtended frustum) {
+        int x = this.columnX[slot >> 4];
+        int y = slot & (SECTIONS_PER_COLUMN - 1);
+        int z = this.columnZ[slot >> 4];
+
+        int regionX = Math.floorDiv(x, ChunkRegionManager.BUFFER_WIDTH);
+        int regionY = Math.floorDiv(y, ChunkRegionManager.BUFFER_HEIGHT);
+        int regionZ = Math.floorDiv(z, ChunkRegionManager.BUFFER_LENGTH);
+
+        long key = ChunkRegionManager.getRegionKey(x, y, z);
+        int index = ((((regionZ & this.regionMask) * this.regionWidth) + (regionX & this.regionMask)) *
+                (SECTIONS_PER_COLUMN / ChunkRegionManager.BUFFER_HEIGHT)) + regionY;
+
+        if (this.regionSearch[index] == this.searchCount && this.regionKeys[index] == key) {
+            return this.regionFrustumState[index];
         }
+
+        float minX = (regionX * ChunkRegionManager.BUFFER_WIDTH) << 4;
+        float minY = (regionY * ChunkRegionManager.BUFFER_HEIGHT) << 4;
+        float minZ = (regionZ * ChunkRegionManager.BUFFER_LENGTH) << 4;
+
+        // The region is grown by the same margin as each section, so that it covers every box tested within it
+        int state = frustum.classifyAabb(minX - FRUSTUM_EPSILON, minY - FRUSTUM_EPSILON, minZ - FRUSTUM_EPSILON,
+                minX + (ChunkRegionManager.BUFFER_WIDTH << 4) + FRUSTUM_EPSILON,
+                minY + (ChunkRegionManager.BUFFER_HEIGHT << 4) + FRUSTUM_EPSILON,
+                minZ + (ChunkRegionManager.BUFFER_LENGTH << 4) + FRUSTUM_EPSILON);
+
+        this.regionTests++;
+
+        this.regionKeys[index] = key;
+        this.regionSearch[index] = this.searchCount;
+        this.regionFrustumState[index] = (byte) state;
+
+        return state;
     }
 
-    private ChunkGraphNode findAdjacentNode(ChunkGraphNode node, Direction dir) {
-        return this.getNode(node.getChunkX() + dir.getStepX(), node.getChunkY() + dir.getStepY(), node.getChunkZ() + dir.getStepZ());
+    private boolean isSectionCulledByFrustum(int slot, FrustumExtended frustum) {
+        float x = this.columnX[slot >> 4] << 4;
+        float y = (slot & (SECTIONS_PER_COLUMN - 1)) << 4;
+        float z = this.columnZ[slot >> 4] << 4;
+
+        return !frustum.fastAabbTest(x - FRUSTUM_EPSILON, y - FRUSTUM_EPSILON, z - FRUSTUM_EPSILON,
+                x + 16.0f + FRUSTUM_EPSILON, y + 16.0f + FRUSTUM_EPSILON, z + 16.0f + FRUSTUM_EPSILON);
+    }
+
+    /**
+     * @return The squared distance from the center of the section in the given slot to the center of the block position
+     * given by {@param pos}
+     */
+    private double getSquaredDistance(int slot, BlockPos pos) {
+        double xDist = (pos.getX() + 0.5D) - ((this.columnX[slot >> 4] << 4) + 8.0D);
+        double yDist = (pos.getY() + 0.5D) - (((slot & (SECTIONS_PER_COLUMN - 1)) << 4) + 8.0D);
+        double zDist = (pos.getZ() + 0.5D) - ((this.columnZ[slot >> 4] << 4) + 8.0D);
+
+        return (xDist * xDist) + (yDist * yDist) + (zDist * zDist);
     }
 
-    private ChunkGraphNode getNode(int x, int y, int z) {
-        return this.nodes.get(SectionPos.asLong(x, y, z));
+    private int getColumnSlot(int x, int z) {
+        return ((z & this.mask) * this.width) + (x & this.mask);
+    }
+
+    /**
+     * @return The slot of the given section, or -1 if the section is not loaded
+     */
+    private int getSlot(int x, int y, int z) {
+        if (y < 0 || y >= SECTIONS_PER_COLUMN) {
+            return -1;
+        }
+
+        int column = this.getColumnSlot(x, z);
+
+        if (this.columnX[column] != x || this.columnZ[column] != z) {
+            return -1;
+        }
+
+        int slot = (column * SECTIONS_PER_COLUMN) + y;
+
+        return this.ids[slot] >= 0 ? slot : -1;
+    }
+
+    private static long calculateVisibilityData(VisibilitySet occlusionData) {
+        long visibilityData = 0;
+
+        for (Direction from : DirectionUtil.ALL_DIRECTIONS) {
+            for (Direction to : DirectionUtil.ALL_DIRECTIONS) {
+                if (occlusionData == null || occlusionData.visibilityBetween(from, to)) {
+                    visibilityData |= (1L << ((from.ordinal() << 3) + to.ordinal()));
+                }
+            }
+        }
+
+        return visibilityData;
     }
 
     @Override
     public void onSectionStateChanged(int x, int y, int z, VisibilitySet occlusionData) {
-        ChunkGraphNode node = this.getNode(x, y, z);
+        int slot = this.getSlot(x, y, z);
 
-        if (node != null) {
-            node.setOcclusionData(occlusionData);
+        if (slot >= 0) {
+            long visibilityData = calculateVisibilityData(occlusionData);
+
+            // Most rebuilds don't change which faces of a section can see each other
+            if (this.visibilityData[slot] != visibilityData) {
+                this.visibilityData[slot] = visibilityData;
+                this.graphVersion++;
+
+                // Only the sections which were reached can affect which sections are reachable
+                if (this.lastSearch[slot] == this.reachableSearch) {
+                    this.hasReachableSet = false;
+                }
+            }
         }
     }
 
     @Override
     public void onSectionLoaded(int x, int y, int z, int id) {
-        ChunkGraphNode node = new ChunkGraphNode(x, y, z, id);
-        ChunkGraphNode prev;
+        if (y < 0 || y >= SECTIONS_PER_COLUMN) {
+            return;
+        }
+
+        int column = this.getColumnSlot(x, z);
+
+        if (this.columnX[column] != x || this.columnZ[column] != z) {
+            // Take the slot over from whichever column had it before, dropping any of its sections which are left
+            this.columnX[column] = x;
+            this.columnZ[column] = z;
 
-        if ((prev = this.nodes.put(SectionPos.asLong(x, y, z), node)) != null) {
-            this.disconnectNeighborNodes(prev);
+            Arrays.fill(this.ids, column * SECTIONS_PER_COLUMN, (column + 1) * SECTIONS_PER_COLUMN, -1);
         }
 
-        this.connectNeighborNodes(node);
+        int slot = (column * SECTIONS_PER_COLUMN) + y;
+
+        this.ids[slot] = id;
+        this.visibilityData[slot] = DEFAULT_VISIBILITY_DATA;
+        this.cullingState[slot] = 0;
+        this.lastVisibleFrame[slot] = -1;
+        this.lastSearch[slot] = 0;
+
+        this.graphVersion++;
+
+        // The section may be reachable through one of its neighbours
+        this.hasReachableSet = false;
     }
 
     @Override
     public void onSectionUnloaded(int x, int y, int z) {
-        ChunkGraphNode node = this.nodes.remove(SectionPos.asLong(x, y, z));
+        int slot = this.getSlot(x, y, z);
+
+        if (slot >= 0) {
+            this.ids[slot] = -1;
+            this.graphVersion++;
 
-        if (node != null) {
-            this.disconnectNeighborNodes(node);
+            this.hasReachableSet = false;
         }
     }
 
+    @Override
+    public String getDebugString() {
+        return String.format("Chunk Graph: %s visible, %s reachable, %s region tests, %s/%s section tests skipped",
+                this.visible.size(), this.hasReachableSet ? this.reachable.size() : 0, this.regionTests, this.skippedSectionTests, this.skippedSectionTests + this.sectionTests);
+    }
+
     @Override
     public boolean isSectionVisible(int x, int y, int z) {
-        ChunkGraphNode render = this.getNode(x, y, z);
+        int slot = this.getSlot(x, y, z);
 
-        if (render == null) {
+        if (slot < 0) {
             return false;
         }
 
-        return render.getLastVisibleFrame() == this.activeFrame;
+        return this.lastVisibleFrame[slot] == this.activeFrame;
     }
 }
@@ -5,7 +5,7 @@ import java.util.Arrays;
 
 public class ChunkGraphIterationQueue {
     private int[] positions;
-    private ChunkGraphNode[] nodes;
+    private int[] slots;
 
     private int pos;
     private int capacity;
@@ -16,31 +16,31 @@ public class ChunkGraphIterationQueue {
 
     public ChunkGraphIterationQueue(int capacity) {
         this.positions = new int[capacity];
-        this.nodes = new ChunkGraphNode[capacity];
+        this.slots = new int[capacity];
 
         this.capacity = capacity;
     }
 
-    public void add(ChunkGraphNode node) {
+    public void add(int slot, int id) {
         int i = this.pos++;
 
         if (i == this.capacity) {
             this.resize();
         }
 
-        this.positions[i] = node.getId();
-        this.nodes[i] = node;
+        this.positions[i] = id;
+        this.slots[i] = slot;
     }
 
     private void resize() {
         this.capacity *= 2;
 
         this.positions = Arrays.copyOf(this.positions, this.capacity);
-        this.nodes = Arrays.copyOf(this.nodes, this.capacity);
+        this.slots = Arrays.copyOf(this.slots, this.capacity);
     }
 
-    public ChunkGraphNode getNode(int i) {
-        return this.nodes[i];
+    public int getSlot(int i) {
+        return this.slots[i];
     }
 
     public void clear() {
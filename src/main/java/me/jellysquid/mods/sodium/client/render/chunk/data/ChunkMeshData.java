@@ -4,6 +4,7 @@ import me.jellysquid.mods.sodium.client.gl.buffer.VertexData;
 import me.jellysquid.mods.sodium.client.gl.util.BufferSlice;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 
+import java.nio.ByteBuffer;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -12,6 +13,8 @@ public class ChunkMeshData {
 
     private final EnumMap<ModelQuadFacing, BufferSlice> parts = new EnumMap<>(ModelQuadFacing.class);
     private VertexData vertexData;
+    private TranslucentQuadOrder quadOrder;
+    private ByteBuffer indexData;
 
     public void setVertexData(VertexData vertexData) {
         this.vertexData = vertexData;
@@ -39,12 +42,70 @@ public class ChunkMeshData {
 
     public int getVertexDataSize() {
         if (this.vertexData != null) {
-            return this.vertexData.buffer.capacity();
+            return this.vertexData.buffer.remaining();
         }
 
         return 0;
     }
 
+    public void setIndexData(ByteBuffer indexData) {
+        this.indexData = indexData;
+    }
+
+    public ByteBuffer takeIndexData() {
+        ByteBuffer data = this.indexData;
+
+        if (data == null) {
+            throw new NullPointerException("No pending index data to upload");
+        }
+
+        this.indexData = null;
+
+        return data;
+    }
+
+    /**
+     * @return True if this mesh has pending index data, which describes the order its quads should be drawn in
+     */
+    public boolean hasIndexData() {
+        return this.indexData != null;
+    }
+
+    public int getIndexDataSize() {
+        if (this.indexData != null) {
+            return this.indexData.remaining();
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return The current order of the quads in this mesh, or null if the mesh is not translucent or can't be sorted
+     */
+    public TranslucentQuadOrder getQuadOrder() {
+        return this.quadOrder;
+    }
+
+    public void setQuadOrder(TranslucentQuadOrder quadOrder) {
+        this.quadOrder = quadOrder;
+    }
+
+    /**
+     * Returns any pending vertex and index data to the {@link MeshBufferPool}, for meshes which are discarded without
+     * being uploaded.
+     */
+    public void releaseBuffers() {
+        if (this.vertexData != null) {
+            MeshBufferPool.INSTANCE.release(this.vertexData.buffer);
+            this.vertexData = null;
+        }
+
+        if (this.indexData != null) {
+            MeshBufferPool.INSTANCE.release(this.indexData);
+            this.indexData = null;
+        }
+    }
+
     public Iterable<? extends Map.Entry<ModelQuadFacing, BufferSlice>> getSlices() {
         return this.parts.entrySet();
     }
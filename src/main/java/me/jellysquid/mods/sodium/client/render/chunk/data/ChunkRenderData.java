@@ -104,7 +104,7 @@ public class ChunkRenderData {
         int facesWithData = 0;
         int size = 0;
 
-        for (ChunkMeshData meshData : this.meshes.values()) {
+        for (ChunkMeshData meshData : data.meshes.values()) {
             size += meshData.getVertexDataSize();
 
             for (Map.Entry<ModelQuadFacing, BufferSlice> entry : meshData.getSlices()) {
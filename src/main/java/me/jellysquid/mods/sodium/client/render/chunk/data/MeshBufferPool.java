@@ -0,0 +1,196 @@
+package me.jellysquid.mods.sodium.client.render.chunk.data;
+
+import com.google.common.collect.MapMaker;
+import com.mojang.blaze3d.platform.MemoryTracker;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe pool of off-heap buffers for mesh data whose lifetime ends once it has been uploaded, such as the vertex
+ * data of opaque meshes and the index data of sorted translucent meshes. Without the pool, every rebuilt section
+ * allocates new direct buffers which are only freed once the garbage collector gets around to them.
+ *
+ * Buffers are pooled in power-of-two size classes. A borrowed buffer is a slice of a pooled buffer which has exactly
+ * the requested capacity, so code consuming it doesn't need to know that it came from the pool. Releasing a buffer which
+ * did not come from the pool does nothing. The pool only holds weak references to borrowed buffers, so a buffer which is
+ * never released is still garbage collected once it is unreachable, but it keeps counting towards the borrowed bytes.
+ *
+ * When the {@code embeddium.debugMeshBufferPool} system property is set, the stack trace of every borrow is recorded
+ * and any buffer which has not been released after {@link MeshBufferPool#LEAK_AGE_NANOS} is reported as a leak.
+ */
+public class MeshBufferPool {
+    public static final MeshBufferPool INSTANCE = new MeshBufferPool();
+
+    private static final boolean TRACK_LEAKS = Boolean.getBoolean("embeddium.debugMeshBufferPool");
+
+    private static final long LEAK_AGE_NANOS = 60_000_000_000L;
+    private static final long LEAK_CHECK_INTERVAL_NANOS = 5_000_000_000L;
+
+    private static final int MIN_SIZE_SHIFT = 12; // 4 KiB
+    private static final int MAX_SIZE_SHIFT = 22; // 4 MiB
+
+    /**
+     * The maximum number of bytes which will be kept in the pool for each size class.
+     */
+    private static final int MAX_RETAINED_BYTES_PER_CLASS = 8 * 1024 * 1024;
+
+    private final ConcurrentLinkedDeque<ByteBuffer>[] pooled;
+    private final AtomicInteger[] pooledCounts;
+
+    // The buffers which are currently borrowed, compared by identity and only weakly referenced
+    private final Map<ByteBuffer, BorrowedBuffer> borrowed = new MapMaker().weakKeys().makeMap();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong borrowedBytes = new AtomicLong();
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    private long lastLeakCheck;
+
+    @SuppressWarnings("unchecked")
+    private MeshBufferPool() {
+        int classes = MAX_SIZE_SHIFT - MIN_SIZE_SHIFT + 1;
+
+        this.pooled = new ConcurrentLinkedDeque[classes];
+        this.pooledCounts = new AtomicInteger[classes];
+
+        for (int i = 0; i < classes; i++) {
+            this.pooled[i] = new ConcurrentLinkedDeque<>();
+            this.pooledCounts[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * @return A native-order buffer with a capacity of exactly {@code size} bytes, which should be passed to
+     * {@link MeshBufferPool#release(ByteBuffer)} once it is no longer needed
+     */
+    public ByteBuffer borrow(int size) {
+        int sizeClass = getSizeClass(size);
+
+        if (sizeClass < 0) {
+            this.misses.increment();
+
+            return MemoryTracker.createByteBuffer(size);
+        }
+
+        ByteBuffer parent = this.pooled[sizeClass].pollFirst();
+
+        if (parent != null) {
+            this.pooledCounts[sizeClass].decrementAndGet();
+            this.pooledBytes.addAndGet(-parent.capacity());
+            this.hits.increment();
+        } else {
+            parent = MemoryTracker.createByteBuffer(1 << (sizeClass + MIN_SIZE_SHIFT));
+            this.misses.increment();
+        }
+
+        ((Buffer) parent).clear();
+        ((Buffer) parent).limit(size);
+
+        ByteBuffer buffer = parent.slice().order(ByteOrder.nativeOrder());
+
+        this.borrowed.put(buffer, new BorrowedBuffer(parent, TRACK_LEAKS ? new Throwable("Borrowed here") : null));
+        this.borrowedBytes.addAndGet(parent.capacity());
+
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link MeshBufferPool#borrow(int)} to the pool. The buffer must not be used after
+     * this. Buffers which were not borrowed from the pool are ignored.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        BorrowedBuffer entry = this.borrowed.remove(buffer);
+
+        if (entry == null) {
+            return;
+        }
+
+        ByteBuffer parent = entry.parent;
+        int sizeClass = getSizeClass(parent.capacity());
+
+        this.borrowedBytes.addAndGet(-parent.capacity());
+
+        if ((this.pooledCounts[sizeClass].get() + 1) * parent.capacity() > MAX_RETAINED_BYTES_PER_CLASS) {
+            return;
+        }
+
+        this.pooledCounts[sizeClass].incrementAndGet();
+        this.pooledBytes.addAndGet(parent.capacity());
+        this.pooled[sizeClass].offerFirst(parent);
+    }
+
+    /**
+     * Reports any buffers which have been borrowed for too long, if leak tracking is enabled. This only does any work
+     * once every few seconds, so it can be called every frame.
+     */
+    public void checkLeaks() {
+        if (!TRACK_LEAKS) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        if (now - this.lastLeakCheck < LEAK_CHECK_INTERVAL_NANOS) {
+            return;
+        }
+
+        this.lastLeakCheck = now;
+
+        for (BorrowedBuffer entry : this.borrowed.values()) {
+            if (!entry.reported && now - entry.time > LEAK_AGE_NANOS) {
+                entry.reported = true;
+
+                SodiumClientMod.logger().warn("Mesh buffer of {} bytes has not been released after {} seconds", entry.parent.capacity(),
+                        LEAK_AGE_NANOS / 1_000_000_000L, entry.origin);
+            }
+        }
+    }
+
+    public String getDebugString() {
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+
+        return String.format("Mesh Buffers: %s%% hits, %s KB borrowed, %s KB pooled", total > 0 ? hits * 100 / total : 0,
+                this.borrowedBytes.get() / 1024L, this.pooledBytes.get() / 1024L);
+    }
+
+    /**
+     * @return The index of the smallest size class which can hold {@code size} bytes, or -1 if the size is too large to
+     * be pooled
+     */
+    private static int getSizeClass(int size) {
+        int shift = Math.max(MIN_SIZE_SHIFT, 32 - Integer.numberOfLeadingZeros(size - 1));
+
+        if (shift > MAX_SIZE_SHIFT) {
+            return -1;
+        }
+
+        return shift - MIN_SIZE_SHIFT;
+    }
+
+    private static class BorrowedBuffer {
+        private final ByteBuffer parent;
+        private final Throwable origin;
+        private final long time = System.nanoTime();
+
+        private boolean reported;
+
+        private BorrowedBuffer(ByteBuffer parent, Throwable origin) {
+            this.parent = parent;
+            this.origin = origin;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.jellysquid.mods.sodium.client.render.chunk.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Describes the order in which the quads of a translucent mesh are currently stored, alongside the centroid of every
+ * quad. The centroids are computed once when the mesh is built, which allows the mesh to be re-sorted later without
+ * decoding its vertex data again. For meshes which are drawn using an index buffer, the vertex data is never
+ * re-arranged and this instead describes the order in which the quads are drawn.
+ *
+ * If every quad of the mesh lies in an axis-aligned plane, the planes are described as well, and the mesh can be put
+ * in plane order instead. That order only depends on which side of each plane the camera is on, so an order which was
+ * created for the cell the camera is in never needs to be sorted again.
+ *
+ * Instances are immutable once created, so they can safely be shared between the main thread and the worker threads.
+ */
+public class TranslucentQuadOrder {
+    private final ByteBuffer vertexData;
+    private final int quadStride;
+
+    // The centroid (x, y, z) of every quad, indexed by the position of the quad in the mesh as it was originally built
+    private final float[] centroids;
+
+    // The smallest box (min x, y, z, then max x, y, z) which contains every vertex of the mesh
+    private final float[] bounds;
+
+    // The original index of the quad which is stored at each position of the vertex data
+    private final int[] order;
+
+    // The planes which the quads lie in, or null if some quads are not axis-aligned
+    private final TranslucentQuadPlanes planes;
+
+    // The cell which the quads were put in plane order for, or null if they were sorted by their centroids instead
+    private final int[] planeCell;
+
+    public TranslucentQuadOrder(ByteBuffer vertexData, int quadStride, float[] centroids, float[] bounds, int[] order,
+                                @Nullable TranslucentQuadPlanes planes, @Nullable int[] planeCell) {
+        this.vertexData = vertexData;
+        this.quadStride = quadStride;
+        this.centroids = centroids;
+        this.bounds = bounds;
+        this.order = order;
+        this.planes = planes;
+        this.planeCell = planeCell;
+    }
+
+    /**
+     * @return The vertex data of the mesh
+     */
+    public ByteBuffer getVertexData() {
+        return this.vertexData;
+    }
+
+    /**
+     * @return The size of a single quad in bytes
+     */
+    public int getQuadStride() {
+        return this.quadStride;
+    }
+
+    public int getQuadCount() {
+        return this.order.length;
+    }
+
+    public float[] getCentroids() {
+        return this.centroids;
+    }
+
+    public int[] getOrder() {
+        return this.order;
+    }
+
+    /**
+     * @return The planes which the quads lie in, or null if the mesh can't be put in plane order
+     */
+    @Nullable
+    public TranslucentQuadPlanes getPlanes() {
+        return this.planes;
+    }
+
+    /**
+     * @return The cell of the planes which contains the given position, which is relative to the mesh, or null if the
+     * mesh can't be put in plane order
+     */
+    @Nullable
+    public int[] getPlaneCell(float x, float y, float z) {
+        return this.planes != null ? this.planes.getCell(x, y, z) : null;
+    }
+
+    /**
+     * @return True if the quads are already in plane order for the given cell
+     */
+    public boolean isInPlaneOrder(int[] cell) {
+        return Arrays.equals(this.planeCell, cell);
+    }
+
+    /**
+     * Tests whether moving the camera between the two given positions, which are relative to the mesh, crosses one of
+     * the planes bounding the quads of the mesh.
+     */
+    public boolean crossesBounds(float fromX, float fromY, float fromZ, float toX, float toY, float toZ) {
+        return crossesRange(fromX, toX, this.bounds[0], this.bounds[3]) ||
+                crossesRange(fromY, toY, this.bounds[1], this.bounds[4]) ||
+                crossesRange(fromZ, toZ, this.bounds[2], this.bounds[5]);
+    }
+
+    private static boolean crossesRange(float from, float to, float min, float max) {
+        return (from < min) != (to < min) || (from < max) != (to < max);
+    }
+
+    /**
+     * Creates the order which results from moving the quad at position {@code permutation[i]} of this order to
+     * position {@code i}.
+     * @param vertexData The vertex data of the mesh after the permutation has been applied
+     * @param permutation The permutation to apply, or null to keep the current order
+     * @param planeCell The cell which the resulting order is in plane order for, or null if it was sorted by centroids
+     */
+    public TranslucentQuadOrder permute(ByteBuffer vertexData, @Nullable int[] permutation, @Nullable int[] planeCell) {
+        int[] order = this.order;
+
+        if (permutation != null) {
+            order = new int[this.order.length];
+
+            for (int i = 0; i < order.length; i++) {
+                order[i] = this.order[permutation[i]];
+            }
+        }
+
+        return new TranslucentQuadOrder(vertexData, this.quadStride, this.centroids, this.bounds, order, this.planes,
+                planeCell);
+    }
+}
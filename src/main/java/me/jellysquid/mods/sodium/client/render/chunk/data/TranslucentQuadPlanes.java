@@ -0,0 +1,89 @@
+package me.jellysquid.mods.sodium.client.render.chunk.data;
+
+import java.util.Arrays;
+
+/**
+ * Describes the planes which the quads of a translucent mesh lie in, for meshes where every quad is perpendicular to one
+ * of the axes. Each quad is identified by its axis and the index of its plane among the distinct planes of that axis.
+ * If the quads are perpendicular to more than one axis, the planes through the edges of every quad are included as
+ * well, so that the side of each quad which the camera is on is known on every axis.
+ *
+ * The camera is located relative to the planes by a cell, which holds the number of planes of each axis that lie below
+ * the camera on that axis. Two camera positions are in the same cell exactly when they are on the same side of every
+ * plane.
+ *
+ * Instances are immutable once created, so they can safely be shared between the main thread and the worker threads.
+ */
+public class TranslucentQuadPlanes {
+    // The distinct offsets of the planes perpendicular to each axis, in ascending order
+    private final float[][] planes;
+
+    // The axis each quad is perpendicular to, and the index of its plane in the planes of that axis, indexed by the
+    // position of the quad in the mesh as it was originally built
+    private final byte[] quadAxes;
+    private final int[] quadPlanes;
+
+    // The bounds (min x, y, z, then max x, y, z) of every quad, or null if all quads are perpendicular to the same axis
+    private final float[] quadBounds;
+
+    public TranslucentQuadPlanes(float[][] planes, byte[] quadAxes, int[] quadPlanes, float[] quadBounds) {
+        this.planes = planes;
+        this.quadAxes = quadAxes;
+        this.quadPlanes = quadPlanes;
+        this.quadBounds = quadBounds;
+    }
+
+    /**
+     * @return The distinct offsets of the planes perpendicular to the given axis, in ascending order
+     */
+    public float[] getPlanes(int axis) {
+        return this.planes[axis];
+    }
+
+    public int getQuadAxis(int quadIdx) {
+        return this.quadAxes[quadIdx];
+    }
+
+    public int getQuadPlane(int quadIdx) {
+        return this.quadPlanes[quadIdx];
+    }
+
+    /**
+     * @return The bounds (min x, y, z, then max x, y, z) of every quad, or null if all quads are parallel
+     */
+    public float[] getQuadBounds() {
+        return this.quadBounds;
+    }
+
+    /**
+     * @return True if every quad is perpendicular to the same axis
+     */
+    public boolean isSingleAxis() {
+        return this.quadBounds == null;
+    }
+
+    /**
+     * @return The cell containing the given position, which is relative to the mesh
+     */
+    public int[] getCell(float x, float y, float z) {
+        return new int[] { countPlanesBelow(this.planes[0], x), countPlanesBelow(this.planes[1], y),
+                countPlanesBelow(this.planes[2], z) };
+    }
+
+    /**
+     * Tests whether moving the camera between the two given positions, which are relative to the mesh, crosses one of
+     * the planes.
+     */
+    public boolean crossesPlanes(float fromX, float fromY, float fromZ, float toX, float toY, float toZ) {
+        return countPlanesBelow(this.planes[0], fromX) != countPlanesBelow(this.planes[0], toX) ||
+                countPlanesBelow(this.planes[1], fromY) != countPlanesBelow(this.planes[1], toY) ||
+                countPlanesBelow(this.planes[2], fromZ) != countPlanesBelow(this.planes[2], toZ);
+    }
+
+    private static int countPlanesBelow(float[] planes, float pos) {
+        int idx = Arrays.binarySearch(planes, pos);
+
+        // A camera which is exactly on a plane is treated as being below it
+        return idx >= 0 ? idx : -(idx + 1);
+    }
+}
@@ -0,0 +1,22 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format;
+
+/**
+ * A {@link ModelVertexSink} which can also write quads that repeat a sprite of the block atlas across their surface.
+ * Quads written through {@link ModelVertexSink#writeQuad} use their texture coordinates as-is.
+ */
+public interface TiledModelVertexSink extends ModelVertexSink {
+    /**
+     * Writes a quad vertex whose texture coordinates count repetitions of a sprite, rather than being coordinates in
+     * the block atlas. The fractional part of the texture coordinates is mapped onto the sprite.
+     * @param x The x-position of the vertex
+     * @param y The y-position of the vertex
+     * @param z The z-position of the vertex
+     * @param color The ABGR-packed color of the vertex
+     * @param u The u-coordinate of the vertex, in repetitions of the sprite
+     * @param v The v-coordinate of the vertex, in repetitions of the sprite
+     * @param light The packed light-map coordinates of the vertex
+     * @param tileOrigin The minimum u (low 16 bits) and v (high 16 bits) of the sprite, in 1/65536ths of the atlas
+     * @param tileSize The width (low 16 bits) and height (high 16 bits) of the sprite, in 1/65536ths of the atlas
+     */
+    void writeTiledQuad(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize);
+}
@@ -0,0 +1,38 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.tiled;
+
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferWriterNio;
+import me.jellysquid.mods.sodium.client.render.chunk.format.DefaultModelVertexFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexUtil;
+import me.jellysquid.mods.sodium.client.render.chunk.format.TiledModelVertexSink;
+
+import java.nio.ByteBuffer;
+
+public class TiledModelVertexBufferWriterNio extends VertexBufferWriterNio implements TiledModelVertexSink {
+    public TiledModelVertexBufferWriterNio(VertexBufferView backingBuffer) {
+        super(backingBuffer, DefaultModelVertexFormats.MODEL_VERTEX_TILED);
+    }
+
+    @Override
+    public void writeQuad(float x, float y, float z, int color, float u, float v, int light) {
+        this.writeTiledQuad(x, y, z, color, u, v, light, 0, 0);
+    }
+
+    @Override
+    public void writeTiledQuad(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize) {
+        int i = this.writeOffset;
+
+        ByteBuffer buffer = this.byteBuffer;
+        buffer.putFloat(i, x);
+        buffer.putFloat(i + 4, y);
+        buffer.putFloat(i + 8, z);
+        buffer.putInt(i + 12, color);
+        buffer.putFloat(i + 16, u);
+        buffer.putFloat(i + 20, v);
+        buffer.putInt(i + 24, ModelVertexUtil.encodeLightMapTexCoord(light));
+        buffer.putInt(i + 28, tileOrigin);
+        buffer.putInt(i + 32, tileSize);
+
+        this.advance();
+    }
+}
@@ -0,0 +1,37 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.tiled;
+
+import org.lwjgl.system.MemoryUtil;
+
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferWriterUnsafe;
+import me.jellysquid.mods.sodium.client.render.chunk.format.DefaultModelVertexFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexUtil;
+import me.jellysquid.mods.sodium.client.render.chunk.format.TiledModelVertexSink;
+
+public class TiledModelVertexBufferWriterUnsafe extends VertexBufferWriterUnsafe implements TiledModelVertexSink {
+    public TiledModelVertexBufferWriterUnsafe(VertexBufferView backingBuffer) {
+        super(backingBuffer, DefaultModelVertexFormats.MODEL_VERTEX_TILED);
+    }
+
+    @Override
+    public void writeQuad(float x, float y, float z, int color, float u, float v, int light) {
+        this.writeTiledQuad(x, y, z, color, u, v, light, 0, 0);
+    }
+
+    @Override
+    public void writeTiledQuad(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize) {
+        long i = this.writePointer;
+
+        MemoryUtil.memPutFloat(i, x);
+        MemoryUtil.memPutFloat(i + 4, y);
+        MemoryUtil.memPutFloat(i + 8, z);
+        MemoryUtil.memPutInt(i + 12, color);
+        MemoryUtil.memPutFloat(i + 16, u);
+        MemoryUtil.memPutFloat(i + 20, v);
+        MemoryUtil.memPutInt(i + 24, ModelVertexUtil.encodeLightMapTexCoord(light));
+        MemoryUtil.memPutInt(i + 28, tileOrigin);
+        MemoryUtil.memPutInt(i + 32, tileSize);
+
+        this.advance();
+    }
+}
@@ -0,0 +1,86 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.tiled;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttribute;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexFormat;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.type.BlittableVertexType;
+import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.shader.ChunkShaderBindingPoints;
+
+import java.util.Arrays;
+
+/**
+ * The single-precision vertex format with the bounds of a sprite added to every vertex, which allows a quad to repeat
+ * that sprite across its surface. This is used when faces of neighbouring blocks are merged into larger quads. Quads
+ * which don't repeat a sprite have a sprite size of zero, and their texture coordinates are used as-is.
+ *
+ * The sprite bounds are not one of the {@link ChunkMeshAttribute}s, as other vertex formats for chunks would then
+ * have to provide them as well, so they are bound separately through {@link TiledModelVertexType#TILE_BOUNDS}.
+ */
+public class TiledModelVertexType implements ChunkVertexType {
+    public static final GlVertexFormat<ChunkMeshAttribute> VERTEX_FORMAT =
+            GlVertexFormat.builder(ChunkMeshAttribute.class, 36)
+            .addElement(ChunkMeshAttribute.POSITION, 0, GlVertexAttributeFormat.FLOAT, 3, false)
+            .addElement(ChunkMeshAttribute.COLOR, 12, GlVertexAttributeFormat.UNSIGNED_BYTE, 4, true)
+            .addElement(ChunkMeshAttribute.TEXTURE, 16, GlVertexAttributeFormat.FLOAT, 2, false)
+            .addElement(ChunkMeshAttribute.LIGHT, 24, GlVertexAttributeFormat.UNSIGNED_SHORT, 2, true)
+            .build();
+
+    /**
+     * The origin and size of the repeated sprite, as four unsigned shorts in 1/65536ths of the atlas.
+     */
+    public static final GlVertexAttribute TILE_BOUNDS =
+            new GlVertexAttribute(GlVertexAttributeFormat.UNSIGNED_SHORT, 4, false, 28, VERTEX_FORMAT.getStride());
+
+    /**
+     * Appends the binding of the sprite bounds to the given attribute bindings if the vertex data is in this format.
+     */
+    public static GlVertexAttributeBinding[] bindTileBounds(GlVertexFormat<?> format, GlVertexAttributeBinding[] bindings) {
+        if (format != VERTEX_FORMAT) {
+            return bindings;
+        }
+
+        GlVertexAttributeBinding[] result = Arrays.copyOf(bindings, bindings.length + 1);
+        result[bindings.length] = new GlVertexAttributeBinding(ChunkShaderBindingPoints.TILE_BOUNDS, TILE_BOUNDS);
+
+        return result;
+    }
+
+    public static final float MODEL_SCALE = 1.0f;
+    public static final float TEXTURE_SCALE = 1.0f;
+
+    @Override
+    public ModelVertexSink createFallbackWriter(VertexConsumer consumer) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ModelVertexSink createBufferWriter(VertexBufferView buffer, boolean direct) {
+        return direct ? new TiledModelVertexBufferWriterUnsafe(buffer) : new TiledModelVertexBufferWriterNio(buffer);
+    }
+
+    @Override
+    public BlittableVertexType<ModelVertexSink> asBlittable() {
+        return this;
+    }
+
+    @Override
+    public GlVertexFormat<ChunkMeshAttribute> getCustomVertexFormat() {
+        return VERTEX_FORMAT;
+    }
+
+    @Override
+    public float getModelScale() {
+        return MODEL_SCALE;
+    }
+
+    @Override
+    public float getTextureScale() {
+        return TEXTURE_SCALE;
+    }
+}
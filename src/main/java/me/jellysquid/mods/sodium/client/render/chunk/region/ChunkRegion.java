@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.region;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferArena;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
@@ -12,10 +13,17 @@ import me.jellysquid.mods.sodium.client.render.chunk.backends.multidraw.ChunkDra
 
 public class ChunkRegion<T extends ChunkGraphicsState> {
     private static final int EXPECTED_CHUNK_SIZE = 4 * 1024;
+    private static final int EXPECTED_INDEX_SIZE = 1024;
 
     private final GlBufferArena arena;
     private final ChunkDrawCallBatcher batch;
+    private final ChunkDrawCallBatcher indexedBatch;
+
+    // Holds the index data of sorted translucent meshes, only created once the first one is uploaded
+    private GlBufferArena indexArena;
+    private final int indexArenaSize;
     private final RenderDevice device;
+    private final ChunkRegionManager<T> manager;
 
     private final ObjectArrayList<ChunkBuildResult<T>> uploadQueue;
 
@@ -25,14 +33,17 @@ public class ChunkRegion<T extends ChunkGraphicsState> {
 
     public float camDistance;
 
-    public ChunkRegion(RenderDevice device, int size, int x, int y, int z) {
+    public ChunkRegion(ChunkRegionManager<T> manager, RenderDevice device, int size, int x, int y, int z) {
         int arenaSize = EXPECTED_CHUNK_SIZE * size;
 
+        this.manager = manager;
         this.device = device;
         this.arena = new GlBufferArena(device, arenaSize, arenaSize);
         this.uploadQueue = new ObjectArrayList<>();
 
         this.batch = ChunkDrawCallBatcher.create(size * ModelQuadFacing.COUNT);
+        this.indexedBatch = ChunkDrawCallBatcher.createIndexed(size);
+        this.indexArenaSize = EXPECTED_INDEX_SIZE * size;
 
         this.x = x;
         this.y = y;
@@ -55,10 +66,61 @@ public class ChunkRegion<T extends ChunkGraphicsState> {
         return this.arena;
     }
 
+    public GlBufferArena getOrCreateIndexArena() {
+        if (this.indexArena == null) {
+            this.indexArena = new GlBufferArena(this.device, this.indexArenaSize, this.indexArenaSize);
+        }
+
+        return this.indexArena;
+    }
+
+    /**
+     * @return The buffer holding the index data of this region, or null if no index data has been uploaded yet
+     */
+    public GlBuffer getIndexBuffer() {
+        return this.indexArena != null ? this.indexArena.getBuffer() : null;
+    }
+
     public boolean isArenaEmpty() {
         return this.arena.isEmpty();
     }
 
+    /**
+     * @return True if either of the buffers of this region has become fragmented enough to be compacted
+     */
+    public boolean needsCompaction() {
+        return this.arena.needsCompaction() || (this.indexArena != null && this.indexArena.needsCompaction());
+    }
+
+    /**
+     * Notifies this region that a segment of one of its buffers has been freed. This is the only way the buffers can
+     * become fragmented, so the region only needs to be checked for compaction after this has been called.
+     */
+    public void onSegmentFreed() {
+        this.manager.onSegmentFreed(this);
+    }
+
+    /**
+     * Compacts whichever buffers of this region need it. The tessellation of this region must be re-created afterwards
+     * since the buffer objects are replaced.
+     */
+    public void compact(CommandList commandList) {
+        if (this.arena.needsCompaction()) {
+            this.arena.compact(commandList);
+        }
+
+        if (this.indexArena != null && this.indexArena.needsCompaction()) {
+            this.indexArena.compact(commandList);
+        }
+    }
+
+    /**
+     * @return The buffer arena holding the index data of this region, or null if no index data has been uploaded yet
+     */
+    public GlBufferArena getIndexArena() {
+        return this.indexArena;
+    }
+
     public void deleteResources() {
         if (this.tessellation != null) {
             try (CommandList commands = this.device.createCommandList()) {
@@ -70,6 +132,12 @@ public class ChunkRegion<T extends ChunkGraphicsState> {
 
         this.arena.delete();
         this.batch.delete();
+        this.indexedBatch.delete();
+
+        if (this.indexArena != null) {
+            this.indexArena.delete();
+            this.indexArena = null;
+        }
     }
 
     public ObjectArrayList<ChunkBuildResult<T>> getUploadQueue() {
@@ -80,6 +148,10 @@ public class ChunkRegion<T extends ChunkGraphicsState> {
         return this.batch;
     }
 
+    public ChunkDrawCallBatcher getIndexedDrawBatcher() {
+        return this.indexedBatch;
+    }
+
     public GlTessellation getTessellation() {
         return this.tessellation;
     }
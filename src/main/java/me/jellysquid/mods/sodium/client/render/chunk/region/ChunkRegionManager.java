@@ -2,6 +2,8 @@ package me.jellysquid.mods.sodium.client.render.chunk.region;
 
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import me.jellysquid.mods.sodium.client.gl.arena.GlBufferArena;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
@@ -26,6 +28,9 @@ public class ChunkRegionManager<T extends ChunkGraphicsState> {
     }
 
     private final Long2ReferenceOpenHashMap<ChunkRegion<T>> regions = new Long2ReferenceOpenHashMap<>();
+
+    // The regions which had segments freed since they were last checked for fragmentation
+    private final ReferenceLinkedOpenHashSet<ChunkRegion<T>> freedRegions = new ReferenceLinkedOpenHashSet<>();
     private final RenderDevice device;
 
     public ChunkRegionManager(RenderDevice device) {
@@ -42,7 +47,7 @@ public class ChunkRegionManager<T extends ChunkGraphicsState> {
         ChunkRegion<T> region = this.regions.get(key);
 
         if (region == null) {
-            this.regions.put(key, region = new ChunkRegion<>(this.device, BUFFER_SIZE, x >> BUFFER_WIDTH_SH, y >> BUFFER_HEIGHT_SH, z >> BUFFER_LENGTH_SH));
+            this.regions.put(key, region = new ChunkRegion<>(this, this.device, BUFFER_SIZE, x >> BUFFER_WIDTH_SH, y >> BUFFER_HEIGHT_SH, z >> BUFFER_LENGTH_SH));
         }
 
         return region;
@@ -58,6 +63,7 @@ public class ChunkRegionManager<T extends ChunkGraphicsState> {
         }
 
         this.regions.clear();
+        this.freedRegions.clear();
     }
 
     public void cleanup() {
@@ -68,8 +74,63 @@ public class ChunkRegionManager<T extends ChunkGraphicsState> {
                 region.deleteResources();
 
                 iterator.remove();
+                this.freedRegions.remove(region);
+            }
+        }
+    }
+
+    void onSegmentFreed(ChunkRegion<T> region) {
+        this.freedRegions.add(region);
+    }
+
+    /**
+     * Finds a region which needs its buffers to be compacted. Only the regions which had segments freed since they were
+     * last checked are considered, as no other region can have become fragmented. The returned region is expected to
+     * be compacted right away, and is only considered again once another segment of it is freed.
+     * @return Any region which needs its buffers to be compacted, or null if there are none
+     */
+    public ChunkRegion<T> getFragmentedRegion() {
+        while (!this.freedRegions.isEmpty()) {
+            ChunkRegion<T> region = this.freedRegions.removeFirst();
+
+            if (region.needsCompaction()) {
+                return region;
             }
         }
+
+        return null;
+    }
+
+    /**
+     * @return A summary of the memory used by the buffers of all regions, and how much of it is lost to fragmentation
+     */
+    public String getMemoryUsageString() {
+        // capacity, used, free, free segments, compactions
+        long[] stats = new long[5];
+
+        for (ChunkRegion<T> region : this.regions.values()) {
+            addArenaStats(stats, region.getBufferArena());
+            addArenaStats(stats, region.getIndexArena());
+        }
+
+        long used = stats[1];
+        long free = stats[2];
+
+        return String.format("Buffer Memory: %d/%d MiB, %d%% fragmented (%d holes, %d compactions)",
+                used / 1024 / 1024, stats[0] / 1024 / 1024, (used + free) > 0 ? free * 100 / (used + free) : 0,
+                stats[3], stats[4]);
+    }
+
+    private static void addArenaStats(long[] stats, GlBufferArena arena) {
+        if (arena == null) {
+            return;
+        }
+
+        stats[0] += arena.getCapacity();
+        stats[1] += arena.getUsedBytes();
+        stats[2] += arena.getFreeBytes();
+        stats[3] += arena.getFreeSegmentCount();
+        stats[4] += arena.getCompactionCount();
     }
 
     public int getAllocatedRegionCount() {
@@ -11,9 +11,12 @@ import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderBackend;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.format.tiled.TiledModelVertexType;
 import net.minecraft.resources.ResourceLocation;
 import com.mojang.blaze3d.vertex.PoseStack;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 
 public abstract class ChunkRenderShaderBackend<T extends ChunkGraphicsState>
         implements ChunkRenderBackend<T> {
@@ -30,11 +33,17 @@ public abstract class ChunkRenderShaderBackend<T extends ChunkGraphicsState>
     }
 
     private ChunkProgram createShader(RenderDevice device, ChunkFogMode fogMode, GlVertexFormat<ChunkMeshAttribute> vertexFormat) {
+        List<String> defines = new ArrayList<>(fogMode.getDefines());
+
+        if (vertexFormat == TiledModelVertexType.VERTEX_FORMAT) {
+            defines.add("USE_TEXTURE_TILING");
+        }
+
         GlShader vertShader = ShaderLoader.loadShader(device, ShaderType.VERTEX,
-                new ResourceLocation("sodium", "chunk_gl20.v.glsl"), fogMode.getDefines());
+                new ResourceLocation("sodium", "chunk_gl20.v.glsl"), defines);
 
         GlShader fragShader = ShaderLoader.loadShader(device, ShaderType.FRAGMENT,
-                new ResourceLocation("sodium", "chunk_gl20.f.glsl"), fogMode.getDefines());
+                new ResourceLocation("sodium", "chunk_gl20.f.glsl"), defines);
 
         try {
             return GlProgram.builder(new ResourceLocation("sodium", "chunk_shader"))
@@ -45,6 +54,7 @@ public abstract class ChunkRenderShaderBackend<T extends ChunkGraphicsState>
                     .bindAttribute("a_TexCoord", ChunkShaderBindingPoints.TEX_COORD)
                     .bindAttribute("a_LightCoord", ChunkShaderBindingPoints.LIGHT_COORD)
                     .bindAttribute("d_ModelOffset", ChunkShaderBindingPoints.MODEL_OFFSET)
+                    .bindAttribute("a_TileBounds", ChunkShaderBindingPoints.TILE_BOUNDS)
                     .build((program, name) -> new ChunkProgram(device, program, name, fogMode.getFactory()));
         } finally {
             vertShader.delete();
@@ -9,4 +9,6 @@ public class ChunkShaderBindingPoints {
     public static final ShaderBindingPoint LIGHT_COORD = new ShaderBindingPoint(3);
 
     public static final ShaderBindingPoint MODEL_OFFSET = new ShaderBindingPoint(4);
+
+    public static final ShaderBindingPoint TILE_BOUNDS = new ShaderBindingPoint(5);
 }
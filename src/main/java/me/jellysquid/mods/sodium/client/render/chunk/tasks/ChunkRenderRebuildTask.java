@@ -13,19 +13,20 @@ import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
+import me.jellysquid.mods.sodium.client.world.BlockStateFlagTable;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
 import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
 import net.minecraft.ReportedException;
-import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderDispatcher;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderer;
 import net.minecraft.client.renderer.chunk.VisGraph;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.block.Blocks;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
@@ -36,7 +37,6 @@ import net.minecraftforge.client.ForgeHooksClient;
 import net.minecraftforge.client.model.data.EmptyModelData;
 import net.minecraftforge.client.model.data.IModelData;
 import org.embeddedt.embeddium.api.ChunkDataBuiltEvent;
-import org.embeddedt.embeddium.model.ModelDataSnapshotter;
 
 /**
  * Rebuilds all the meshes of a chunk for each given render pass with non-occluded blocks. The result is then uploaded
@@ -58,6 +58,13 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
 
     private final boolean translucencySorting;
 
+    // The state of every block in the section, if the section is uniform and a block of that state which is enclosed
+    // by the same state on every side is known to not produce any geometry, otherwise null
+    private BlockState hiddenUniformState;
+
+    // The flags of the block currently being rendered. This is a field since the LVT of performBuild can't change.
+    private int blockFlags;
+
     public ChunkRenderRebuildTask(ChunkRenderContainer<T> render, ChunkRenderContext context, BlockPos offset) {
         this.render = render;
         this.offset = offset;
@@ -65,7 +72,7 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
         this.camera = Vec3.ZERO;
         this.translucencySorting = SodiumClientMod.options().advanced.translucencySorting;
 
-        this.modelDataMap = ModelDataSnapshotter.getModelDataForSection(Minecraft.getInstance().level, this.context.getOrigin());
+        this.modelDataMap = context.getModelData();
     }
 
     public ChunkRenderRebuildTask<T> withCameraPosition(Vec3 camera) {
@@ -86,6 +93,8 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
 
         WorldSlice slice = cache.getWorldSlice();
 
+        this.hiddenUniformState = this.findHiddenUniformState(cache);
+
         int baseX = this.render.getOriginX();
         int baseY = this.render.getOriginY();
         int baseZ = this.render.getOriginZ();
@@ -102,8 +111,9 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
                 for (int relZ = 0; relZ < 16; relZ++) {
                     for (int relX = 0; relX < 16; relX++) {
                         BlockState blockState = slice.getBlockStateRelative(relX + 16, relY + 16, relZ + 16);
+                        this.blockFlags = slice.getBlockStateFlagsRelative(relX + 16, relY + 16, relZ + 16);
 
-                        if (blockState.getBlock() == Blocks.AIR || blockState.getBlock() == Blocks.CAVE_AIR) {
+                        if (BlockStateFlagTable.has(this.blockFlags, BlockStateFlagTable.IS_AIR)) {
                             continue;
                         }
 
@@ -111,7 +121,16 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
                         pos.set(baseX + relX, baseY + relY, baseZ + relZ);
                         buffers.setRenderOffset(pos.getX() - renderOffset.getX(), pos.getY() - renderOffset.getY(), pos.getZ() - renderOffset.getZ());
 
-                        if (blockState.getRenderShape() == RenderShape.MODEL) {
+                        if (blockState == this.hiddenUniformState && this.isEnclosedByUniformState(slice, relX, relY, relZ)) {
+                            // None of the block's faces can be visible, but it may still occlude the blocks behind it
+                            if (BlockStateFlagTable.isSolidRender(this.blockFlags, blockState, slice, pos)) {
+                                occluder.setOpaque(pos);
+                            }
+
+                            continue;
+                        }
+
+                        if (BlockStateFlagTable.has(this.blockFlags, BlockStateFlagTable.HAS_MODEL)) {
                             for (RenderType layer : cache.getRenderLayerCache().forState(blockState)) {
                                 ForgeHooksClient.setRenderLayer(layer);
                                 IModelData modelData = modelDataMap.getOrDefault(pos, EmptyModelData.INSTANCE);
@@ -130,7 +149,7 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
 
                         FluidState fluidState = blockState.getFluidState();
 
-                        if (!fluidState.isEmpty()) {
+                        if (BlockStateFlagTable.has(this.blockFlags, BlockStateFlagTable.HAS_FLUID)) {
                             for (RenderType layer : cache.getRenderLayerCache().forState(fluidState)) {
                                 ForgeHooksClient.setRenderLayer(layer);
 
@@ -140,7 +159,7 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
                             }
                         }
 
-                        if (blockState.hasTileEntity()) {
+                        if (BlockStateFlagTable.has(this.blockFlags, BlockStateFlagTable.HAS_BLOCK_ENTITY)) {
                             BlockEntity entity = slice.getBlockEntity(pos);
 
                             if (entity != null) {
@@ -154,7 +173,7 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
                             }
                         }
 
-                        if (blockState.isSolidRender(slice, pos)) {
+                        if (BlockStateFlagTable.isSolidRender(this.blockFlags, blockState, slice, pos)) {
                             occluder.setOpaque(pos);
                         }
                     }
@@ -168,6 +187,8 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
             throw fillCrashInfo(CrashReport.forThrowable(ex, "Encountered exception while building chunk meshes"), slice, pos);
         }
 
+        // Faces which were handed to the face merger are only written once all blocks have been rendered
+        buffers.flushMergedFaces(baseX - renderOffset.getX(), baseY - renderOffset.getY(), baseZ - renderOffset.getZ());
         
         ForgeHooksClient.setRenderLayer(null);
 
@@ -190,6 +211,55 @@ public class ChunkRenderRebuildTask<T extends ChunkGraphicsState> extends ChunkR
         return new ChunkBuildResult<>(this.render, renderData.build());
     }
 
+    /**
+     * Sections which consist of a single block state (such as stone underground or water in oceans) only produce
+     * geometry along their boundary, if at all. When that is the case, the blocks which are enclosed on every side by
+     * the same state can skip the render layer lookup, model lookup and face culling entirely.
+     *
+     * @return The state of every block in the section if enclosed blocks of it are hidden, otherwise null
+     */
+    private BlockState findHiddenUniformState(ChunkRenderCacheLocal cache) {
+        ClonedChunkSection section = this.context.getSections()[WorldSlice.getLocalSectionIndex(1, 1, 1)];
+
+        if (section == null || !this.context.getOrigin().equals(section.getPosition())) {
+            return null;
+        }
+
+        BlockState state = section.findUniformBlockState();
+
+        if (state == null || state.hasTileEntity()) {
+            return null;
+        }
+
+        // Fluids never render faces against the same fluid, so only the block model needs to be checked
+        if (state.getRenderShape() == RenderShape.MODEL) {
+            SectionPos origin = this.context.getOrigin();
+            BlockPos center = new BlockPos(origin.minBlockX() + 8, origin.minBlockY() + 8, origin.minBlockZ() + 8);
+            BakedModel model = cache.getBlockModels().getBlockModel(state);
+
+            if (!cache.getBlockRenderer().isHiddenByIdenticalNeighbors(cache.getLocalSlice(), state, center, model)) {
+                return null;
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * @return True if every neighbour of the given block has the same state as {@link ChunkRenderRebuildTask#hiddenUniformState}
+     */
+    private boolean isEnclosedByUniformState(WorldSlice slice, int relX, int relY, int relZ) {
+        BlockState state = this.hiddenUniformState;
+
+        // Neighbours within the section are known to be the same, so only those across its boundary need to be checked
+        return (relX != 0 || slice.getBlockStateRelative(15, relY + 16, relZ + 16) == state) &&
+                (relX != 15 || slice.getBlockStateRelative(32, relY + 16, relZ + 16) == state) &&
+                (relY != 0 || slice.getBlockStateRelative(relX + 16, 15, relZ + 16) == state) &&
+                (relY != 15 || slice.getBlockStateRelative(relX + 16, 32, relZ + 16) == state) &&
+                (relZ != 0 || slice.getBlockStateRelative(relX + 16, relY + 16, 15) == state) &&
+                (relZ != 15 || slice.getBlockStateRelative(relX + 16, relY + 16, 32) == state);
+    }
+
     private ReportedException fillCrashInfo(CrashReport report, WorldSlice slice, BlockPos pos) {
         CrashReportCategory crashReportSection = report.addCategory("Block being rendered", 1);
 
@@ -13,6 +13,7 @@ import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadOrder;
 import me.jellysquid.mods.sodium.client.render.chunk.format.sfp.SFPModelVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
@@ -50,29 +51,44 @@ public class ChunkRenderTranslucencySortTask<T extends ChunkGraphicsState> exten
         if(!data.isEmpty()) {
             replacementMeshes = new HashMap<>();
             for(BlockRenderPass pass : TRANSLUCENT_PASSES) {
-                ChunkGraphicsState state = this.render.getGraphicsState(pass);
-                if(state == null)
-                    continue;
-                ByteBuffer translucencyData = state.getTranslucencyData();
-                if(translucencyData == null)
-                    continue;
                 ChunkMeshData translucentMesh = data.getMesh(pass);
                 if(translucentMesh == null)
                     continue;
+                TranslucentQuadOrder order = translucentMesh.getQuadOrder();
+                if(order == null)
+                    continue;
 
-                // Make a snapshot of the translucency data to sort
-                ByteBuffer sortedData = MemoryTracker.createByteBuffer(translucencyData.capacity());
-                synchronized (translucencyData) {
-                    sortedData.put(translucencyData);
-                    translucencyData.position(0);
-                    translucencyData.limit(translucencyData.capacity());
-                }
+                float x = (float) camera.x - offset.getX();
+                float y = (float) camera.y - offset.getY();
+                float z = (float) camera.z - offset.getZ();
+
+                int[] cell = order.getPlaneCell(x, y, z);
+
+                // The plane order only changes once the camera has moved into another cell of the planes
+                if(cell != null && order.isInPlaneOrder(cell))
+                    continue;
+
+                // Re-sort starting from the previous order of the quads, using the data cached at build time
+                int[] permutation = ChunkBufferSorter.sortQuads(order, cell, x, y, z);
+
+                // The quads are already in the right order, so there is nothing to upload
+                if(permutation == null)
+                    continue;
 
-                sortedData.flip();
-                // Sort it and create the new mesh
-                ChunkBufferSorter.sortStandardFormat(buffers.getVertexType(), sortedData, sortedData.capacity(), (float) camera.x - offset.getX(), (float)camera.y - offset.getY(), (float)camera.z - offset.getZ());
                 ChunkMeshData newMesh = new ChunkMeshData();
-                newMesh.setVertexData(new VertexData(sortedData, buffers.getVertexType().getCustomVertexFormat()));
+
+                if(buffers.isIndexedTranslucency()) {
+                    // Only the index buffer needs to be replaced, the vertex data stays in place
+                    TranslucentQuadOrder newOrder = order.permute(order.getVertexData(), permutation, cell);
+                    newMesh.setQuadOrder(newOrder);
+                    newMesh.setIndexData(ChunkBufferSorter.createIndexData(newOrder));
+                } else {
+                    ByteBuffer sortedData = MemoryTracker.createByteBuffer(order.getVertexData().capacity());
+                    ChunkBufferSorter.copyQuads(order.getVertexData(), sortedData, permutation, order.getQuadStride());
+
+                    newMesh.setVertexData(new VertexData(sortedData, buffers.getVertexType().getCustomVertexFormat()));
+                    newMesh.setQuadOrder(order.permute(sortedData, permutation, cell));
+                }
                 for(Map.Entry<ModelQuadFacing, BufferSlice> entry : translucentMesh.getSlices()) {
                     newMesh.setModelSlice(entry.getKey(), entry.getValue());
                 }
@@ -84,6 +100,7 @@ public class ChunkRenderTranslucencySortTask<T extends ChunkGraphicsState> exten
 
         ChunkBuildResult<T> result = new ChunkBuildResult<>(this.render, data.copyAndReplaceMesh(replacementMeshes));
         result.passesToUpload = replacementMeshes.keySet().toArray(NO_PASSES);
+        result.sourceData = data;
         return result;
     }
 
@@ -0,0 +1,125 @@
+package me.jellysquid.mods.sodium.client.render.pipeline;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.client.model.data.EmptyModelData;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Caches the quads of block models whose quads don't depend on the random seed, the position or any model data, which
+ * is the case for most blocks in the world. This allows the block renderer to skip querying the model for every face
+ * of every block, and to skip the faces of a model which don't have any quads before doing any culling work.
+ *
+ * The cache is shared between all chunk builder workers. Since it is only written to the first time a state is seen,
+ * a read-write lock is used so that workers don't contend with each other once the cache is warm.
+ */
+public class BlockModelQuadCache {
+    public static final BlockModelQuadCache INSTANCE = new BlockModelQuadCache();
+
+    private final Reference2ReferenceOpenHashMap<BlockState, Entry> entries = new Reference2ReferenceOpenHashMap<>();
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * @param random The random to pass to the model when its quads are first queried, which is otherwise unused
+     * @return The cached quads of the model for the given state, or null if its quads can't be cached
+     */
+    public Entry get(BlockState state, BakedModel model, Random random) {
+        // Only vanilla's simple models are known to not make use of the random seed or any model data
+        if (model.getClass() != SimpleBakedModel.class) {
+            return null;
+        }
+
+        Entry entry;
+
+        long readStamp = this.lock.readLock();
+        try {
+            entry = this.entries.get(state);
+        } finally {
+            this.lock.unlockRead(readStamp);
+        }
+
+        // The model of a state will only change when resources are reloaded, but check anyways in case the cache is
+        // used before it can be cleared
+        if (entry == null || entry.model != model) {
+            entry = new Entry(state, model, random);
+
+            long writeStamp = this.lock.writeLock();
+            try {
+                this.entries.put(state, entry);
+            } finally {
+                this.lock.unlockWrite(writeStamp);
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Removes all cached quads. This must be called when resources are reloaded so that the old models are released.
+     */
+    public void clear() {
+        long writeStamp = this.lock.writeLock();
+        try {
+            this.entries.clear();
+        } finally {
+            this.lock.unlockWrite(writeStamp);
+        }
+    }
+
+    public static class Entry {
+        private static final int UNCULLED = DirectionUtil.DIRECTION_COUNT;
+
+        private final BakedModel model;
+
+        // The quads for each cull face, followed by the quads without a cull face
+        private final List<BakedQuad>[] quads;
+
+        // One bit for each element of the quads array which is not empty
+        private final int nonEmptyMask;
+
+        @SuppressWarnings("unchecked")
+        private Entry(BlockState state, BakedModel model, Random random) {
+            this.model = model;
+            this.quads = new List[UNCULLED + 1];
+
+            int nonEmptyMask = 0;
+
+            for (int i = 0; i <= UNCULLED; i++) {
+                Direction dir = i == UNCULLED ? null : DirectionUtil.ALL_DIRECTIONS[i];
+                List<BakedQuad> quads = model.getQuads(state, dir, random, EmptyModelData.INSTANCE);
+
+                if (!quads.isEmpty()) {
+                    nonEmptyMask |= 1 << i;
+                }
+
+                this.quads[i] = quads;
+            }
+
+            this.nonEmptyMask = nonEmptyMask;
+        }
+
+        public boolean hasQuads(Direction dir) {
+            return (this.nonEmptyMask & (1 << dir.ordinal())) != 0;
+        }
+
+        public List<BakedQuad> getQuads(Direction dir) {
+            return this.quads[dir.ordinal()];
+        }
+
+        public boolean hasUnculledQuads() {
+            return (this.nonEmptyMask & (1 << UNCULLED)) != 0;
+        }
+
+        public List<BakedQuad> getUnculledQuads() {
+            return this.quads[UNCULLED];
+        }
+    }
+}
@@ -13,6 +13,7 @@ import me.jellysquid.mods.sodium.client.model.quad.ModelQuadView;
 import me.jellysquid.mods.sodium.client.model.quad.blender.BiomeColorBlender;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadOrientation;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkFaceMerger;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
@@ -110,7 +111,13 @@ public class BlockRenderer {
         }
 
         // Use Sodium's default render path
-        
+
+        BlockModelQuadCache.Entry cached = BlockModelQuadCache.INSTANCE.get(state, model, this.random);
+
+        if (cached != null) {
+            return this.renderCachedModel(world, state, pos, lighter, offset, buffers, cull, cached);
+        }
+
         for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
             this.random.setSeed(seed);
 
@@ -140,6 +147,114 @@ public class BlockRenderer {
         return rendered;
     }
 
+    private boolean renderCachedModel(BlockAndTintGetter world, BlockState state, BlockPos pos, LightPipeline lighter, Vec3 offset,
+                                      ChunkModelBuffers buffers, boolean cull, BlockModelQuadCache.Entry cached) {
+        boolean rendered = false;
+
+        // Blocks with a random offset are never aligned with their neighbours
+        ChunkFaceMerger merger = offset == Vec3.ZERO ? buffers.getFaceMerger() : null;
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            if (!cached.hasQuads(dir)) {
+                continue;
+            }
+
+            if (!cull || this.occlusionCache.shouldDrawSide(state, world, pos, dir)) {
+                List<BakedQuad> quads = cached.getQuads(dir);
+
+                if (merger == null || !this.mergeFace(world, state, pos, lighter, buffers, merger, quads, dir)) {
+                    this.renderQuadList(world, state, pos, lighter, offset, buffers, quads, dir);
+                }
+
+                rendered = true;
+            }
+        }
+
+        if (cached.hasUnculledQuads()) {
+            this.renderQuadList(world, state, pos, lighter, offset, buffers, cached.getUnculledQuads(), null);
+
+            rendered = true;
+        }
+
+        return rendered;
+    }
+
+    /**
+     * Hands the face of a block over to the face merger if it consists of a single quad, which is colored and lit
+     * evenly. Faces with ambient occlusion or a biome tint that varies across them are left to the regular path.
+     *
+     * @return True if the face was taken by the merger, otherwise it still has to be rendered
+     */
+    private boolean mergeFace(BlockAndTintGetter world, BlockState state, BlockPos pos, LightPipeline lighter,
+                              ChunkModelBuffers buffers, ChunkFaceMerger merger, List<BakedQuad> quads, Direction cullFace) {
+        if (quads.size() != 1) {
+            return false;
+        }
+
+        BakedQuad quad = quads.get(0);
+        ModelQuadView src = (ModelQuadView) quad;
+        TextureAtlasSprite sprite = src.rubidium$getSprite();
+
+        if (sprite == null || quad.getDirection() != cullFace) {
+            return false;
+        }
+
+        QuadLightData light = this.cachedQuadLightData;
+        lighter.calculate(src, pos, light, cullFace, quad.getDirection(), quad.isShade());
+
+        int[] colors = DEFAULT_QUAD_COLORS;
+
+        if (quad.isTinted()) {
+            colors = this.biomeColorBlender.getColors(this.blockColors.getColorProvider(state), world, state, pos, src);
+        }
+
+        int color = ColorABGR.mul(ModelQuadUtil.mixABGRColors(colors[0], src.getColor(0)), light.br[0]);
+        int lm = ModelQuadUtil.mergeBakedLight(src.getLight(0), light.lm[0]);
+
+        for (int i = 1; i < 4; i++) {
+            if (ColorABGR.mul(ModelQuadUtil.mixABGRColors(colors[i], src.getColor(i)), light.br[i]) != color ||
+                    ModelQuadUtil.mergeBakedLight(src.getLight(i), light.lm[i]) != lm) {
+                return false;
+            }
+        }
+
+        if (!merger.add(ModelQuadFacing.fromDirection(cullFace), pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15, src,
+                sprite.getU0(), sprite.getV0(), sprite.getU1(), sprite.getV1(), color, lm)) {
+            return false;
+        }
+
+        buffers.getRenderData().addSprite(sprite);
+
+        return true;
+    }
+
+    /**
+     * Checks whether {@link BlockRenderer#renderModel} is guaranteed to produce no geometry for a block which is
+     * surrounded on every side by blocks of the same state. This is conservative and only accepts plain vanilla models
+     * rendered by Sodium's own pipeline, since anything else may render differently depending on its position.
+     *
+     * @param pos The position of a block of the given state whose neighbours all have the same state
+     */
+    public boolean isHiddenByIdenticalNeighbors(BlockAndTintGetter world, BlockState state, BlockPos pos, BakedModel model) {
+        if (BlockRendererRegistry.instance().hasRenderPopulators() || ForgeBlockRenderer.useForgeLightingPipeline()) {
+            return false;
+        }
+
+        BlockModelQuadCache.Entry cached = BlockModelQuadCache.INSTANCE.get(state, model, this.random);
+
+        if (cached == null || cached.hasUnculledQuads()) {
+            return false;
+        }
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            if (cached.hasQuads(dir) && this.occlusionCache.shouldDrawSide(state, world, pos, dir)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private void renderQuadList(BlockAndTintGetter world, BlockState state, BlockPos pos, LightPipeline lighter, Vec3 offset,
                                 ChunkModelBuffers buffers, List<BakedQuad> quads, Direction cullFace) {
     	ModelQuadFacing facing = cullFace == null ? ModelQuadFacing.UNASSIGNED : ModelQuadFacing.fromDirection(cullFace);
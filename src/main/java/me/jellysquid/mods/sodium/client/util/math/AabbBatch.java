@@ -0,0 +1,207 @@
+package me.jellysquid.mods.sodium.client.util.math;
+
+import net.minecraft.world.phys.AABB;
+import java.util.Arrays;
+
+/**
+ * A batch of boxes to be tested against a frustum with {@link FrustumExtended#fastAabbTestBatch(AabbBatch)}. The
+ * coordinates of each box are stored in separate arrays so that the test can be written as simple loops over them,
+ * which the JIT is able to vectorize. The batch is meant to be kept around and re-used to avoid allocating the arrays
+ * each time.
+ *
+ * The boxes are stored relative to an origin, which should be set to the camera position when the boxes are far from
+ * the world origin. The camera is then subtracted before the coordinates are narrowed to floats, as vanilla does.
+ */
+public class AabbBatch {
+    private float[] minX, minY, minZ;
+    private float[] maxX, maxY, maxZ;
+
+    // Scratch space for the frustum test, which holds the smallest distance of each box to the inside of any plane
+    private float[] distances;
+
+    // One bit for each box, set if the box is visible or always visible respectively
+    private long[] results;
+    private long[] forced;
+
+    private int size;
+
+    // The position which the coordinates of the boxes are relative to
+    private double originX, originY, originZ;
+
+    public AabbBatch() {
+        this(64);
+    }
+
+    public AabbBatch(int capacity) {
+        this.allocate(capacity);
+    }
+
+    /**
+     * Adds a box to the batch, which is given relative to the origin of the batch.
+     *
+     * @return The index of the box in the batch
+     */
+    public int add(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int i = this.size;
+
+        if (i == this.minX.length) {
+            this.allocate(i * 2);
+        }
+
+        this.minX[i] = minX;
+        this.minY[i] = minY;
+        this.minZ[i] = minZ;
+        this.maxX[i] = maxX;
+        this.maxY[i] = maxY;
+        this.maxZ[i] = maxZ;
+
+        this.size++;
+
+        return i;
+    }
+
+    /**
+     * Adds a box in world coordinates to the batch, or an entry which is always visible if the box is infinitely large
+     * and can't be tested.
+     *
+     * @return The index of the box in the batch
+     */
+    public int add(AABB box) {
+        if (Double.isInfinite(box.minX) || Double.isInfinite(box.minY) || Double.isInfinite(box.minZ) ||
+                Double.isInfinite(box.maxX) || Double.isInfinite(box.maxY) || Double.isInfinite(box.maxZ)) {
+            return this.addVisible();
+        }
+
+        return this.add((float) (box.minX - this.originX), (float) (box.minY - this.originY), (float) (box.minZ - this.originZ),
+                (float) (box.maxX - this.originX), (float) (box.maxY - this.originY), (float) (box.maxZ - this.originZ));
+    }
+
+    /**
+     * Adds an entry to the batch which is always visible, regardless of the frustum.
+     *
+     * @return The index of the entry in the batch
+     */
+    public int addVisible() {
+        int i = this.add(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f);
+
+        this.forced[i >> 6] |= 1L << i;
+
+        return i;
+    }
+
+    private void allocate(int capacity) {
+        this.minX = copyOf(this.minX, capacity);
+        this.minY = copyOf(this.minY, capacity);
+        this.minZ = copyOf(this.minZ, capacity);
+        this.maxX = copyOf(this.maxX, capacity);
+        this.maxY = copyOf(this.maxY, capacity);
+        this.maxZ = copyOf(this.maxZ, capacity);
+
+        this.distances = new float[capacity];
+
+        int words = (capacity + 63) >> 6;
+
+        this.results = this.results == null ? new long[words] : Arrays.copyOf(this.results, words);
+        this.forced = this.forced == null ? new long[words] : Arrays.copyOf(this.forced, words);
+    }
+
+    private static float[] copyOf(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    public void clear() {
+        this.clear(0.0D, 0.0D, 0.0D);
+    }
+
+    /**
+     * Removes every box from the batch, and sets the origin which boxes added afterwards are relative to.
+     */
+    public void clear(double originX, double originY, double originZ) {
+        int words = (this.size + 63) >> 6;
+
+        Arrays.fill(this.results, 0, words, 0L);
+        Arrays.fill(this.forced, 0, words, 0L);
+
+        this.size = 0;
+
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public double getOriginX() {
+        return this.originX;
+    }
+
+    public double getOriginY() {
+        return this.originY;
+    }
+
+    public double getOriginZ() {
+        return this.originZ;
+    }
+
+    public float[] getMinX() {
+        return this.minX;
+    }
+
+    public float[] getMinY() {
+        return this.minY;
+    }
+
+    public float[] getMinZ() {
+        return this.minZ;
+    }
+
+    public float[] getMaxX() {
+        return this.maxX;
+    }
+
+    public float[] getMaxY() {
+        return this.maxY;
+    }
+
+    public float[] getMaxZ() {
+        return this.maxZ;
+    }
+
+    /**
+     * @return An array of at least {@link AabbBatch#size()} elements which the frustum test may use for its own purposes
+     */
+    public float[] getDistances() {
+        return this.distances;
+    }
+
+    /**
+     * Tests each box in the batch against the frustum on its own, for frustums which have no faster way to do so.
+     */
+    public void testEach(FrustumExtended frustum) {
+        for (int i = 0; i < this.size; i++) {
+            this.setVisible(i, frustum.fastAabbTest((float) (this.minX[i] + this.originX), (float) (this.minY[i] + this.originY),
+                    (float) (this.minZ[i] + this.originZ), (float) (this.maxX[i] + this.originX),
+                    (float) (this.maxY[i] + this.originY), (float) (this.maxZ[i] + this.originZ)));
+        }
+    }
+
+    /**
+     * Records whether the box at the given index was found to be visible by the last frustum test.
+     */
+    public void setVisible(int i, boolean visible) {
+        if (visible) {
+            this.results[i >> 6] |= 1L << i;
+        } else {
+            this.results[i >> 6] &= ~(1L << i);
+        }
+    }
+
+    /**
+     * @return True if the box at the given index was found to be visible by the last frustum test, or is always visible
+     */
+    public boolean isVisible(int i) {
+        return ((this.results[i >> 6] | this.forced[i >> 6]) & (1L << i)) != 0;
+    }
+}
@@ -1,5 +1,46 @@
 package me.jellysquid.mods.sodium.client.util.math;
 
+/**
+ * The optional methods have default implementations so that frustums implemented by other mods keep working, at the
+ * cost of never being able to skip any tests.
+ */
 public interface FrustumExtended {
+    // The number of values written by captureState
+    int STATE_LENGTH = 27;
+
+    // The results of classifyAabb
+    int OUTSIDE = 0;
+    int INTERSECT = 1;
+    int INSIDE = 2;
+
     boolean fastAabbTest(float minX, float minY, float minZ, float maxX, float maxY, float maxZ);
+
+    /**
+     * Tests every box in the batch against this frustum, taking the origin of the batch into account. The results can
+     * be read back with {@link AabbBatch#isVisible(int)}.
+     */
+    default void fastAabbTestBatch(AabbBatch batch) {
+        batch.testEach(this);
+    }
+
+    /**
+     * Classifies a box as being completely outside, completely inside, or intersecting the frustum. The classification
+     * is conservative: a box which is close to any of the planes is reported as intersecting, so that every box inside
+     * one which is classified as inside or outside gives the same result with {@link FrustumExtended#fastAabbTest}.
+     *
+     * @return One of {@link FrustumExtended#OUTSIDE}, {@link FrustumExtended#INTERSECT} or {@link FrustumExtended#INSIDE}
+     */
+    default int classifyAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return INTERSECT;
+    }
+
+    /**
+     * Copies everything which determines the results of {@link FrustumExtended#fastAabbTest} into {@param state}, so
+     * that two frustums can be compared without keeping a reference to them.
+     *
+     * @return False if the state of this frustum can't be captured, in which case it must be treated as changed
+     */
+    default boolean captureState(float[] state) {
+        return false;
+    }
 }
@@ -0,0 +1,159 @@
+package me.jellysquid.mods.sodium.client.world;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.RenderShape;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * A table of the block state properties which are queried for every block during chunk meshing, packed into an int of
+ * flags for each block state and indexed by the global block state ID. This allows the meshing loop to test bits in an
+ * array instead of going through the (often overridden) block state methods for every block. The table also maps IDs
+ * back to their block states, which is how {@link WorldSlice} resolves the IDs it stores.
+ *
+ * Only properties which don't depend on the position of a block are stored. Whether a block is a full opaque cube
+ * depends on the position for blocks with a dynamic shape, so {@link BlockStateFlagTable#isSolidRender} falls back to
+ * querying the block state for those.
+ *
+ * The table is built whenever the renderer is initialized, which happens after the block state registry has been
+ * synchronized with the server and after every resource reload.
+ */
+public class BlockStateFlagTable {
+    // The block is air and can be skipped entirely
+    public static final int IS_AIR = 1;
+
+    // The block is rendered using its baked model
+    public static final int HAS_MODEL = 1 << 1;
+
+    // The block contains a fluid
+    public static final int HAS_FLUID = 1 << 2;
+
+    // The block may have a block entity
+    public static final int HAS_BLOCK_ENTITY = 1 << 3;
+
+    // The block is a full opaque cube, only valid if DYNAMIC_SHAPE is not set
+    public static final int SOLID_RENDER = 1 << 4;
+
+    // The shape of the block depends on its position, so SOLID_RENDER can't be used
+    public static final int DYNAMIC_SHAPE = 1 << 5;
+
+    private static volatile BlockStateFlagTable instance;
+
+    private final int[] flags;
+    private final BlockState[] states;
+
+    private BlockStateFlagTable() {
+        int maxId = 0;
+
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            maxId = Math.max(maxId, Block.getId(state));
+        }
+
+        this.flags = new int[maxId + 1];
+        this.states = new BlockState[maxId + 1];
+
+        Arrays.fill(this.flags, IS_AIR);
+        Arrays.fill(this.states, Blocks.AIR.defaultBlockState());
+
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            int id = Block.getId(state);
+
+            this.flags[id] = computeFlags(state);
+            this.states[id] = state;
+        }
+    }
+
+    public static BlockStateFlagTable getInstance() {
+        BlockStateFlagTable table = instance;
+
+        if (table == null) {
+            instance = table = new BlockStateFlagTable();
+        }
+
+        return table;
+    }
+
+    /**
+     * Rebuilds the table from the current block state registry. This must not be called while chunks are being built.
+     */
+    public static void rebuild() {
+        instance = new BlockStateFlagTable();
+    }
+
+    /**
+     * @param id The global ID of a block state, as returned by {@link Block#getId(BlockState)}
+     */
+    public int getFlags(int id) {
+        int[] flags = this.flags;
+
+        if (id >= 0 && id < flags.length) {
+            return flags[id];
+        }
+
+        // The registry has changed since the table was built, which shouldn't happen, but don't crash if it does
+        BlockState state = Block.stateById(id);
+
+        return state != null ? computeFlags(state) : IS_AIR;
+    }
+
+    /**
+     * @param id The global ID of a block state, as returned by {@link Block#getId(BlockState)}
+     * @return The block state with the given ID, or air if there is none
+     */
+    public BlockState getState(int id) {
+        BlockState[] states = this.states;
+
+        if (id >= 0 && id < states.length) {
+            return states[id];
+        }
+
+        BlockState state = Block.stateById(id);
+
+        return state != null ? state : Blocks.AIR.defaultBlockState();
+    }
+
+    public static boolean has(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public static boolean isSolidRender(int flags, BlockState state, BlockGetter world, BlockPos pos) {
+        if ((flags & DYNAMIC_SHAPE) != 0) {
+            return state.isSolidRender(world, pos);
+        }
+
+        return (flags & SOLID_RENDER) != 0;
+    }
+
+    private static int computeFlags(BlockState state) {
+        int flags = 0;
+
+        if (state.getBlock() == Blocks.AIR || state.getBlock() == Blocks.CAVE_AIR) {
+            flags |= IS_AIR;
+        }
+
+        if (state.getRenderShape() == RenderShape.MODEL) {
+            flags |= HAS_MODEL;
+        }
+
+        if (!state.getFluidState().isEmpty()) {
+            flags |= HAS_FLUID;
+        }
+
+        if (state.hasTileEntity()) {
+            flags |= HAS_BLOCK_ENTITY;
+        }
+
+        if (state.getBlock().hasDynamicShape()) {
+            flags |= DYNAMIC_SHAPE;
+        } else if (state.isSolidRender(EmptyBlockGetter.INSTANCE, BlockPos.ZERO)) {
+            flags |= SOLID_RENDER;
+        }
+
+        return flags;
+    }
+}
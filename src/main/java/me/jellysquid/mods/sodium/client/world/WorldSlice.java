@@ -5,7 +5,6 @@ import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
 import me.jellysquid.mods.sodium.client.world.cloned.PackedIntegerArrayExtended;
-import me.jellysquid.mods.sodium.client.world.cloned.palette.ClonedPalette;
 import me.jellysquid.mods.sodium.mixin.features.chunk_rendering.AccessorBiomeManager;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -22,6 +21,7 @@ import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeManager;
 import net.minecraft.world.level.biome.FuzzyOffsetConstantColumnBiomeZoomer;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
@@ -75,8 +75,12 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
     // The world this slice has copied data from
     private final Level world;
 
-    // Local Section->BlockState table.
-    private final BlockState[][] blockStatesArrays;
+    // Local Section->BlockState ID table. Block states are resolved from their ID when they are accessed, which halves
+    // the amount of data written when copying sections compared to also storing each BlockState.
+    private final int[][] blockStateIdsArrays;
+
+    // The flags and block state of each block state ID
+    private BlockStateFlagTable blockStateTable;
 
     // Local section copies. Read-only.
     private ClonedChunkSection[] sections;
@@ -97,6 +101,16 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
     private BoundingBox volume;
 
     public static ChunkRenderContext prepare(Level world, SectionPos origin, ClonedChunkSectionCache sectionCache) {
+        WorldSliceBatch batch = new WorldSliceBatch(world, sectionCache);
+
+        try {
+            return batch.prepare(origin);
+        } finally {
+            batch.close();
+        }
+    }
+
+    static ChunkRenderContext prepare(Level world, SectionPos origin, WorldSliceBatch batch) {
         LevelChunk chunk = world.getChunk(origin.getX(), origin.getZ());
         LevelChunkSection section = chunk.getSections()[origin.getY()];
 
@@ -129,19 +143,19 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
             for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
                 for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
                     sections[getLocalSectionIndex(chunkX - minChunkX, chunkY - minChunkY, chunkZ - minChunkZ)] =
-                            sectionCache.acquire(chunkX, chunkY, chunkZ);
+                            batch.acquire(chunkX, chunkY, chunkZ);
                 }
             }
         }
 
-        return new ChunkRenderContext(origin, sections, volume);
+        return new ChunkRenderContext(origin, sections, volume, batch.getModelData(origin));
     }
 
     public WorldSlice(Level world) {
         this.world = world;
 
         this.sections = new ClonedChunkSection[SECTION_TABLE_ARRAY_SIZE];
-        this.blockStatesArrays = new BlockState[SECTION_TABLE_ARRAY_SIZE][];
+        this.blockStateIdsArrays = new int[SECTION_TABLE_ARRAY_SIZE][];
 
         boolean is3DBiomes = ((AccessorBiomeManager)this.world.getBiomeManager()).getZoomer() != FuzzyOffsetConstantColumnBiomeZoomer.INSTANCE;
         this.biomeSlice = new BiomeSlice(is3DBiomes);
@@ -153,8 +167,8 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
                 for (int z = 0; z < SECTION_LENGTH; z++) {
                     int i = getLocalSectionIndex(x, y, z);
 
-                    this.blockStatesArrays[i] = new BlockState[SECTION_BLOCK_COUNT];
-                    Arrays.fill(this.blockStatesArrays[i], Blocks.AIR.defaultBlockState());
+                    this.blockStateIdsArrays[i] = new int[SECTION_BLOCK_COUNT];
+                    Arrays.fill(this.blockStateIdsArrays[i], Block.getId(Blocks.AIR.defaultBlockState()));
                 }
             }
         }
@@ -164,6 +178,7 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
         this.origin = context.getOrigin();
         this.sections = context.getSections();
         this.volume = context.getVolume();
+        this.blockStateTable = BlockStateFlagTable.getInstance();
 
         this.baseX = (this.origin.getX() - NEIGHBOR_CHUNK_RADIUS) << 4;
         this.baseY = (this.origin.getY() - NEIGHBOR_CHUNK_RADIUS) << 4;
@@ -174,7 +189,7 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
                 for (int z = 0; z < SECTION_LENGTH; z++) {
                     int idx = getLocalSectionIndex(x, y, z);
 
-                    this.unpackBlockData(this.blockStatesArrays[idx], this.sections[idx], context.getVolume());
+                    this.unpackBlockData(this.blockStateIdsArrays[idx], this.sections[idx], context.getVolume());
                 }
             }
         }
@@ -183,17 +198,17 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
         this.biomeColors.update(context);
     }
 
-    private void unpackBlockData(BlockState[] states, ClonedChunkSection section, BoundingBox box) {
+    private void unpackBlockData(int[] ids, ClonedChunkSection section, BoundingBox box) {
         if (this.origin.equals(section.getPosition()))  {
-            this.unpackBlockDataZ(states, section);
+            this.unpackBlockDataZ(ids, section);
         } else {
-            this.unpackBlockDataR(states, section, box);
+            this.unpackBlockDataR(ids, section, box);
         }
     }
 
-    private void unpackBlockDataR(BlockState[] states, ClonedChunkSection section, BoundingBox box) {
+    private void unpackBlockDataR(int[] ids, ClonedChunkSection section, BoundingBox box) {
         BitStorage intArray = section.getBlockData();
-        ClonedPalette<BlockState> palette = section.getBlockPalette();
+        int[] idPalette = section.getBlockStateIdPalette();
 
         SectionPos pos = section.getPosition();
 
@@ -212,15 +227,15 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
                     int blockIdx = getLocalBlockIndex(x & 15, y & 15, z & 15);
                     int value = intArray.get(blockIdx);
 
-                    states[blockIdx] = palette.get(value);
+                    ids[blockIdx] = idPalette != null ? idPalette[value] : value;
                 }
             }
         }
     }
 
-    private void unpackBlockDataZ(BlockState[] states, ClonedChunkSection section) {
+    private void unpackBlockDataZ(int[] ids, ClonedChunkSection section) {
         ((PackedIntegerArrayExtended) section.getBlockData())
-                .copyUsingPalette(states, section.getBlockPalette());
+                .copyUsingIdPalette(ids, section.getBlockStateIdPalette());
     }
 
     private static boolean blockBoxContains(BoundingBox box, int x, int y, int z) {
@@ -246,14 +261,23 @@ public class WorldSlice implements BlockAndTintGetter, BiomeManager.NoiseBiomeSo
         int relY = y - this.baseY;
         int relZ = z - this.baseZ;
 
-        return this.blockStatesArrays[getLocalSectionIndex(relX >> 4, relY >> 4, relZ >> 4)]
-                [getLocalBlockIndex(relX & 15, relY & 15, relZ & 15)];
+        return this.blockStateTable.getState(this.blockStateIdsArrays[getLocalSectionIndex(relX >> 4, relY >> 4, relZ >> 4)]
+                [getLocalBlockIndex(relX & 15, relY & 15, relZ & 15)]);
     }
 
     public BlockState getBlockStateRelative(int x, int y, int z) {
         // NOTE: Not bounds checked. We assume ChunkRenderRebuildTask is the only function using this
-        return this.blockStatesArrays[getLocalSectionIndex(x >> 4, y >> 4, z >> 4)]
-                [getLocalBlockIndex(x & 15, y & 15, z & 15)];
+        return this.blockStateTable.getState(this.blockStateIdsArrays[getLocalSectionIndex(x >> 4, y >> 4, z >> 4)]
+                [getLocalBlockIndex(x & 15, y & 15, z & 15)]);
+    }
+
+    /**
+     * @return The flags from {@link BlockStateFlagTable} of the block state at the given position
+     */
+    public int getBlockStateFlagsRelative(int x, int y, int z) {
+        // NOTE: Not bounds checked. We assume ChunkRenderRebuildTask is the only function using this
+        return this.blockStateTable.getFlags(this.blockStateIdsArrays[getLocalSectionIndex(x >> 4, y >> 4, z >> 4)]
+                [getLocalBlockIndex(x & 15, y & 15, z & 15)]);
     }
 
     @Override
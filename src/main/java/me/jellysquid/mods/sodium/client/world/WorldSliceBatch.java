@@ -0,0 +1,128 @@
+package me.jellysquid.mods.sodium.client.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.client.model.data.IModelData;
+import org.embeddedt.embeddium.model.ModelDataSnapshotter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Prepares the world slices of all the sections which are rebuilt in one frame together. Adjacent sections share most
+ * of their neighbours, so each distinct neighbour is acquired from the section cache only once for the whole batch and
+ * then shared by every context which needs it, even if the cache evicts it in the meantime. The model data of each
+ * chunk column is also only gathered once, rather than once for every section in it.
+ *
+ * The batch holds a reference to every section it has acquired until it is closed, which must happen on the same
+ * thread once all the sections have been prepared.
+ */
+public class WorldSliceBatch {
+    private final Level world;
+    private final ClonedChunkSectionCache sectionCache;
+
+    private final Long2ReferenceOpenHashMap<ClonedChunkSection> sections = new Long2ReferenceOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<Int2ObjectMap<Map<BlockPos, IModelData>>> modelData = new Long2ObjectOpenHashMap<>();
+
+    private int preparedCount;
+    private long prepareTime;
+
+    public WorldSliceBatch(Level world, ClonedChunkSectionCache sectionCache) {
+        this.world = world;
+        this.sectionCache = sectionCache;
+    }
+
+    /**
+     * @see WorldSlice#prepare(Level, SectionPos, ClonedChunkSectionCache)
+     */
+    public ChunkRenderContext prepare(SectionPos origin) {
+        long start = System.nanoTime();
+
+        ChunkRenderContext context = WorldSlice.prepare(this.world, origin, this);
+
+        this.prepareTime += System.nanoTime() - start;
+
+        if (context != null) {
+            this.preparedCount++;
+        }
+
+        return context;
+    }
+
+    /**
+     * Returns a new reference to the given section, which the caller must release through the section cache.
+     */
+    ClonedChunkSection acquire(int x, int y, int z) {
+        long key = SectionPos.asLong(x, y, z);
+        ClonedChunkSection section = this.sections.get(key);
+
+        if (section == null) {
+            // The reference returned by the cache is held by the batch until it is closed
+            section = this.sectionCache.acquire(x, y, z);
+
+            this.sections.put(key, section);
+        }
+
+        section.acquireReference();
+
+        return section;
+    }
+
+    Map<BlockPos, IModelData> getModelData(SectionPos pos) {
+        long key = ChunkPos.asLong(pos.getX(), pos.getZ());
+        Int2ObjectMap<Map<BlockPos, IModelData>> sections = this.modelData.get(key);
+
+        if (sections == null) {
+            sections = ModelDataSnapshotter.getModelDataForChunk((ClientLevel) this.world, new ChunkPos(pos.getX(), pos.getZ()));
+
+            this.modelData.put(key, sections);
+        }
+
+        Map<BlockPos, IModelData> map = sections.get(pos.getY());
+
+        return map != null ? map : Collections.emptyMap();
+    }
+
+    /**
+     * Releases the references held by this batch. The contexts which were prepared remain valid until their resources
+     * are released.
+     */
+    public void close() {
+        for (ClonedChunkSection section : this.sections.values()) {
+            this.sectionCache.release(section);
+        }
+
+        this.sections.clear();
+        this.modelData.clear();
+    }
+
+    /**
+     * @return The number of contexts which were prepared by this batch
+     */
+    public int getPreparedCount() {
+        return this.preparedCount;
+    }
+
+    /**
+     * @return The number of distinct sections which were acquired by this batch
+     */
+    public int getSectionCount() {
+        return this.sections.size();
+    }
+
+    /**
+     * @return The total time spent preparing contexts in this batch, in nanoseconds
+     */
+    public long getPrepareTime() {
+        return this.prepareTime;
+    }
+}
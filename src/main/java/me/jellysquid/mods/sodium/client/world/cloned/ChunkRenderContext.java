@@ -1,17 +1,23 @@
 package me.jellysquid.mods.sodium.client.world.cloned;
 
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraftforge.client.model.data.IModelData;
+
+import java.util.Map;
 
 public class ChunkRenderContext {
     private final SectionPos origin;
     private final ClonedChunkSection[] sections;
     private final BoundingBox volume;
+    private final Map<BlockPos, IModelData> modelData;
 
-    public ChunkRenderContext(SectionPos origin, ClonedChunkSection[] sections, BoundingBox volume) {
+    public ChunkRenderContext(SectionPos origin, ClonedChunkSection[] sections, BoundingBox volume, Map<BlockPos, IModelData> modelData) {
         this.origin = origin;
         this.sections = sections;
         this.volume = volume;
+        this.modelData = modelData;
     }
 
     public ClonedChunkSection[] getSections() {
@@ -26,6 +32,13 @@ public class ChunkRenderContext {
         return this.volume;
     }
 
+    /**
+     * @return The model data of the blocks in the origin section, captured on the main thread
+     */
+    public Map<BlockPos, IModelData> getModelData() {
+        return this.modelData;
+    }
+
     public void releaseResources() {
         for (ClonedChunkSection section : sections) {
             if (section != null) {
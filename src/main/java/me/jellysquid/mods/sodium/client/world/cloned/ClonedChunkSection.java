@@ -22,18 +22,21 @@ import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.chunk.Palette;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ClonedChunkSection {
     private static final LightLayer[] LIGHT_TYPES = LightLayer.values();
-    private static final LevelChunkSection EMPTY_SECTION = new LevelChunkSection(0);
 
     private final AtomicInteger referenceCount = new AtomicInteger(0);
     private final ClonedChunkSectionCache backingCache;
 
     private final Short2ObjectMap<BlockEntity> blockEntities;
     private final DataLayer[] lightDataArrays;
+
+    // The copies of the light data owned by this section, which are re-used when the section is recycled
+    private final DataLayer[] lightDataCopies;
     private final Level world;
 
     private SectionPos pos;
@@ -41,6 +44,9 @@ public class ClonedChunkSection {
     private BitStorage blockStateData;
     private ClonedPalette<BlockState> blockStatePalette;
 
+    // The global block state ID of each palette entry, or null if the data already contains global IDs
+    private int[] blockStateIdPalette;
+
     private ChunkBiomeContainer biomeData;
 
     private long lastUsedTimestamp = Long.MAX_VALUE;
@@ -50,6 +56,7 @@ public class ClonedChunkSection {
         this.world = world;
         this.blockEntities = new Short2ObjectOpenHashMap<>();
         this.lightDataArrays = new DataLayer[LIGHT_TYPES.length];
+        this.lightDataCopies = new DataLayer[LIGHT_TYPES.length];
     }
 
     public void init(SectionPos pos) {
@@ -62,20 +69,23 @@ public class ClonedChunkSection {
         LevelChunkSection section = getChunkSection(chunk, pos);
 
         if (section == LevelChunk.EMPTY_SECTION /*ChunkSection.isEmpty(section)*/) {
-            section = EMPTY_SECTION;
+            section = EmptySectionHolder.EMPTY_SECTION;
         }
 
         this.pos = pos;
 
         PalettedContainerExtended<BlockState> container = PalettedContainerExtended.cast(section.getStates());;
 
-        this.blockStateData = copyBlockData(container);
+        this.blockStateData = copyBlockData(container, this.blockStateData);
         this.blockStatePalette = copyPalette(container);
+        this.blockStateIdPalette = createIdPalette(container, this.blockStatePalette);
 
         for (LightLayer type : LIGHT_TYPES) {
-            this.lightDataArrays[type.ordinal()] = world.getLightEngine()
+            DataLayer array = world.getLightEngine()
                     .getLayerListener(type)
                     .getDataLayerData(pos);
+
+            this.lightDataArrays[type.ordinal()] = this.copyLightData(type, array);
         }
 
         this.biomeData = chunk.getBiomes();
@@ -116,6 +126,32 @@ public class ClonedChunkSection {
         return this.blockEntities.get(packLocal(x, y, z));
     }
 
+    /**
+     * Copies the light data of this section, since the array returned by the light engine may be modified while the
+     * section is being used off-thread. This happens on the main thread, so the copy is always consistent with the
+     * state of the world when the section was cloned. Since every clone is shared by all the rebuild tasks around it,
+     * the copy only needs to be made once each time the section is cloned.
+     *
+     * @return The copy of the light data, or null if the section has no light data or it is completely dark
+     */
+    private DataLayer copyLightData(LightLayer type, DataLayer array) {
+        // An empty array is all zeroes, which is the same as having no data at all
+        if (array == null || array.isEmpty()) {
+            return null;
+        }
+
+        DataLayer copy = this.lightDataCopies[type.ordinal()];
+
+        if (copy == null) {
+            this.lightDataCopies[type.ordinal()] = copy = new DataLayer();
+        }
+
+        byte[] data = array.getData();
+        System.arraycopy(data, 0, copy.getData(), 0, data.length);
+
+        return copy;
+    }
+
     public BitStorage getBlockData() {
         return this.blockStateData;
     }
@@ -124,6 +160,29 @@ public class ClonedChunkSection {
         return this.blockStatePalette;
     }
 
+    /**
+     * Scans the block data of this section to check whether every block in it has the same state. This is cheap for
+     * most sections which aren't uniform, as the scan stops at the first block which differs.
+     *
+     * @return The state of every block in this section, or null if the section contains more than one block state
+     */
+    public BlockState findUniformBlockState() {
+        BitStorage data = this.blockStateData;
+        int id = data.get(0);
+
+        for (int i = 1, size = data.getSize(); i < size; i++) {
+            if (data.get(i) != id) {
+                return null;
+            }
+        }
+
+        return this.blockStatePalette.get(id);
+    }
+
+    public int[] getBlockStateIdPalette() {
+        return this.blockStateIdPalette;
+    }
+
     public SectionPos getPosition() {
         return this.pos;
     }
@@ -148,11 +207,35 @@ public class ClonedChunkSection {
         return new ClonedPalleteArray<>(array, container.getDefaultValue());
     }
 
-    private static BitStorage copyBlockData(PalettedContainerExtended<BlockState> container) {
+    private static int[] createIdPalette(PalettedContainerExtended<BlockState> container, ClonedPalette<BlockState> palette) {
+        if (palette instanceof ClonedPaletteFallback) {
+            return null;
+        }
+
+        int[] ids = new int[1 << container.getPaletteSize()];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Block.getId(palette.get(i));
+        }
+
+        return ids;
+    }
+
+    private static BitStorage copyBlockData(PalettedContainerExtended<BlockState> container, BitStorage previous) {
         BitStorage array = container.getDataArray();
         long[] storage = array.getRaw();
 
-        return new BitStorage(container.getPaletteSize(), array.getSize(), storage.clone());
+        long[] copy;
+
+        // Re-use the storage of a recycled section if it has the same size
+        if (previous != null && previous.getRaw().length == storage.length) {
+            copy = previous.getRaw();
+            System.arraycopy(storage, 0, copy, 0, storage.length);
+        } else {
+            copy = storage.clone();
+        }
+
+        return new BitStorage(container.getPaletteSize(), array.getSize(), copy);
     }
 
     private static LevelChunkSection getChunkSection(ChunkAccess chunk, SectionPos pos) {
@@ -169,8 +252,33 @@ public class ClonedChunkSection {
         this.referenceCount.incrementAndGet();
     }
 
+    /**
+     * @return True if this was the last reference to the section, in which case it can be recycled
+     */
     public boolean releaseReference() {
-        return this.referenceCount.decrementAndGet() <= 0;
+        int count = this.referenceCount.decrementAndGet();
+
+        if (count < 0) {
+            throw new IllegalStateException("Section was released more times than it was acquired");
+        }
+
+        return count == 0;
+    }
+
+    /**
+     * Drops the references this section holds to world data so that it can be kept in a pool without keeping the
+     * world data alive. The block data storage is kept so that it can be re-used.
+     */
+    void reset() {
+        this.pos = null;
+        this.blockStatePalette = null;
+        this.blockStateIdPalette = null;
+        this.biomeData = null;
+        this.blockEntities.clear();
+
+        Arrays.fill(this.lightDataArrays, null);
+
+        this.lastUsedTimestamp = Long.MAX_VALUE;
     }
 
     public long getLastUsedTimestamp() {
@@ -194,4 +302,9 @@ public class ClonedChunkSection {
     private static short packLocal(int x, int y, int z) {
         return (short) (x << 8 | z << 4 | y);
     }
+
+    // Creating an empty section requires the block registry, so it is deferred until a section is first initialized
+    private static class EmptySectionHolder {
+        private static final LevelChunkSection EMPTY_SECTION = new LevelChunkSection(0);
+    }
 }
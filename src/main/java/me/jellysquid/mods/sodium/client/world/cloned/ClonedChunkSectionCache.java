@@ -1,72 +1,182 @@
 package me.jellysquid.mods.sodium.client.world.cloned;
 
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.Level;
 
+/**
+ * Caches the sections which have been cloned for chunk rebuilds so that the many rebuild tasks which overlap the same
+ * sections can share one immutable copy of them.
+ *
+ * Every cloned section is reference counted. The cache holds one reference to each section it contains, and every
+ * rebuild task holds one reference to each section it uses until its resources are released. When a section is
+ * invalidated or evicted, the cache only drops its own reference, so any tasks which are still using the old copy can
+ * continue to do so while new tasks receive a fresh copy. Once the last reference is released, the section is recycled
+ * into a pool so that its storage can be re-used by the next clone.
+ *
+ * To keep the main thread from contending with itself and the workers releasing sections, the cache is split into
+ * stripes which are each guarded by their own lock.
+ */
 public class ClonedChunkSectionCache {
     private static final int MAX_CACHE_SIZE = 512; /* number of entries */
     private static final long MAX_CACHE_DURATION = TimeUnit.SECONDS.toNanos(5); /* number of nanoseconds */
 
+    private static final int STRIPE_COUNT = 16; /* must be a power of two */
+    private static final int MAX_STRIPE_SIZE = MAX_CACHE_SIZE / STRIPE_COUNT;
+
+    private static final int MAX_POOL_SIZE = 256; /* number of sections */
+
     private final Level world;
 
-    private final Long2ReferenceLinkedOpenHashMap<ClonedChunkSection> byPosition = new Long2ReferenceLinkedOpenHashMap<>();
-    private long time; // updated once per frame to be the elapsed time since application start
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    // Sections which are no longer referenced by anything and can be re-initialized
+    private final Queue<ClonedChunkSection> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    private volatile long time; // updated once per frame to be the elapsed time since application start
 
     public ClonedChunkSectionCache(Level world) {
         this.world = world;
         this.time = getMonotonicTimeSource();
+
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            this.stripes[i] = new Stripe();
+        }
     }
 
-    public synchronized void cleanup() {
-        this.time = getMonotonicTimeSource();
-        this.byPosition.values()
-                .removeIf(entry -> this.time > (entry.getLastUsedTimestamp() + MAX_CACHE_DURATION));
+    public void cleanup() {
+        long time = getMonotonicTimeSource();
+        this.time = time;
+
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                ObjectIterator<ClonedChunkSection> it = stripe.byPosition.values().iterator();
+
+                while (it.hasNext()) {
+                    ClonedChunkSection section = it.next();
+
+                    if (time > (section.getLastUsedTimestamp() + MAX_CACHE_DURATION)) {
+                        it.remove();
+
+                        this.release(section);
+                    }
+                }
+            }
+        }
     }
 
-    public synchronized ClonedChunkSection acquire(int x, int y, int z) {
+    /**
+     * Returns the cloned copy of the given section, cloning it first if necessary. The caller receives a reference to
+     * the section which must be returned with {@link ClonedChunkSectionCache#release(ClonedChunkSection)}.
+     */
+    public ClonedChunkSection acquire(int x, int y, int z) {
         long key = SectionPos.asLong(x, y, z);
-        ClonedChunkSection section = this.byPosition.get(key);
+        Stripe stripe = this.getStripe(key);
 
-        if (section == null) {
-            while (this.byPosition.size() >= MAX_CACHE_SIZE) {
-                this.byPosition.removeFirst();
-            }
+        synchronized (stripe) {
+            ClonedChunkSection section = stripe.byPosition.getAndMoveToLast(key);
 
-            section = this.createSection(x, y, z);
-        }
+            if (section == null) {
+                while (stripe.byPosition.size() >= MAX_STRIPE_SIZE) {
+                    this.release(stripe.byPosition.removeFirst());
+                }
 
-        section.setLastUsedTimestamp(this.time);
+                section = this.createSection(x, y, z);
 
-        return section;
+                stripe.byPosition.putAndMoveToLast(key, section);
+            }
+
+            section.acquireReference();
+            section.setLastUsedTimestamp(this.time);
+
+            return section;
+        }
     }
 
     private ClonedChunkSection createSection(int x, int y, int z) {
         ClonedChunkSection section = this.allocate();
+        section.init(SectionPos.of(x, y, z));
 
-        SectionPos pos = SectionPos.of(x, y, z);
-        section.init(pos);
-
-        this.byPosition.putAndMoveToLast(pos.asLong(), section);
+        // The reference held by the cache itself
+        section.acquireReference();
 
         return section;
     }
 
-    public synchronized void invalidate(int x, int y, int z) {
-        this.byPosition.remove(SectionPos.asLong(x, y, z));
+    /**
+     * Removes the given section from the cache, so that the next rebuild which needs it receives a fresh copy. Any
+     * rebuilds which are still using the current copy will continue to see it until they release it.
+     */
+    public void invalidate(int x, int y, int z) {
+        long key = SectionPos.asLong(x, y, z);
+        Stripe stripe = this.getStripe(key);
+
+        ClonedChunkSection section;
+
+        synchronized (stripe) {
+            section = stripe.byPosition.remove(key);
+        }
+
+        if (section != null) {
+            this.release(section);
+        }
     }
 
+    /**
+     * Returns a reference to a section which was obtained from {@link ClonedChunkSectionCache#acquire(int, int, int)}.
+     * The section must not be used after this by the caller.
+     */
     public void release(ClonedChunkSection section) {
+        if (!section.releaseReference()) {
+            return;
+        }
+
+        section.reset();
+
+        if (this.poolSize.incrementAndGet() > MAX_POOL_SIZE) {
+            this.poolSize.decrementAndGet();
+            return;
+        }
 
+        this.pool.offer(section);
     }
 
     private ClonedChunkSection allocate() {
+        ClonedChunkSection section = this.pool.poll();
+
+        if (section != null) {
+            this.poolSize.decrementAndGet();
+
+            return section;
+        }
+
+        return this.newSection();
+    }
+
+    /**
+     * Creates a section which is not yet initialized, for when the pool is empty.
+     */
+    ClonedChunkSection newSection() {
         return new ClonedChunkSection(this, this.world);
     }
 
+    private Stripe getStripe(long key) {
+        return this.stripes[(int) HashCommon.mix(key) & (STRIPE_COUNT - 1)];
+    }
+
     private static long getMonotonicTimeSource() {
         // Should be monotonic in JDK 17 on sane platforms...
         return System.nanoTime();
     }
+
+    private static class Stripe {
+        private final Long2ReferenceLinkedOpenHashMap<ClonedChunkSection> byPosition = new Long2ReferenceLinkedOpenHashMap<>();
+    }
 }
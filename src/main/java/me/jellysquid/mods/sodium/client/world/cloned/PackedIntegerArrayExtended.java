@@ -1,7 +1,8 @@
 package me.jellysquid.mods.sodium.client.world.cloned;
 
-import me.jellysquid.mods.sodium.client.world.cloned.palette.ClonedPalette;
-
 public interface PackedIntegerArrayExtended {
-    <T> void copyUsingPalette(T[] out, ClonedPalette<T> palette);
+    /**
+     * Copies the values of this array into {@code out}, mapping each value through {@code palette} unless it is null.
+     */
+    void copyUsingIdPalette(int[] out, int[] palette);
 }
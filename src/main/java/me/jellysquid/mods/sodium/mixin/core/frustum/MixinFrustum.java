@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.mixin.core.frustum;
 
 import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector4f;
+import me.jellysquid.mods.sodium.client.util.math.AabbBatch;
 import me.jellysquid.mods.sodium.client.util.math.FrustumExtended;
 import net.minecraft.client.renderer.culling.Frustum;
 import net.minecraft.world.phys.AABB;
@@ -13,10 +14,15 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
+import java.util.Arrays;
+
 @Mixin(Frustum.class)
 public abstract class MixinFrustum implements FrustumExtended {
     @Shadow public abstract boolean cubeInFrustum(double minX, double minY, double minZ, double maxX, double maxY, double maxZ);
 
+    private static final float CLASSIFY_MARGIN = 0.01f;
+
+    private double x, y, z;
     private float xF, yF, zF;
 
     private float nxX, nxY, nxZ, nxW;
@@ -28,6 +34,10 @@ public abstract class MixinFrustum implements FrustumExtended {
 
     @Inject(method = "prepare", at = @At("HEAD"))
     private void prePositionUpdate(double cameraX, double cameraY, double cameraZ, CallbackInfo ci) {
+        this.x = cameraX;
+        this.y = cameraY;
+        this.z = cameraZ;
+
         this.xF = (float) cameraX;
         this.yF = (float) cameraY;
         this.zF = (float) cameraZ;
@@ -87,6 +97,116 @@ public abstract class MixinFrustum implements FrustumExtended {
                 maxX - this.xF, maxY - this.yF, maxZ - this.zF);
     }
 
+    @Override
+    public void fastAabbTestBatch(AabbBatch batch) {
+        // Subclasses may override the test for single boxes
+        if (((Object) this).getClass() != Frustum.class) {
+            batch.testEach(this);
+            return;
+        }
+
+        int count = batch.size();
+        float[] distances = batch.getDistances();
+
+        Arrays.fill(distances, 0, count, Float.POSITIVE_INFINITY);
+
+        this.testPlaneBatch(batch, distances, count, this.nxX, this.nxY, this.nxZ, this.nxW);
+        this.testPlaneBatch(batch, distances, count, this.pxX, this.pxY, this.pxZ, this.pxW);
+        this.testPlaneBatch(batch, distances, count, this.nyX, this.nyY, this.nyZ, this.nyW);
+        this.testPlaneBatch(batch, distances, count, this.pyX, this.pyY, this.pyZ, this.pyW);
+        this.testPlaneBatch(batch, distances, count, this.nzX, this.nzY, this.nzZ, this.nzW);
+        this.testPlaneBatch(batch, distances, count, this.pzX, this.pzY, this.pzZ, this.pzW);
+
+        for (int i = 0; i < count; i++) {
+            batch.setVisible(i, distances[i] >= 0.0f);
+        }
+    }
+
+    /**
+     * Computes the distance of the corner of each box which is the furthest in front of the plane, and keeps the
+     * smallest distance of each box over all the planes. Which corner that is only depends on the plane, so it is
+     * chosen once here, leaving a loop without any branches which can be vectorized.
+     */
+    private void testPlaneBatch(AabbBatch batch, float[] distances, int count, float x, float y, float z, float w) {
+        float[] cornerX = x < 0 ? batch.getMinX() : batch.getMaxX();
+        float[] cornerY = y < 0 ? batch.getMinY() : batch.getMaxY();
+        float[] cornerZ = z < 0 ? batch.getMinZ() : batch.getMaxZ();
+
+        // The offset from the origin of the batch to the camera, which is zero if the boxes are relative to the camera
+        float originX = (float) (this.x - batch.getOriginX());
+        float originY = (float) (this.y - batch.getOriginY());
+        float originZ = (float) (this.z - batch.getOriginZ());
+
+        for (int i = 0; i < count; i++) {
+            // The same as testing (dot >= -w) in cubeInFrustum, since adding two floats never rounds to the wrong sign
+            float distance = x * (cornerX[i] - originX) + y * (cornerY[i] - originY) + z * (cornerZ[i] - originZ) + w;
+
+            distances[i] = Math.min(distances[i], distance);
+        }
+    }
+
+    @Override
+    public int classifyAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        // Subclasses may test boxes against state of their own which can't be considered here
+        if (((Object) this).getClass() != Frustum.class) {
+            return INTERSECT;
+        }
+
+        minX -= this.xF;
+        minY -= this.yF;
+        minZ -= this.zF;
+        maxX -= this.xF;
+        maxY -= this.yF;
+        maxZ -= this.zF;
+
+        int result = INSIDE;
+
+        result = Math.min(result, classifyPlane(this.nxX, this.nxY, this.nxZ, this.nxW, minX, minY, minZ, maxX, maxY, maxZ));
+        result = Math.min(result, classifyPlane(this.pxX, this.pxY, this.pxZ, this.pxW, minX, minY, minZ, maxX, maxY, maxZ));
+        result = Math.min(result, classifyPlane(this.nyX, this.nyY, this.nyZ, this.nyW, minX, minY, minZ, maxX, maxY, maxZ));
+        result = Math.min(result, classifyPlane(this.pyX, this.pyY, this.pyZ, this.pyW, minX, minY, minZ, maxX, maxY, maxZ));
+        result = Math.min(result, classifyPlane(this.nzX, this.nzY, this.nzZ, this.nzW, minX, minY, minZ, maxX, maxY, maxZ));
+        result = Math.min(result, classifyPlane(this.pzX, this.pzY, this.pzZ, this.pzW, minX, minY, minZ, maxX, maxY, maxZ));
+
+        return result;
+    }
+
+    private static int classifyPlane(float x, float y, float z, float w, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        // The corners of the box which are the furthest in front of and behind the plane
+        float front = x * (x < 0 ? minX : maxX) + y * (y < 0 ? minY : maxY) + z * (z < 0 ? minZ : maxZ);
+        float back = x * (x < 0 ? maxX : minX) + y * (y < 0 ? maxY : minY) + z * (z < 0 ? maxZ : minZ);
+
+        // The margin keeps rounding errors from making smaller boxes inside this one give a different result
+        if (front < -w - CLASSIFY_MARGIN) {
+            return OUTSIDE;
+        } else if (back >= -w + CLASSIFY_MARGIN) {
+            return INSIDE;
+        } else {
+            return INTERSECT;
+        }
+    }
+
+    @Override
+    public boolean captureState(float[] state) {
+        // Subclasses may test boxes against state of their own which can't be captured here
+        if (((Object) this).getClass() != Frustum.class) {
+            return false;
+        }
+
+        state[0] = this.xF;
+        state[1] = this.yF;
+        state[2] = this.zF;
+
+        state[3] = this.nxX; state[4] = this.nxY; state[5] = this.nxZ; state[6] = this.nxW;
+        state[7] = this.pxX; state[8] = this.pxY; state[9] = this.pxZ; state[10] = this.pxW;
+        state[11] = this.nyX; state[12] = this.nyY; state[13] = this.nyZ; state[14] = this.nyW;
+        state[15] = this.pyX; state[16] = this.pyY; state[17] = this.pyZ; state[18] = this.pyW;
+        state[19] = this.nzX; state[20] = this.nzY; state[21] = this.nzZ; state[22] = this.nzW;
+        state[23] = this.pzX; state[24] = this.pzY; state[25] = this.pzZ; state[26] = this.pzW;
+
+        return true;
+    }
+
     /**
      * @author XFactHD (ported by embeddedt)
      * @reason Avoid passing infinite extents box into optimized frustum code.
@@ -1,7 +1,6 @@
 package me.jellysquid.mods.sodium.mixin.features.chunk_rendering;
 
 import me.jellysquid.mods.sodium.client.world.cloned.PackedIntegerArrayExtended;
-import me.jellysquid.mods.sodium.client.world.cloned.palette.ClonedPalette;
 import net.minecraft.util.BitStorage;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -30,14 +29,15 @@ public class MixinPackedIntegerArray implements PackedIntegerArrayExtended {
     private int size;
 
     @Override
-    public <T> void copyUsingPalette(T[] out, ClonedPalette<T> palette) {
+    public void copyUsingIdPalette(int[] out, int[] palette) {
         int idx = 0;
 
         for (long word : this.data) {
             long l = word;
 
             for (int j = 0; j < this.field_232982_f_; ++j) {
-                out[idx] = palette.get((int) (l & this.mask));
+                int value = (int) (l & this.mask);
+                out[idx] = palette != null ? palette[value] : value;
                 l >>= this.bits;
 
                 if (++idx >= this.size) {
@@ -80,6 +80,7 @@ public abstract class MixinDebugHud {
         strings.add("Chunk Renderer: " + backend.getRendererName());
         strings.add("Block Renderer: " + (ForgeBlockRenderer.useForgeLightingPipeline() ? "Forge" : "Sodium"));
         strings.addAll(backend.getDebugStrings());
+        strings.addAll(renderer.getDebugStrings());
 
         return strings;
     }
@@ -34,6 +34,14 @@ public class BlockRendererRegistry {
         renderPopulators.add(populator);
     }
 
+    /**
+     * @return True if any render populators have been registered, in which case any block may be rendered by a
+     * custom renderer
+     */
+    public boolean hasRenderPopulators() {
+        return !renderPopulators.isEmpty();
+    }
+
     /**
      * Get a list of custom renderers for the given block & context.
      */
@@ -1,9 +1,13 @@
 package org.embeddedt.embeddium.model;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraftforge.client.model.ModelDataManager;
 import net.minecraftforge.client.model.data.EmptyModelData;
@@ -48,4 +52,44 @@ public class ModelDataSnapshotter {
 
         return ourMap.isEmpty() ? Collections.emptyMap() : ourMap;
     }
+
+    /**
+     * Retrieve all needed model data for every subchunk of the given chunk at once. This only needs to go over the
+     * model data of the chunk once, rather than once for every subchunk which is rebuilt.
+     * @param world the client world to retrieve data for
+     * @param pos the position of the chunk
+     * @return a map of subchunk Y coordinates to the model data contained within that subchunk, which only contains
+     * subchunks that have any model data
+     */
+    public static Int2ObjectMap<Map<BlockPos, IModelData>> getModelDataForChunk(ClientLevel world, ChunkPos pos) {
+        Map<BlockPos, IModelData> forgeMap = ModelDataManager.getModelData(world, pos);
+
+        // Fast path if there is no model data in this chunk
+        if(forgeMap.isEmpty())
+            return Int2ObjectMaps.emptyMap();
+
+        Int2ObjectOpenHashMap<Map<BlockPos, IModelData>> sections = new Int2ObjectOpenHashMap<>();
+
+        for(Map.Entry<BlockPos, IModelData> dataEntry : forgeMap.entrySet()) {
+            IModelData data = dataEntry.getValue();
+
+            if(data == null || data == EmptyModelData.INSTANCE) {
+                continue;
+            }
+
+            BlockPos key = dataEntry.getKey();
+            int sectionY = SectionPos.blockToSectionCoord(key.getY());
+
+            Map<BlockPos, IModelData> sectionMap = sections.get(sectionY);
+
+            if(sectionMap == null) {
+                sectionMap = new Object2ObjectOpenHashMap<>();
+                sections.put(sectionY, sectionMap);
+            }
+
+            sectionMap.put(key, data);
+        }
+
+        return sections;
+    }
 }
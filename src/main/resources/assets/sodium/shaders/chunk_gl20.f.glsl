@@ -1,5 +1,9 @@
 #version 110
 
+#ifdef USE_TEXTURE_TILING
+#extension GL_ARB_shader_texture_lod : require
+#endif
+
 varying vec4 v_Color; // The interpolated vertex color
 varying vec2 v_TexCoord; // The interpolated block texture coordinates
 varying vec2 v_LightCoord; // The interpolated light map texture coordinates
@@ -7,6 +11,10 @@ varying vec2 v_LightCoord; // The interpolated light map texture coordinates
 uniform sampler2D u_BlockTex; // The block texture sampler
 uniform sampler2D u_LightTex; // The light map texture sampler
 
+#ifdef USE_TEXTURE_TILING
+varying vec4 v_TileBounds; // The origin and size of the sprite repeated by the quad, or zero if it isn't repeated
+#endif
+
 #ifdef USE_FOG
 varying float v_FragDistance;
 uniform vec4 u_FogColor; // The color of the fog
@@ -33,8 +41,21 @@ float getFogFactor() {
 #endif
 
 void main() {
+#ifdef USE_TEXTURE_TILING
+    // Quads which repeat a sprite count the repetitions with their texture coordinates, so only the fractional part
+    // is mapped onto the sprite. The gradients are taken from the continuous coordinates, as those of the wrapped
+    // coordinates would jump at every repetition and select the smallest mip level there.
+    bool tiled = v_TileBounds.z > 0.0;
+
+    vec2 texCoord = tiled ? v_TileBounds.xy + (fract(v_TexCoord) * v_TileBounds.zw) : v_TexCoord;
+    vec2 texScale = tiled ? v_TileBounds.zw : vec2(1.0);
+
+    // Block texture sample
+    vec4 sampleBlockTex = texture2DGradARB(u_BlockTex, texCoord, dFdx(v_TexCoord) * texScale, dFdy(v_TexCoord) * texScale);
+#else
     // Block texture sample
     vec4 sampleBlockTex = texture2D(u_BlockTex, v_TexCoord);
+#endif
 
     // Light map texture sample
     vec4 sampleLightTex = texture2D(u_LightTex, v_LightCoord);
@@ -12,6 +12,11 @@ varying vec2 v_LightCoord;
 varying float v_FragDistance;
 #endif
 
+#ifdef USE_TEXTURE_TILING
+attribute vec4 a_TileBounds; // The origin and size of the sprite repeated by the quad, in 1/65536ths of the atlas
+varying vec4 v_TileBounds;
+#endif
+
 uniform mat4 u_ModelViewProjectionMatrix;
 uniform vec3 u_ModelScale;
 uniform vec2 u_TextureScale;
@@ -36,5 +41,9 @@ void main() {
     v_Color = a_Color;
     v_TexCoord = a_TexCoord * u_TextureScale;
     v_LightCoord = a_LightCoord;
+
+#ifdef USE_TEXTURE_TILING
+    v_TileBounds = a_TileBounds * (1.0 / 65536.0);
+#endif
 }
 
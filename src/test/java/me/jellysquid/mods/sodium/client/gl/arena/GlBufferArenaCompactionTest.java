@@ -0,0 +1,142 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlBufferArenaCompactionTest {
+    @Test
+    public void testMergesAdjacentSegmentsIntoOneCopy() {
+        GlBufferSegment a = new GlBufferSegment(null, 0, 10);
+        GlBufferSegment b = new GlBufferSegment(null, 10, 20);
+        GlBufferSegment c = new GlBufferSegment(null, 50, 5);
+        GlBufferSegment d = new GlBufferSegment(null, 55, 5);
+
+        IntArrayList copies = new IntArrayList();
+        int usedBytes = GlBufferArena.relocateSegments(new GlBufferSegment[] { d, b, c, a }, copies);
+
+        assertEquals(40, usedBytes);
+        assertArrayEquals(new int[] { 0, 0, 30, 50, 30, 10 }, copies.toIntArray());
+
+        assertEquals(0, a.getStart());
+        assertEquals(10, b.getStart());
+        assertEquals(30, c.getStart());
+        assertEquals(35, d.getStart());
+    }
+
+    @Test
+    public void testEmptyArena() {
+        IntArrayList copies = new IntArrayList();
+
+        assertEquals(0, GlBufferArena.relocateSegments(new GlBufferSegment[0], copies));
+        assertTrue(copies.isEmpty());
+    }
+
+    /**
+     * Fills the arena with random allocations and frees the same way {@link GlBufferArena} does, then compacts it.
+     * Every byte of every live segment is tagged with the segment it belongs to, so that replaying the copies shows
+     * whether any segment lost data or was overwritten by another.
+     */
+    @Test
+    public void testRandomCompactionKeepsEverySegment() {
+        for (long seed = 0; seed < 50; seed++) {
+            compactRandomArena(new Random(seed));
+        }
+    }
+
+    private static void compactRandomArena(Random random) {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+        List<GlBufferSegment> live = new ArrayList<>();
+        int position = 0;
+
+        for (int op = 0; op < 500; op++) {
+            if (live.isEmpty() || random.nextInt(100) < 60) {
+                int len = 1 + random.nextInt(256);
+                int start = allocator.alloc(len);
+
+                if (start < 0) {
+                    start = position;
+                    position += len;
+                }
+
+                live.add(new GlBufferSegment(null, start, len));
+            } else {
+                GlBufferSegment segment = live.remove(random.nextInt(live.size()));
+                allocator.free(segment.getStart(), segment.getLength());
+            }
+        }
+
+        // Tag the bytes of each segment in the old buffer with its index, and everything else with -1
+        int[] src = new int[position];
+        Arrays.fill(src, -1);
+
+        for (int i = 0; i < live.size(); i++) {
+            GlBufferSegment segment = live.get(i);
+            Arrays.fill(src, segment.getStart(), segment.getEnd(), i);
+        }
+
+        int[] oldStarts = new int[live.size()];
+        long expectedBytes = 0;
+
+        for (int i = 0; i < live.size(); i++) {
+            oldStarts[i] = live.get(i).getStart();
+            expectedBytes += live.get(i).getLength();
+        }
+
+        GlBufferSegment[] segments = live.toArray(new GlBufferSegment[0]);
+        Collections.shuffle(Arrays.asList(segments), random);
+
+        IntArrayList copies = new IntArrayList();
+        int usedBytes = GlBufferArena.relocateSegments(segments, copies);
+
+        assertEquals(expectedBytes, usedBytes);
+
+        // Replay the copies into a new buffer, checking that no byte is written twice
+        int[] dst = new int[usedBytes];
+        Arrays.fill(dst, -2);
+
+        for (int i = 0; i < copies.size(); i += 3) {
+            int readOffset = copies.getInt(i);
+            int writeOffset = copies.getInt(i + 1);
+            int length = copies.getInt(i + 2);
+
+            for (int j = 0; j < length; j++) {
+                assertEquals(-2, dst[writeOffset + j], "copies overlap at " + (writeOffset + j));
+                assertNotEquals(-1, src[readOffset + j], "copied free space at " + (readOffset + j));
+
+                dst[writeOffset + j] = src[readOffset + j];
+            }
+        }
+
+        // Every live segment must hold its own data at its new location, and the segments must keep their order
+        List<GlBufferSegment> byNewStart = new ArrayList<>(live);
+        byNewStart.sort(Comparator.comparingInt(GlBufferSegment::getStart));
+
+        int expectedStart = 0;
+        int previousOldStart = -1;
+
+        for (GlBufferSegment segment : byNewStart) {
+            int index = live.indexOf(segment);
+
+            assertEquals(expectedStart, segment.getStart(), "segments are not tightly packed");
+            assertTrue(oldStarts[index] > previousOldStart, "segments changed order");
+
+            for (int j = segment.getStart(); j < segment.getEnd(); j++) {
+                assertEquals(index, dst[j], "segment " + index + " lost its data at " + j);
+            }
+
+            expectedStart = segment.getEnd();
+            previousOldStart = oldStarts[index];
+        }
+
+        assertEquals(usedBytes, expectedStart);
+    }
+}
@@ -0,0 +1,205 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlBufferSegmentAllocatorTest {
+    private static final int CAPACITY = 1 << 14;
+
+    @Test
+    public void testAllocatesFromEmptyArena() {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+
+        assertEquals(-1, allocator.alloc(1));
+
+        allocator.free(0, 100);
+
+        assertEquals(0, allocator.alloc(40));
+        assertEquals(40, allocator.alloc(60));
+        assertEquals(-1, allocator.alloc(1));
+        assertEquals(0, allocator.getFreeBytes());
+        assertEquals(0, allocator.getFreeSegmentCount());
+    }
+
+    @Test
+    public void testCoalescesNeighbours() {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+        allocator.free(0, 300);
+
+        int a = allocator.alloc(100);
+        int b = allocator.alloc(100);
+        int c = allocator.alloc(100);
+
+        allocator.free(a, 100);
+        allocator.free(c, 100);
+
+        assertEquals(2, allocator.getFreeSegmentCount());
+        assertEquals(-1, allocator.alloc(200));
+
+        // Freeing the middle segment must merge it with both of its neighbours
+        allocator.free(b, 100);
+
+        assertEquals(1, allocator.getFreeSegmentCount());
+        assertEquals(300, allocator.getFreeBytes());
+        assertEquals(0, allocator.alloc(300));
+    }
+
+    @Test
+    public void testPicksBestFit() {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+
+        // Free segments of 64, 48, 40, 2000, and 520 bytes, separated by allocated space
+        allocator.free(0, 64);
+        allocator.free(100, 48);
+        allocator.free(200, 40);
+        allocator.free(300, 2000);
+        allocator.free(2400, 520);
+
+        // 40 and 48 bytes are in the same size class as 33, but only the smallest one is the best fit
+        assertEquals(200, allocator.alloc(33));
+
+        // The remaining 7 bytes are too small, so the 48 byte segment is the best fit now
+        assertEquals(100, allocator.alloc(33));
+
+        // The 520 byte segment is in the same size class as 600 but too small, so the next larger class is used
+        assertEquals(300, allocator.alloc(600));
+        assertEquals(2400, allocator.alloc(520));
+    }
+
+    @Test
+    public void testRejectsDoubleFree() {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+        allocator.free(0, 100);
+
+        int start = allocator.alloc(50);
+        allocator.free(start, 50);
+
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(start, 50));
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(start + 10, 10));
+    }
+
+    /**
+     * Performs random allocations and frees, and compares the allocator against a simple model which tracks whether
+     * each byte is free.
+     */
+    @Test
+    public void testRandomOperationsMatchModel() {
+        for (long seed = 0; seed < 20; seed++) {
+            fuzz(new Random(seed), 2000);
+        }
+    }
+
+    private static void fuzz(Random random, int operations) {
+        GlBufferSegmentAllocator allocator = new GlBufferSegmentAllocator();
+        allocator.free(0, CAPACITY);
+
+        boolean[] free = new boolean[CAPACITY];
+        Arrays.fill(free, true);
+
+        IntArrayList starts = new IntArrayList();
+        IntArrayList lengths = new IntArrayList();
+
+        for (int op = 0; op < operations; op++) {
+            if (starts.isEmpty() || random.nextInt(100) < 55) {
+                // Mostly small allocations with the occasional large one, like chunk meshes
+                int len = random.nextInt(8) == 0 ? 1 + random.nextInt(2048) : 1 + random.nextInt(128);
+                int expected = findBestFit(free, len);
+                int start = allocator.alloc(len);
+
+                assertEquals(expected, start, "alloc(" + len + ") did not return the best fit");
+
+                if (start != -1) {
+                    for (int i = start; i < start + len; i++) {
+                        assertTrue(free[i], "alloc(" + len + ") overlaps an allocated segment at " + i);
+                        free[i] = false;
+                    }
+
+                    starts.add(start);
+                    lengths.add(len);
+                }
+            } else {
+                int index = random.nextInt(starts.size());
+                int start = starts.getInt(index);
+                int len = lengths.getInt(index);
+
+                starts.set(index, starts.getInt(starts.size() - 1));
+                lengths.set(index, lengths.getInt(lengths.size() - 1));
+                starts.removeInt(starts.size() - 1);
+                lengths.removeInt(lengths.size() - 1);
+
+                allocator.free(start, len);
+
+                for (int i = start; i < start + len; i++) {
+                    free[i] = true;
+                }
+            }
+
+            assertEquals(countFreeBytes(free), allocator.getFreeBytes(), "free byte count differs from the model");
+
+            // Every maximal run of free bytes must be a single free segment, otherwise neighbours were not merged
+            assertEquals(countFreeRuns(free), allocator.getFreeSegmentCount(), "free segments were not coalesced");
+        }
+    }
+
+    /**
+     * Returns the start of the shortest run of free bytes which is at least {@param len} bytes long, preferring the
+     * lowest start among runs of the same length, or -1 if there is no such run.
+     */
+    private static int findBestFit(boolean[] free, int len) {
+        int bestStart = -1;
+        int bestLength = Integer.MAX_VALUE;
+
+        int i = 0;
+
+        while (i < free.length) {
+            if (!free[i]) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+
+            while (i < free.length && free[i]) {
+                i++;
+            }
+
+            int length = i - start;
+
+            if (length >= len && length < bestLength) {
+                bestStart = start;
+                bestLength = length;
+            }
+        }
+
+        return bestStart;
+    }
+
+    private static long countFreeBytes(boolean[] free) {
+        long count = 0;
+
+        for (boolean b : free) {
+            if (b) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static int countFreeRuns(boolean[] free) {
+        int count = 0;
+
+        for (int i = 0; i < free.length; i++) {
+            if (free[i] && (i == 0 || !free[i - 1])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,363 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadOrder;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadPlanes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkBufferSorterTest {
+    // The points on each quad which rays are cast towards, as a fraction of its size on each of its two axes
+    private static final float[] SAMPLES = { 0.1f, 0.5f, 0.9f };
+
+    private static final float EPSILON = 1.0e-4f;
+
+    /**
+     * Builds random meshes of translucent blocks and puts them in plane order for random camera positions. A quad must
+     * be drawn before every quad which hides part of it from the camera, which is checked by casting rays from the
+     * camera towards points on each quad. The plane order must never get this wrong, while the centroid sort is
+     * expected to get it wrong at least some of the time.
+     */
+    @Test
+    public void testPlaneOrderDrawsHiddenQuadsFirst() {
+        int centroidErrors = 0;
+
+        for (long seed = 0; seed < 100; seed++) {
+            Random random = new Random(seed);
+            float[] positions = createBlockMesh(random);
+
+            TranslucentQuadOrder order = ChunkBufferSorter.createQuadOrder(null, 0, positions);
+            assertNotNull(order.getPlanes(), "Seed " + seed + ": block faces are always axis-aligned");
+
+            for (int i = 0; i < 10; i++) {
+                float x = randomCoordinate(random), y = randomCoordinate(random), z = randomCoordinate(random);
+
+                int[] cell = order.getPlaneCell(x, y, z);
+
+                int[] planeOrder = apply(order, ChunkBufferSorter.sortQuads(order, cell, x, y, z));
+                int[] centroidOrder = apply(order, ChunkBufferSorter.sortQuads(order, x, y, z));
+
+                boolean[][] hidden = findHiddenQuads(positions, x, y, z);
+
+                assertEquals(0, countOcclusionErrors(hidden, planeOrder), "Seed " + seed + ": the plane order draws a quad after one which hides it");
+
+                centroidErrors += countOcclusionErrors(hidden, centroidOrder);
+            }
+        }
+
+        // Otherwise the meshes are too simple to tell the two orders apart
+        assertTrue(centroidErrors > 0, "The centroid sort never drew a quad after one which hides it");
+    }
+
+    /**
+     * A mesh of water surfaces at different heights only has planes on one axis, so it is put in plane order no matter
+     * how large it is, and parallel quads on the same side of the camera are drawn furthest first like the centroid
+     * sort would.
+     */
+    @Test
+    public void testParallelQuadsAreDrawnFurthestFirst() {
+        Random random = new Random(0);
+        FloatArrayList positions = new FloatArrayList();
+
+        for (int x = 0; x < 12; x++) {
+            for (int z = 0; z < 12; z++) {
+                for (int y = 0; y < 3; y++) {
+                    addQuad(positions, 1, x, (y * 4) + 0.875f, z, 1.0f, 1.0f);
+                }
+            }
+        }
+
+        float[] array = positions.toFloatArray();
+        TranslucentQuadOrder order = ChunkBufferSorter.createQuadOrder(null, 0, array);
+
+        TranslucentQuadPlanes planes = order.getPlanes();
+        assertNotNull(planes);
+        assertTrue(planes.isSingleAxis());
+        assertEquals(3, planes.getPlanes(1).length);
+
+        for (int i = 0; i < 20; i++) {
+            float x = randomCoordinate(random), y = randomCoordinate(random), z = randomCoordinate(random);
+
+            int[] quads = apply(order, ChunkBufferSorter.sortQuads(order, order.getPlaneCell(x, y, z), x, y, z));
+
+            assertEquals(0, countOcclusionErrors(findHiddenQuads(array, x, y, z), quads));
+
+            for (int a = 0; a < quads.length; a++) {
+                for (int b = a + 1; b < quads.length; b++) {
+                    float ya = array[(quads[a] * 12) + 1];
+                    float yb = array[(quads[b] * 12) + 1];
+
+                    if ((ya < y) == (yb < y)) {
+                        assertTrue(Math.abs(ya - y) >= Math.abs(yb - y), "A nearer quad is drawn first");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The plane order must be the same for every camera position in the same cell, no matter which order the quads
+     * start out in, and re-sorting a mesh which is already in plane order for the cell must leave it unchanged. The
+     * planes must also report a crossing exactly when two positions are in different cells.
+     */
+    @Test
+    public void testPlaneOrderOnlyChangesBetweenCells() {
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            float[] positions = createBlockMesh(random);
+
+            TranslucentQuadOrder order = ChunkBufferSorter.createQuadOrder(null, 0, positions);
+            TranslucentQuadPlanes planes = order.getPlanes();
+
+            for (int i = 0; i < 20; i++) {
+                float x1 = randomCoordinate(random), y1 = randomCoordinate(random), z1 = randomCoordinate(random);
+                float x2 = x1 + (random.nextFloat() - 0.5f), y2 = y1 + (random.nextFloat() - 0.5f), z2 = z1 + (random.nextFloat() - 0.5f);
+
+                int[] cell1 = order.getPlaneCell(x1, y1, z1);
+                int[] cell2 = order.getPlaneCell(x2, y2, z2);
+
+                assertEquals(!Arrays.equals(cell1, cell2), planes.crossesPlanes(x1, y1, z1, x2, y2, z2));
+
+                TranslucentQuadOrder sorted = order.permute(null, ChunkBufferSorter.sortQuads(order, cell1, x1, y1, z1), cell1);
+                assertTrue(sorted.isInPlaneOrder(cell1));
+                assertNull(ChunkBufferSorter.sortQuads(sorted, cell1, x2, y2, z2));
+
+                if (Arrays.equals(cell1, cell2)) {
+                    assertArrayEquals(sorted.getOrder(), apply(order, ChunkBufferSorter.sortQuads(order, cell2, x2, y2, z2)));
+                }
+
+                TranslucentQuadOrder shuffled = order.permute(null, shuffle(random, positions.length / 12), null);
+                assertFalse(shuffled.isInPlaneOrder(cell1));
+                assertArrayEquals(sorted.getOrder(), apply(shuffled, ChunkBufferSorter.sortQuads(shuffled, cell1, x1, y1, z1)));
+            }
+        }
+    }
+
+    @Test
+    public void testMeshesWhichCantBeOrderedByPlanes() {
+        FloatArrayList sloped = new FloatArrayList();
+        addQuad(sloped, 1, 0.0f, 0.5f, 0.0f, 1.0f, 1.0f);
+
+        // A quad which rises towards positive x, like the surface of flowing water
+        sloped.addElements(sloped.size(), new float[] { 0, 0, 0, 0, 0, 1, 1, 0.5f, 1, 1, 0.5f, 0 });
+
+        TranslucentQuadOrder order = ChunkBufferSorter.createQuadOrder(null, 0, sloped.toFloatArray());
+        assertNull(order.getPlanes());
+        assertNull(order.getPlaneCell(0.0f, 0.0f, 0.0f));
+
+        // Too many quads in planes of different axes for every pair of them to be compared
+        FloatArrayList large = new FloatArrayList();
+
+        for (int i = 0; i < 300; i++) {
+            addQuad(large, 0, i, 0.0f, 0.0f, 1.0f, 1.0f);
+            addQuad(large, 2, 0.0f, 0.0f, i, 1.0f, 1.0f);
+        }
+
+        assertNull(ChunkBufferSorter.createQuadOrder(null, 0, large.toFloatArray()).getPlanes());
+    }
+
+    /**
+     * Creates the faces of a few random boxes which are spread out over a small area without touching each other. The
+     * boxes have different sizes, from thin slabs to long bars, as quads of different sizes are where sorting by
+     * centroids goes wrong.
+     */
+    private static float[] createBlockMesh(Random random) {
+        float[] sizes = { 0.125f, 0.875f, 1.0f, 2.0f, 3.5f };
+        FloatArrayList positions = new FloatArrayList();
+
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                for (int z = 0; z < 4; z++) {
+                    if (random.nextInt(3) != 0) {
+                        continue;
+                    }
+
+                    float w = sizes[random.nextInt(sizes.length)];
+                    float h = sizes[random.nextInt(sizes.length)];
+                    float d = sizes[random.nextInt(sizes.length)];
+
+                    float bx = x * 4, by = y * 4, bz = z * 4;
+
+                    addQuad(positions, 0, bx, by, bz, h, d);
+                    addQuad(positions, 0, bx + w, by, bz, h, d);
+                    addQuad(positions, 1, bx, by, bz, d, w);
+                    addQuad(positions, 1, bx, by + h, bz, d, w);
+                    addQuad(positions, 2, bx, by, bz, w, h);
+                    addQuad(positions, 2, bx, by, bz + d, w, h);
+                }
+            }
+        }
+
+        return positions.toFloatArray();
+    }
+
+    /**
+     * Adds a quad which is perpendicular to the given axis and starts at the given position. The quad extends by
+     * {@param u} and {@param v} along the next two axes after the given one.
+     */
+    private static void addQuad(FloatArrayList positions, int axis, float x, float y, float z, float u, float v) {
+        float[] origin = { x, y, z };
+        int uAxis = (axis + 1) % 3;
+        int vAxis = (axis + 2) % 3;
+
+        float[][] corners = { { 0, 0 }, { u, 0 }, { u, v }, { 0, v } };
+
+        for (float[] corner : corners) {
+            float[] vertex = origin.clone();
+            vertex[uAxis] += corner[0];
+            vertex[vAxis] += corner[1];
+
+            positions.add(vertex[0]);
+            positions.add(vertex[1]);
+            positions.add(vertex[2]);
+        }
+    }
+
+    /**
+     * @return For each pair of quads, whether the first quad hides part of the second one from the camera
+     */
+    private static boolean[][] findHiddenQuads(float[] positions, float x, float y, float z) {
+        int quadCount = positions.length / 12;
+        boolean[][] hidden = new boolean[quadCount][quadCount];
+
+        for (int a = 0; a < quadCount; a++) {
+            for (int b = 0; b < quadCount; b++) {
+                hidden[a][b] = a != b && hides(positions, a, b, x, y, z);
+            }
+        }
+
+        return hidden;
+    }
+
+    /**
+     * Counts the pairs of quads where a quad is drawn after a quad which hides part of it from the camera. Quads which
+     * hide parts of each other can't be drawn in a correct order, so they are not counted.
+     */
+    private static int countOcclusionErrors(boolean[][] hidden, int[] quads) {
+        int quadCount = quads.length;
+        int[] drawnAt = new int[quadCount];
+
+        for (int i = 0; i < quadCount; i++) {
+            drawnAt[quads[i]] = i;
+        }
+
+        int errors = 0;
+
+        for (int a = 0; a < quadCount; a++) {
+            for (int b = a + 1; b < quadCount; b++) {
+                if (hidden[a][b] && !hidden[b][a] && drawnAt[a] < drawnAt[b]) {
+                    errors++;
+                } else if (hidden[b][a] && !hidden[a][b] && drawnAt[b] < drawnAt[a]) {
+                    errors++;
+                }
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * @return True if quad {@param front} is hit by a ray from the camera towards one of the sample points on quad
+     * {@param back} before the ray reaches it
+     */
+    private static boolean hides(float[] positions, int front, int back, float x, float y, float z) {
+        int b = back * 12;
+
+        for (float s : SAMPLES) {
+            for (float t : SAMPLES) {
+                // Bilinear interpolation between the corners of the quad, which are rectangular
+                float px = lerp(positions, b, 0, s, t);
+                float py = lerp(positions, b, 1, s, t);
+                float pz = lerp(positions, b, 2, s, t);
+
+                if (intersects(positions, front, x, y, z, px - x, py - y, pz - z)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static float lerp(float[] positions, int base, int axis, float s, float t) {
+        float a = positions[base + axis], b = positions[base + 3 + axis], c = positions[base + 6 + axis], d = positions[base + 9 + axis];
+
+        return ((a * (1 - s) + b * s) * (1 - t)) + ((d * (1 - s) + c * s) * t);
+    }
+
+    /**
+     * @return True if the segment from the camera to (camera + direction) passes through the inside of the given
+     * axis-aligned quad
+     */
+    private static boolean intersects(float[] positions, int quad, float x, float y, float z, float dx, float dy, float dz) {
+        int base = quad * 12;
+        float[] origin = { x, y, z };
+        float[] dir = { dx, dy, dz };
+
+        float[] min = { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY };
+        float[] max = { Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY };
+
+        for (int i = 0; i < 12; i++) {
+            min[i % 3] = Math.min(min[i % 3], positions[base + i]);
+            max[i % 3] = Math.max(max[i % 3], positions[base + i]);
+        }
+
+        int axis = min[0] == max[0] ? 0 : min[1] == max[1] ? 1 : 2;
+
+        if (dir[axis] == 0.0f) {
+            return false;
+        }
+
+        float t = (min[axis] - origin[axis]) / dir[axis];
+
+        if (t <= EPSILON || t >= 1.0f - EPSILON) {
+            return false;
+        }
+
+        for (int other = 0; other < 3; other++) {
+            if (other == axis) {
+                continue;
+            }
+
+            float hit = origin[other] + (dir[other] * t);
+
+            if (hit <= min[other] + EPSILON || hit >= max[other] - EPSILON) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static float randomCoordinate(Random random) {
+        return (random.nextFloat() * 24.0f) - 4.0f;
+    }
+
+    /**
+     * @return The original indices of the quads in the order which results from applying the permutation to the order
+     */
+    private static int[] apply(TranslucentQuadOrder order, int[] permutation) {
+        return order.permute(null, permutation, null).getOrder();
+    }
+
+    private static int[] shuffle(Random random, int count) {
+        int[] permutation = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            permutation[i] = i;
+        }
+
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+
+        return permutation;
+    }
+}
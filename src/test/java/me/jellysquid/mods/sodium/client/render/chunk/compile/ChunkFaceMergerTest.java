@@ -0,0 +1,626 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.model.quad.ModelQuadView;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuffers;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.format.TiledModelVertexSink;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkFaceMergerTest {
+    private static final int[] AXES = { 1, 1, 0, 0, 2, 2 };
+    private static final boolean[] POSITIVE = { true, false, true, false, true, false };
+
+    // The size of each sprite in the test atlas, which holds the sprites in a single row
+    private static final float SPRITE_SIZE = 1.0f / 64.0f;
+
+    // Baked quads have their texture coordinates shrunk slightly towards the center of the sprite
+    private static final float TEXTURE_SHRINK = 0.002f;
+
+    private static final float EPSILON = 1.0e-4f;
+
+    private static final int COLOR = 0xFFFFFFFF;
+    private static final int LIGHT = 0x00F000F0;
+
+    @Test
+    public void testFlatPlaneMergesIntoOneQuad() {
+        ChunkFaceMerger merger = new ChunkFaceMerger();
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                assertTrue(merger.add(ModelQuadFacing.UP, x, 3, z, createFace(ModelQuadFacing.UP, 0, 0), getMinU(0), 0.0f,
+                        getMaxU(0), SPRITE_SIZE, COLOR, LIGHT));
+            }
+        }
+
+        RecordingBuffers buffers = new RecordingBuffers();
+
+        assertEquals(1, merger.flush(buffers));
+        assertEquals(4, buffers.getVertexCount());
+
+        List<Vertex> vertices = buffers.sinks[ModelQuadFacing.UP.ordinal()].vertices;
+
+        for (Vertex vertex : vertices) {
+            assertEquals(4.0f, vertex.y);
+            assertTrue(vertex.x == 0.0f || vertex.x == 16.0f, "The quad must span the section on the x-axis");
+            assertTrue(vertex.z == 0.0f || vertex.z == 16.0f, "The quad must span the section on the z-axis");
+        }
+
+        // A flush resets the merger
+        assertEquals(0, merger.flush(new RecordingBuffers()));
+    }
+
+    /**
+     * Builds random terrain out of full blocks with a few different sprites, sprite orientations and light levels, and
+     * merges the faces of the blocks which are exposed to air. Every face must be covered by exactly one of the merged
+     * quads, which must have the attributes of the face, show the sprite of the face in the same orientation and face
+     * the same way.
+     */
+    @Test
+    public void testMergedQuadsCoverEveryFaceOnce() {
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            int[] blocks = createTerrain(random, 4);
+
+            ChunkFaceMerger merger = new ChunkFaceMerger();
+            Face[] faces = new Face[6 * 4096];
+
+            int faceCount = addExposedFaces(merger, blocks, faces, random);
+
+            RecordingBuffers buffers = new RecordingBuffers();
+            int quadCount = merger.flush(buffers);
+
+            assertEquals(quadCount * 4, buffers.getVertexCount(), "Seed " + seed);
+            assertTrue(quadCount < faceCount, "Seed " + seed + ": some faces must have been merged");
+
+            boolean[] covered = new boolean[faces.length];
+            int coveredCount = 0;
+
+            for (int facingId = 0; facingId < 6; facingId++) {
+                List<Vertex> vertices = buffers.sinks[facingId].vertices;
+
+                for (int quad = 0; quad < vertices.size(); quad += 4) {
+                    coveredCount += checkQuad(seed, facingId, vertices.subList(quad, quad + 4), faces, covered);
+                }
+            }
+
+            assertEquals(faceCount, coveredCount, "Seed " + seed + ": every face must be covered");
+        }
+    }
+
+    @Test
+    public void testRejectsPartialFaces() {
+        ChunkFaceMerger merger = new ChunkFaceMerger();
+        float minU = getMinU(0), maxU = getMaxU(0);
+
+        // The top of a bottom slab is not on the side of its block
+        TestQuad slab = createFace(ModelQuadFacing.UP, 0, 0);
+        slab.setCoordinate(1, 0.5f);
+
+        assertFalse(merger.add(ModelQuadFacing.UP, 0, 0, 0, slab, minU, 0.0f, maxU, SPRITE_SIZE, COLOR, LIGHT));
+
+        // A face which only covers half of the side of its block
+        TestQuad half = createFace(ModelQuadFacing.UP, 0, 0);
+        half.setEdge(0, 0.5f);
+
+        assertFalse(merger.add(ModelQuadFacing.UP, 0, 0, 0, half, minU, 0.0f, maxU, SPRITE_SIZE, COLOR, LIGHT));
+
+        // A face which only shows half of its sprite
+        assertFalse(merger.add(ModelQuadFacing.UP, 0, 0, 0, createFace(ModelQuadFacing.UP, 0, 0), minU, 0.0f,
+                maxU + SPRITE_SIZE, SPRITE_SIZE, COLOR, LIGHT));
+
+        // A face which stretches a single texel of its sprite across itself
+        TestQuad stretched = createFace(ModelQuadFacing.UP, 0, 0);
+
+        for (int i = 0; i < 4; i++) {
+            stretched.u[i] = minU;
+            stretched.v[i] = 0.0f;
+        }
+
+        assertFalse(merger.add(ModelQuadFacing.UP, 0, 0, 0, stretched, minU, 0.0f, maxU, SPRITE_SIZE, COLOR, LIGHT));
+
+        // Faces which aren't on a side of their block at all
+        assertFalse(merger.add(ModelQuadFacing.UNASSIGNED, 0, 0, 0, createFace(ModelQuadFacing.UP, 0, 0), minU, 0.0f,
+                maxU, SPRITE_SIZE, COLOR, LIGHT));
+
+        // Only one face can be added for each side of a block
+        assertTrue(merger.add(ModelQuadFacing.UP, 0, 0, 0, createFace(ModelQuadFacing.UP, 0, 0), minU, 0.0f, maxU,
+                SPRITE_SIZE, COLOR, LIGHT));
+        assertFalse(merger.add(ModelQuadFacing.UP, 0, 0, 0, createFace(ModelQuadFacing.UP, 0, 0), minU, 0.0f, maxU,
+                SPRITE_SIZE, COLOR, LIGHT));
+
+        assertEquals(1, merger.flush(new RecordingBuffers()));
+    }
+
+    @Test
+    public void testMergesOnlyIdenticalFaces() {
+        assertEquals(1, mergeNeighbours(0, 0, COLOR, LIGHT));
+        assertEquals(2, mergeNeighbours(1, 0, COLOR, LIGHT), "Different sprites");
+        assertEquals(2, mergeNeighbours(0, 1, COLOR, LIGHT), "Different sprite orientations");
+        assertEquals(2, mergeNeighbours(0, 0, 0xFF7FBF3F, LIGHT), "Different colors");
+        assertEquals(2, mergeNeighbours(0, 0, COLOR, 0x00F00080), "Different light");
+    }
+
+    @Test
+    public void testResetDiscardsFaces() {
+        ChunkFaceMerger merger = new ChunkFaceMerger();
+
+        assertTrue(merger.add(ModelQuadFacing.NORTH, 1, 2, 3, createFace(ModelQuadFacing.NORTH, 0, 0), getMinU(0),
+                0.0f, getMaxU(0), SPRITE_SIZE, COLOR, LIGHT));
+
+        merger.reset();
+
+        assertEquals(0, merger.flush(new RecordingBuffers()));
+    }
+
+    /**
+     * Terrain which is made of a single block needs far fewer quads once its faces are merged, even with uneven ground
+     * and caves breaking up the faces.
+     */
+    @Test
+    public void testMergingReducesQuadCount() {
+        int faceCount = 0;
+        int quadCount = 0;
+
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            int[] blocks = createTerrain(random, 1);
+
+            ChunkFaceMerger merger = new ChunkFaceMerger();
+
+            faceCount += addExposedFaces(merger, blocks, new Face[6 * 4096], null);
+            quadCount += merger.flush(new RecordingBuffers());
+        }
+
+        assertTrue(quadCount * 2 < faceCount, "Merging must remove at least half of the quads, but " +
+                faceCount + " faces were merged into " + quadCount + " quads");
+    }
+
+    /**
+     * Merges the faces of two neighbouring blocks, where the first face has the default sprite, orientation, color and
+     * light and the second face has the given ones.
+     * @return The number of quads the faces were merged into
+     */
+    private static int mergeNeighbours(int sprite, int rotation, int color, int light) {
+        ChunkFaceMerger merger = new ChunkFaceMerger();
+
+        assertTrue(merger.add(ModelQuadFacing.SOUTH, 4, 4, 4, createFace(ModelQuadFacing.SOUTH, 0, 0), getMinU(0), 0.0f,
+                getMaxU(0), SPRITE_SIZE, COLOR, LIGHT));
+        assertTrue(merger.add(ModelQuadFacing.SOUTH, 5, 4, 4, createFace(ModelQuadFacing.SOUTH, sprite, rotation),
+                getMinU(sprite), 0.0f, getMaxU(sprite), SPRITE_SIZE, color, light));
+
+        return merger.flush(new RecordingBuffers());
+    }
+
+    /**
+     * Creates a section of terrain from a random height map.
+     * @param variants The number of different blocks the terrain is made of
+     * @return The block in each position of the section, as its sprite plus one, or zero for air
+     */
+    private static int[] createTerrain(Random random, int variants) {
+        int[] blocks = new int[4096];
+        int[] heights = new int[256];
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                // Smooth hills, with the occasional step
+                int height = 8 + (int) (3.0 * Math.sin(x * 0.4) + 2.0 * Math.cos(z * 0.3)) + random.nextInt(2);
+
+                heights[(z * 16) + x] = height;
+
+                for (int y = 0; y < height; y++) {
+                    int block = variants == 1 ? 1 : 1 + random.nextInt(variants);
+
+                    blocks[getIndex(x, y, z)] = block;
+                }
+            }
+        }
+
+        // Carve out some caves
+        for (int i = 0; i < 40; i++) {
+            int x = random.nextInt(16), y = random.nextInt(8), z = random.nextInt(16);
+            blocks[getIndex(x, y, z)] = 0;
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Adds the faces of every block which are exposed to air, or to the outside of the section.
+     * @param random The source of the random orientations and light of the faces, or null to give all faces the same
+     *               orientation and light
+     * @return The number of faces which were added
+     */
+    private static int addExposedFaces(ChunkFaceMerger merger, int[] blocks, Face[] faces, Random random) {
+        int count = 0;
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int block = blocks[getIndex(x, y, z)];
+
+                    if (block == 0) {
+                        continue;
+                    }
+
+                    for (int facingId = 0; facingId < 6; facingId++) {
+                        int axis = AXES[facingId];
+                        int step = POSITIVE[facingId] ? 1 : -1;
+
+                        int nx = x + (axis == 0 ? step : 0);
+                        int ny = y + (axis == 1 ? step : 0);
+                        int nz = z + (axis == 2 ? step : 0);
+
+                        if (isInside(nx, ny, nz) && blocks[getIndex(nx, ny, nz)] != 0) {
+                            continue;
+                        }
+
+                        ModelQuadFacing facing = ModelQuadFacing.VALUES[facingId];
+                        int sprite = block - 1;
+
+                        // Biased towards the common case of faces which are all alike
+                        int rotation = random != null && random.nextInt(4) == 0 ? random.nextInt(8) : 0;
+                        int light = random != null && random.nextInt(4) == 0 ? 0x00800080 : LIGHT;
+
+                        Face face = new Face(createFace(facing, sprite, rotation), sprite, COLOR, light);
+
+                        assertTrue(merger.add(facing, x, y, z, face.quad, getMinU(sprite), 0.0f, getMaxU(sprite),
+                                SPRITE_SIZE, face.color, face.light));
+
+                        faces[getFaceIndex(facingId, x, y, z)] = face;
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks that the given merged quad only covers faces which it may be merged from, and marks those faces as
+     * covered.
+     * @return The number of faces covered by the quad
+     */
+    private static int checkQuad(long seed, int facingId, List<Vertex> quad, Face[] faces, boolean[] covered) {
+        int axis = AXES[facingId];
+        int axisA = (axis + 1) % 3, axisB = (axis + 2) % 3;
+
+        float layer = quad.get(0).get(axis);
+
+        int minA = Integer.MAX_VALUE, maxA = Integer.MIN_VALUE, minB = Integer.MAX_VALUE, maxB = Integer.MIN_VALUE;
+
+        for (Vertex vertex : quad) {
+            assertEquals(layer, vertex.get(axis), "Seed " + seed + ": a quad must be flat");
+
+            minA = Math.min(minA, (int) vertex.get(axisA));
+            maxA = Math.max(maxA, (int) vertex.get(axisA));
+            minB = Math.min(minB, (int) vertex.get(axisB));
+            maxB = Math.max(maxB, (int) vertex.get(axisB));
+        }
+
+        // The quad must face the same way as the faces it was merged from
+        Vertex v0 = quad.get(0), v1 = quad.get(1), v2 = quad.get(2);
+        float cross = ((v1.get(axisA) - v0.get(axisA)) * (v2.get(axisB) - v0.get(axisB))) -
+                ((v1.get(axisB) - v0.get(axisB)) * (v2.get(axisA) - v0.get(axisA)));
+
+        assertEquals(POSITIVE[facingId], cross > 0.0f, "Seed " + seed + ": the winding of a quad must be preserved");
+
+        // The texture coordinates of the quad at its minimum corner, and how they change along each axis
+        Vertex origin = findCorner(quad, axisA, minA, axisB, minB);
+        Vertex cornerA = findCorner(quad, axisA, maxA, axisB, minB);
+        Vertex cornerB = findCorner(quad, axisA, minA, axisB, maxB);
+
+        float duA = (cornerA.u - origin.u) / (maxA - minA), dvA = (cornerA.v - origin.v) / (maxA - minA);
+        float duB = (cornerB.u - origin.u) / (maxB - minB), dvB = (cornerB.v - origin.v) / (maxB - minB);
+
+        int layerIdx = POSITIVE[facingId] ? (int) layer - 1 : (int) layer;
+        int count = 0;
+
+        for (int a = minA; a < maxA; a++) {
+            for (int b = minB; b < maxB; b++) {
+                int[] pos = new int[3];
+                pos[axis] = layerIdx;
+                pos[axisA] = a;
+                pos[axisB] = b;
+
+                int faceIdx = getFaceIndex(facingId, pos[0], pos[1], pos[2]);
+                Face face = faces[faceIdx];
+
+                assertNotNull(face, "Seed " + seed + ": a quad must only cover faces which were added");
+                assertFalse(covered[faceIdx], "Seed " + seed + ": a face must only be covered once");
+
+                covered[faceIdx] = true;
+                count++;
+
+                for (Vertex vertex : quad) {
+                    assertEquals(face.color, vertex.color, "Seed " + seed);
+                    assertEquals(face.light, vertex.light, "Seed " + seed);
+                    assertEquals(encode(getMinU(face.sprite), 0.0f), vertex.tileOrigin, "Seed " + seed);
+                    assertEquals(encode(SPRITE_SIZE, SPRITE_SIZE), vertex.tileSize, "Seed " + seed);
+                }
+
+                // Each vertex of the face must map onto the same point of the sprite as in the merged quad
+                for (int i = 0; i < 4; i++) {
+                    float vertexA = face.quad.getCoordinate(i, axisA) + a;
+                    float vertexB = face.quad.getCoordinate(i, axisB) + b;
+
+                    float u = origin.u + ((vertexA - minA) * duA) + ((vertexB - minB) * duB);
+                    float v = origin.v + ((vertexA - minA) * dvA) + ((vertexB - minB) * dvB);
+
+                    float expectedU = Math.round((face.quad.getTexU(i) - getMinU(face.sprite)) / SPRITE_SIZE);
+                    float expectedV = Math.round(face.quad.getTexV(i) / SPRITE_SIZE);
+
+                    assertTrue(isInteger(u - expectedU) && isInteger(v - expectedV),
+                            "Seed " + seed + ": a quad must show the sprite of each face in the same orientation");
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private static Vertex findCorner(List<Vertex> quad, int axisA, int a, int axisB, int b) {
+        for (Vertex vertex : quad) {
+            if (vertex.get(axisA) == a && vertex.get(axisB) == b) {
+                return vertex;
+            }
+        }
+
+        throw new AssertionError("A quad must have a vertex at each of its corners");
+    }
+
+    /**
+     * Creates the quad of a full face of a block, as it would be baked from a block model.
+     * @param rotation The orientation of the sprite, with the rotation in the lowest two bits and the third bit set if
+     *                 the sprite is mirrored
+     */
+    private static TestQuad createFace(ModelQuadFacing facing, int sprite, int rotation) {
+        int facingId = facing.ordinal();
+        int axis = AXES[facingId];
+
+        TestQuad quad = new TestQuad();
+
+        // Counter-clockwise when seen from the side which the face is on
+        int[][] corners = POSITIVE[facingId] ? new int[][] { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 0, 1 } }
+                : new int[][] { { 0, 0 }, { 0, 1 }, { 1, 1 }, { 1, 0 } };
+
+        for (int i = 0; i < 4; i++) {
+            int a = corners[i][0], b = corners[i][1];
+
+            quad.position[(i * 3) + axis] = POSITIVE[facingId] ? 1.0f : 0.0f;
+            quad.position[(i * 3) + ((axis + 1) % 3)] = a;
+            quad.position[(i * 3) + ((axis + 2) % 3)] = b;
+
+            int s = a, t = b;
+
+            if ((rotation & 4) != 0) {
+                s = 1 - s;
+            }
+
+            for (int r = 0; r < (rotation & 3); r++) {
+                int prev = s;
+                s = t;
+                t = 1 - prev;
+            }
+
+            quad.u[i] = getMinU(sprite) + (SPRITE_SIZE * (s == 0 ? TEXTURE_SHRINK : 1.0f - TEXTURE_SHRINK));
+            quad.v[i] = SPRITE_SIZE * (t == 0 ? TEXTURE_SHRINK : 1.0f - TEXTURE_SHRINK);
+        }
+
+        return quad;
+    }
+
+    private static float getMinU(int sprite) {
+        return sprite * SPRITE_SIZE;
+    }
+
+    private static float getMaxU(int sprite) {
+        return (sprite + 1) * SPRITE_SIZE;
+    }
+
+    private static int encode(float u, float v) {
+        return Math.round(u * 65536.0f) | (Math.round(v * 65536.0f) << 16);
+    }
+
+    private static boolean isInteger(float value) {
+        return Math.abs(value - Math.round(value)) < EPSILON;
+    }
+
+    private static boolean isInside(int x, int y, int z) {
+        return x >= 0 && x < 16 && y >= 0 && y < 16 && z >= 0 && z < 16;
+    }
+
+    private static int getIndex(int x, int y, int z) {
+        return (y * 256) + (z * 16) + x;
+    }
+
+    private static int getFaceIndex(int facingId, int x, int y, int z) {
+        return (facingId * 4096) + getIndex(x, y, z);
+    }
+
+    private static class Face {
+        final TestQuad quad;
+        final int sprite;
+        final int color;
+        final int light;
+
+        Face(TestQuad quad, int sprite, int color, int light) {
+            this.quad = quad;
+            this.sprite = sprite;
+            this.color = color;
+            this.light = light;
+        }
+    }
+
+    private static class TestQuad implements ModelQuadView {
+        final float[] position = new float[12];
+        final float[] u = new float[4];
+        final float[] v = new float[4];
+
+        float getCoordinate(int idx, int axis) {
+            return this.position[(idx * 3) + axis];
+        }
+
+        /**
+         * Moves every vertex onto the given offset along the given axis.
+         */
+        void setCoordinate(int axis, float value) {
+            for (int i = 0; i < 4; i++) {
+                this.position[(i * 3) + axis] = value;
+            }
+        }
+
+        /**
+         * Moves the vertices at the far edge along the given axis to the given offset.
+         */
+        void setEdge(int axis, float value) {
+            for (int i = 0; i < 4; i++) {
+                if (this.position[(i * 3) + axis] == 1.0f) {
+                    this.position[(i * 3) + axis] = value;
+                }
+            }
+        }
+
+        @Override
+        public float getX(int idx) {
+            return this.position[idx * 3];
+        }
+
+        @Override
+        public float getY(int idx) {
+            return this.position[(idx * 3) + 1];
+        }
+
+        @Override
+        public float getZ(int idx) {
+            return this.position[(idx * 3) + 2];
+        }
+
+        @Override
+        public int getColor(int idx) {
+            return COLOR;
+        }
+
+        @Override
+        public float getTexU(int idx) {
+            return this.u[idx];
+        }
+
+        @Override
+        public float getTexV(int idx) {
+            return this.v[idx];
+        }
+
+        @Override
+        public int getFlags() {
+            return 0;
+        }
+
+        @Override
+        public int getLight(int idx) {
+            return 0;
+        }
+
+        @Override
+        public int getNormal(int idx) {
+            return 0;
+        }
+
+        @Override
+        public int getColorIndex() {
+            return -1;
+        }
+
+        @Override
+        public TextureAtlasSprite rubidium$getSprite() {
+            return null;
+        }
+    }
+
+    private static class Vertex {
+        final float x, y, z;
+        final int color;
+        final float u, v;
+        final int light;
+        final int tileOrigin, tileSize;
+
+        Vertex(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.color = color;
+            this.u = u;
+            this.v = v;
+            this.light = light;
+            this.tileOrigin = tileOrigin;
+            this.tileSize = tileSize;
+        }
+
+        float get(int axis) {
+            return axis == 0 ? this.x : axis == 1 ? this.y : this.z;
+        }
+    }
+
+    private static class RecordingSink implements TiledModelVertexSink {
+        final List<Vertex> vertices = new ArrayList<>();
+
+        @Override
+        public void writeQuad(float x, float y, float z, int color, float u, float v, int light) {
+            this.writeTiledQuad(x, y, z, color, u, v, light, 0, 0);
+        }
+
+        @Override
+        public void writeTiledQuad(float x, float y, float z, int color, float u, float v, int light, int tileOrigin, int tileSize) {
+            this.vertices.add(new Vertex(x, y, z, color, u, v, light, tileOrigin, tileSize));
+        }
+
+        @Override
+        public void ensureCapacity(int count) {
+
+        }
+
+        @Override
+        public void flush() {
+
+        }
+    }
+
+    private static class RecordingBuffers implements ChunkModelBuffers {
+        final RecordingSink[] sinks = new RecordingSink[ModelQuadFacing.COUNT];
+
+        RecordingBuffers() {
+            for (int i = 0; i < this.sinks.length; i++) {
+                this.sinks[i] = new RecordingSink();
+            }
+        }
+
+        int getVertexCount() {
+            int count = 0;
+
+            for (RecordingSink sink : this.sinks) {
+                count += sink.vertices.size();
+            }
+
+            return count;
+        }
+
+        @Override
+        public ModelVertexSink getSink(ModelQuadFacing facing) {
+            return this.sinks[facing.ordinal()];
+        }
+
+        @Override
+        public ChunkRenderData.Builder getRenderData() {
+            return null;
+        }
+    }
+}
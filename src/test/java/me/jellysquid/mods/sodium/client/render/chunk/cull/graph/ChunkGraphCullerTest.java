@@ -0,0 +1,724 @@
+package me.jellysquid.mods.sodium.client.render.chunk.cull.graph;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import me.jellysquid.mods.sodium.client.render.chunk.cull.ChunkCuller;
+import me.jellysquid.mods.sodium.client.util.math.FrustumExtended;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.client.Camera;
+import net.minecraft.client.renderer.chunk.VisibilitySet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkGraphCullerTest {
+    private static final int RENDER_DISTANCE = 6;
+
+    /**
+     * The cached search must find every section which the search with the frustum finds, and mark at least the same
+     * sections as visible, while the camera moves and turns and the graph changes between frames.
+     */
+    @Test
+    public void testCachedSearchFindsEverySectionOfFrustumSearch() {
+        for (long seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+
+            TestWorld world = new TestWorld(random);
+
+            ChunkGraphCuller uncached = world.createCuller(false);
+            ChunkGraphCuller cached = world.createCuller(true);
+
+            boolean useOcclusionCulling = random.nextInt(4) != 0;
+
+            BlockPos origin = world.randomOrigin(random);
+
+            for (int frame = 1; frame <= 60; frame++) {
+                // Mostly turn the camera within the same section, as that is when the cached search is re-used
+                if (random.nextInt(5) == 0) {
+                    origin = world.randomOrigin(random);
+                }
+
+                if (random.nextInt(4) == 0) {
+                    world.mutate(random, uncached, cached);
+                }
+
+                FrustumExtended frustum = PlaneFrustum.random(random, origin);
+
+                IntSet expected = toSet(uncached.computeVisible(origin, frustum, frame, useOcclusionCulling, false));
+                IntSet actual = toSet(cached.computeVisible(origin, frustum, frame, useOcclusionCulling, false));
+
+                for (int id : expected) {
+                    assertTrue(actual.contains(id), "Seed " + seed + ", frame " + frame + ": section " + id +
+                            " is visible to the frustum search, but not to the cached search");
+                }
+
+                for (long pos : world.getSections()) {
+                    int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+
+                    if (uncached.isSectionVisible(x, y, z)) {
+                        assertTrue(cached.isSectionVisible(x, y, z), "Seed " + seed + ", frame " + frame +
+                                ": section " + x + ", " + y + ", " + z + " is only marked visible by the frustum search");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The search over the flat section arrays must find the same sections in the same order as the search over linked
+     * graph nodes it replaced, and mark the same sections as visible.
+     */
+    @Test
+    public void testSearchMatchesNodeGraphSearch() {
+        for (long seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+
+            TestWorld world = new TestWorld(random);
+
+            ChunkGraphCuller culler = world.createCuller(false);
+            NodeGraphCuller reference = world.createNodeGraphCuller();
+
+            for (int frame = 1; frame <= 30; frame++) {
+                if (random.nextInt(3) == 0) {
+                    world.mutate(random, culler, reference);
+                }
+
+                BlockPos origin = world.randomOrigin(random);
+                FrustumExtended frustum = PlaneFrustum.random(random, origin);
+
+                boolean useOcclusionCulling = random.nextInt(4) != 0;
+                boolean insideSolidBlock = random.nextInt(8) == 0;
+
+                IntArrayList expected = reference.computeVisible(origin, frustum, frame, useOcclusionCulling,
+                        insideSolidBlock);
+                IntArrayList actual = culler.computeVisible(origin, frustum, frame, useOcclusionCulling,
+                        insideSolidBlock);
+
+                assertEquals(expected, actual, "Seed " + seed + ", frame " + frame + ": visible sections differ");
+
+                for (long pos : world.getSections()) {
+                    int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+
+                    assertEquals(reference.isSectionVisible(x, y, z), culler.isSectionVisible(x, y, z), "Seed " + seed +
+                            ", frame " + frame + ": section " + x + ", " + y + ", " + z + " is marked differently");
+                }
+            }
+        }
+    }
+
+    /**
+     * A culler which re-uses its last search when nothing changed must return the same result as a culler which
+     * searches from scratch, while the graph, the camera, the frustum and the flags change every few frames.
+     */
+    @Test
+    public void testReusedSearchMatchesNewSearch() {
+        for (long seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+
+            TestWorld world = new TestWorld(random);
+            boolean cacheReachableSections = random.nextBoolean();
+
+            ChunkGraphCuller culler = world.createCuller(cacheReachableSections);
+
+            BlockPos origin = world.randomOrigin(random);
+            FrustumExtended frustum = PlaneFrustum.random(random, origin);
+
+            boolean useOcclusionCulling = true;
+            boolean insideSolidBlock = false;
+
+            IntArrayList previous = null;
+
+            for (int frame = 1; frame <= 60; frame++) {
+                boolean changed = false;
+
+                switch (random.nextInt(8)) {
+                    case 0:
+                        world.mutate(random, culler);
+                        changed = true;
+                        break;
+                    case 1:
+                        origin = world.randomOrigin(random);
+                        frustum = PlaneFrustum.random(random, origin);
+                        changed = true;
+                        break;
+                    case 2:
+                        frustum = PlaneFrustum.random(random, origin);
+                        changed = true;
+                        break;
+                    case 3:
+                        useOcclusionCulling = !useOcclusionCulling;
+                        changed = true;
+                        break;
+                    case 4:
+                        insideSolidBlock = !insideSolidBlock;
+                        changed = true;
+                        break;
+                    default:
+                        // Keep every input the same, which is when the last search is re-used
+                        break;
+                }
+
+                IntArrayList actual = new IntArrayList(culler.computeVisible(origin, frustum, frame,
+                        useOcclusionCulling, insideSolidBlock));
+
+                if (!changed && previous != null) {
+                    assertEquals(previous, actual, "Seed " + seed + ", frame " + frame + ": re-used search differs");
+                }
+
+                ChunkGraphCuller fresh = world.createCuller(cacheReachableSections);
+                IntArrayList expected = fresh.computeVisible(origin, frustum, frame, useOcclusionCulling,
+                        insideSolidBlock);
+
+                assertEquals(expected, actual, "Seed " + seed + ", frame " + frame + ": visible sections differ");
+
+                for (long pos : world.getSections()) {
+                    int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+
+                    assertEquals(fresh.isSectionVisible(x, y, z), culler.isSectionVisible(x, y, z), "Seed " + seed +
+                            ", frame " + frame + ": section " + x + ", " + y + ", " + z + " is marked differently");
+                }
+
+                previous = actual;
+            }
+        }
+    }
+
+    private static IntSet toSet(IntArrayList list) {
+        IntSet set = new IntOpenHashSet();
+
+        for (int i = 0; i < list.size(); i++) {
+            assertTrue(set.add(list.getInt(i)), "Section " + list.getInt(i) + " is visible more than once");
+        }
+
+        return set;
+    }
+
+    /**
+     * A randomly generated world of loaded sections around the origin, with random occlusion data.
+     */
+    static class TestWorld {
+        private static final int EXTENT = RENDER_DISTANCE + 2;
+
+        private final List<Section> sections = new ArrayList<>();
+
+        private int nextId;
+
+        TestWorld(Random random) {
+            for (int x = -EXTENT; x <= EXTENT; x++) {
+                for (int z = -EXTENT; z <= EXTENT; z++) {
+                    if (random.nextInt(20) == 0) {
+                        continue;
+                    }
+
+                    for (int y = 0; y < 16; y++) {
+                        if (random.nextInt(30) != 0) {
+                            this.sections.add(new Section(x, y, z, this.nextId++, randomVisibility(random)));
+                        }
+                    }
+                }
+            }
+        }
+
+        ChunkGraphCuller createCuller(boolean cacheReachableSections) {
+            ChunkGraphCuller culler = new ChunkGraphCuller(null, RENDER_DISTANCE, cacheReachableSections);
+
+            for (Section section : this.sections) {
+                if (!section.loaded) {
+                    continue;
+                }
+
+                culler.onSectionLoaded(section.x, section.y, section.z, section.id);
+                culler.onSectionStateChanged(section.x, section.y, section.z, section.visibility);
+            }
+
+            return culler;
+        }
+
+        NodeGraphCuller createNodeGraphCuller() {
+            NodeGraphCuller culler = new NodeGraphCuller(RENDER_DISTANCE);
+
+            for (Section section : this.sections) {
+                if (!section.loaded) {
+                    continue;
+                }
+
+                culler.onSectionLoaded(section.x, section.y, section.z, section.id);
+                culler.onSectionStateChanged(section.x, section.y, section.z, section.visibility);
+            }
+
+            return culler;
+        }
+
+        /**
+         * Changes the occlusion data of a few sections, and unloads or reloads a few others.
+         */
+        void mutate(Random random, ChunkCuller... cullers) {
+            for (int i = 0; i < 4; i++) {
+                Section section = this.sections.get(random.nextInt(this.sections.size()));
+
+                if (!section.loaded) {
+                    section.loaded = true;
+                    section.id = this.nextId++;
+
+                    for (ChunkCuller culler : cullers) {
+                        culler.onSectionLoaded(section.x, section.y, section.z, section.id);
+                        culler.onSectionStateChanged(section.x, section.y, section.z, section.visibility);
+                    }
+                } else if (random.nextInt(3) == 0) {
+                    section.loaded = false;
+
+                    for (ChunkCuller culler : cullers) {
+                        culler.onSectionUnloaded(section.x, section.y, section.z);
+                    }
+                } else {
+                    section.visibility = randomVisibility(random);
+
+                    for (ChunkCuller culler : cullers) {
+                        culler.onSectionStateChanged(section.x, section.y, section.z, section.visibility);
+                    }
+                }
+            }
+        }
+
+        List<Long> getSections() {
+            List<Long> positions = new ArrayList<>();
+
+            for (Section section : this.sections) {
+                if (section.loaded) {
+                    positions.add(BlockPos.asLong(section.x, section.y, section.z));
+                }
+            }
+
+            return positions;
+        }
+
+        BlockPos randomOrigin(Random random) {
+            int range = (RENDER_DISTANCE << 4) / 2;
+
+            // Occasionally place the camera outside the world, where the search starts from the frustum instead
+            int y = random.nextInt(10) == 0 ? -40 : random.nextInt(256);
+
+            return new BlockPos(random.nextInt(range * 2) - range, y, random.nextInt(range * 2) - range);
+        }
+
+        private static VisibilitySet randomVisibility(Random random) {
+            VisibilitySet visibility = new VisibilitySet();
+            int kind = random.nextInt(10);
+
+            if (kind < 3) {
+                visibility.setAll(true);
+            } else if (kind < 5) {
+                visibility.setAll(false);
+            } else {
+                for (Direction a : Direction.values()) {
+                    for (Direction b : Direction.values()) {
+                        if (a.ordinal() < b.ordinal() && random.nextInt(5) < 2) {
+                            visibility.set(a, b, true);
+                        }
+                    }
+                }
+            }
+
+            return visibility;
+        }
+
+        private static class Section {
+            private final int x, y, z;
+            private int id;
+            private VisibilitySet visibility;
+            private boolean loaded = true;
+
+            Section(int x, int y, int z, int id, VisibilitySet visibility) {
+                this.x = x;
+                this.y = y;
+                this.z = z;
+                this.id = id;
+                this.visibility = visibility;
+            }
+        }
+    }
+
+    /**
+     * The culler as it was before the graph was kept in flat arrays, with a node object for each section which links to
+     * its neighbours. The last visible frame of a node doubles as the marker for whether the search visited it.
+     */
+    static class NodeGraphCuller implements ChunkCuller {
+        private static final float FRUSTUM_EPSILON = 1.0f + 0.125f;
+
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private final List<Node> visible = new ArrayList<>();
+        private final int renderDistance;
+
+        private FrustumExtended frustum;
+        private boolean useOcclusionCulling;
+
+        private int activeFrame = 0;
+        private int centerChunkX, centerChunkZ;
+
+        NodeGraphCuller(int renderDistance) {
+            this.renderDistance = renderDistance;
+        }
+
+        IntArrayList computeVisible(BlockPos origin, FrustumExtended frustum, int frame, boolean useOcclusionCulling,
+                                    boolean insideSolidBlock) {
+            this.initSearch(origin, frustum, frame, useOcclusionCulling, insideSolidBlock);
+
+            for (int i = 0; i < this.visible.size(); i++) {
+                Node node = this.visible.get(i);
+                short cullData = node.computeQueuePop();
+
+                for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                    if (this.useOcclusionCulling && (cullData & (1 << dir.ordinal())) == 0) {
+                        continue;
+                    }
+
+                    Node adj = node.adjacent[dir.ordinal()];
+
+                    if (adj != null && this.isWithinRenderDistance(adj)) {
+                        this.bfsEnqueue(adj, dir.getOpposite(), cullData);
+                    }
+                }
+            }
+
+            IntArrayList ids = new IntArrayList();
+
+            for (Node node : this.visible) {
+                ids.add(node.id);
+            }
+
+            return ids;
+        }
+
+        private boolean isWithinRenderDistance(Node adj) {
+            int x = Math.abs(adj.x - this.centerChunkX);
+            int z = Math.abs(adj.z - this.centerChunkZ);
+
+            return x <= this.renderDistance && z <= this.renderDistance;
+        }
+
+        private void initSearch(BlockPos origin, FrustumExtended frustum, int frame, boolean useOcclusionCulling,
+                                boolean insideSolidBlock) {
+            this.activeFrame = frame;
+            this.frustum = frustum;
+            this.useOcclusionCulling = useOcclusionCulling;
+
+            this.visible.clear();
+
+            int chunkX = origin.getX() >> 4;
+            int chunkY = origin.getY() >> 4;
+            int chunkZ = origin.getZ() >> 4;
+
+            this.centerChunkX = chunkX;
+            this.centerChunkZ = chunkZ;
+
+            Node rootNode = this.getNode(chunkX, chunkY, chunkZ);
+
+            if (rootNode != null) {
+                rootNode.cullingState = -1;
+                rootNode.lastVisibleFrame = frame;
+
+                if (insideSolidBlock) {
+                    this.useOcclusionCulling = false;
+                }
+
+                this.visible.add(rootNode);
+            } else {
+                chunkY = Mth.clamp(origin.getY() >> 4, 0, 15);
+
+                List<Node> bestNodes = new ArrayList<>();
+
+                for (int x2 = -this.renderDistance; x2 <= this.renderDistance; ++x2) {
+                    for (int z2 = -this.renderDistance; z2 <= this.renderDistance; ++z2) {
+                        Node node = this.getNode(chunkX + x2, chunkY, chunkZ + z2);
+
+                        if (node == null || node.isCulledByFrustum(frustum)) {
+                            continue;
+                        }
+
+                        node.cullingState = -1;
+                        node.lastVisibleFrame = frame;
+
+                        bestNodes.add(node);
+                    }
+                }
+
+                bestNodes.sort(Comparator.comparingDouble(node -> node.getSquaredDistance(origin)));
+
+                this.visible.addAll(bestNodes);
+            }
+        }
+
+        private void bfsEnqueue(Node node, Direction flow, short parentalData) {
+            if (node.lastVisibleFrame == this.activeFrame) {
+                node.updateCullingState(flow, parentalData);
+                return;
+            }
+
+            node.lastVisibleFrame = this.activeFrame;
+
+            if (node.isCulledByFrustum(this.frustum)) {
+                return;
+            }
+
+            node.cullingState = (short) (parentalData & 0xFF00);
+            node.updateCullingState(flow, parentalData);
+
+            this.visible.add(node);
+        }
+
+        private Node getNode(int x, int y, int z) {
+            return this.nodes.get(SectionPos.asLong(x, y, z));
+        }
+
+        @Override
+        public IntArrayList computeVisible(Camera camera, FrustumExtended frustum, int frame, boolean spectator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onSectionStateChanged(int x, int y, int z, VisibilitySet occlusionData) {
+            Node node = this.getNode(x, y, z);
+
+            if (node != null) {
+                node.visibilityData = calculateVisibilityData(occlusionData);
+            }
+        }
+
+        @Override
+        public void onSectionLoaded(int x, int y, int z, int id) {
+            Node node = new Node(x, y, z, id);
+            Node prev = this.nodes.put(SectionPos.asLong(x, y, z), node);
+
+            if (prev != null) {
+                this.disconnect(prev);
+            }
+
+            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                Node adj = this.getNode(x + dir.getStepX(), y + dir.getStepY(), z + dir.getStepZ());
+
+                if (adj != null) {
+                    adj.adjacent[dir.getOpposite().ordinal()] = node;
+                }
+
+                node.adjacent[dir.ordinal()] = adj;
+            }
+        }
+
+        @Override
+        public void onSectionUnloaded(int x, int y, int z) {
+            Node node = this.nodes.remove(SectionPos.asLong(x, y, z));
+
+            if (node != null) {
+                this.disconnect(node);
+            }
+        }
+
+        private void disconnect(Node node) {
+            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                Node adj = node.adjacent[dir.ordinal()];
+
+                if (adj != null) {
+                    adj.adjacent[dir.getOpposite().ordinal()] = null;
+                }
+
+                node.adjacent[dir.ordinal()] = null;
+            }
+        }
+
+        private static long calculateVisibilityData(VisibilitySet occlusionData) {
+            long visibilityData = 0;
+
+            for (Direction from : DirectionUtil.ALL_DIRECTIONS) {
+                for (Direction to : DirectionUtil.ALL_DIRECTIONS) {
+                    if (occlusionData == null || occlusionData.visibilityBetween(from, to)) {
+                        visibilityData |= (1L << ((from.ordinal() << 3) + to.ordinal()));
+                    }
+                }
+            }
+
+            return visibilityData;
+        }
+
+        @Override
+        public boolean isSectionVisible(int x, int y, int z) {
+            Node node = this.getNode(x, y, z);
+
+            return node != null && node.lastVisibleFrame == this.activeFrame;
+        }
+
+        @Override
+        public String getDebugString() {
+            return "";
+        }
+
+        private static class Node {
+            private final Node[] adjacent = new Node[DirectionUtil.DIRECTION_COUNT];
+
+            private final int x, y, z;
+            private final int id;
+
+            private int lastVisibleFrame = -1;
+
+            private long visibilityData = calculateVisibilityData(null);
+            private short cullingState;
+
+            Node(int x, int y, int z, int id) {
+                this.x = x;
+                this.y = y;
+                this.z = z;
+                this.id = id;
+            }
+
+            short computeQueuePop() {
+                short retVal = (short) (this.cullingState & (((this.cullingState >> 8) & 0xFF) | 0xFF00));
+                this.cullingState = 0;
+                return retVal;
+            }
+
+            void updateCullingState(Direction flow, short parent) {
+                int inbound = flow.ordinal();
+                this.cullingState |= (this.visibilityData >> (inbound << 3)) & 0xFF;
+                this.cullingState &= ~(1 << (inbound + 8));
+                this.cullingState &= parent | 0x00FF;
+            }
+
+            boolean isCulledByFrustum(FrustumExtended frustum) {
+                float x = this.x << 4;
+                float y = this.y << 4;
+                float z = this.z << 4;
+
+                return !frustum.fastAabbTest(x - FRUSTUM_EPSILON, y - FRUSTUM_EPSILON, z - FRUSTUM_EPSILON,
+                        x + 16.0f + FRUSTUM_EPSILON, y + 16.0f + FRUSTUM_EPSILON, z + 16.0f + FRUSTUM_EPSILON);
+            }
+
+            double getSquaredDistance(BlockPos pos) {
+                double xDist = (pos.getX() + 0.5D) - ((this.x << 4) + 8.0D);
+                double yDist = (pos.getY() + 0.5D) - ((this.y << 4) + 8.0D);
+                double zDist = (pos.getZ() + 0.5D) - ((this.z << 4) + 8.0D);
+
+                return (xDist * xDist) + (yDist * yDist) + (zDist * zDist);
+            }
+        }
+    }
+
+    /**
+     * A frustum made of planes through the camera position, like a view frustum without the near and far planes.
+     */
+    static class PlaneFrustum implements FrustumExtended {
+        // Keeps the classification of boxes which touch a plane conservative, despite rounding errors
+        private static final float EPSILON = 1.0e-3f;
+
+        private final float[] planes;
+
+        PlaneFrustum(float[] planes) {
+            this.planes = planes;
+        }
+
+        /**
+         * Creates a frustum with a field of view of 70 degrees looking in a random direction from the given position.
+         */
+        static PlaneFrustum random(Random random, BlockPos origin) {
+            double yaw = random.nextDouble() * Math.PI * 2.0D;
+            double pitch = (random.nextDouble() - 0.5D) * Math.PI * 0.9D;
+
+            double[] forward = { Math.cos(pitch) * Math.sin(yaw), Math.sin(pitch), Math.cos(pitch) * Math.cos(yaw) };
+            double[] right = normalize(cross(forward, new double[] { 0.0D, 1.0D, 0.0D }));
+            double[] up = cross(right, forward);
+
+            double tan = Math.tan(Math.toRadians(35.0D));
+
+            double cx = origin.getX() + 0.5D;
+            double cy = origin.getY() + 0.5D;
+            double cz = origin.getZ() + 0.5D;
+
+            float[] planes = new float[16];
+            int i = 0;
+
+            for (double[] side : new double[][] { right, up }) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    double nx = (forward[0] * tan) + (side[0] * sign);
+                    double ny = (forward[1] * tan) + (side[1] * sign);
+                    double nz = (forward[2] * tan) + (side[2] * sign);
+
+                    planes[i++] = (float) nx;
+                    planes[i++] = (float) ny;
+                    planes[i++] = (float) nz;
+                    planes[i++] = (float) -((nx * cx) + (ny * cy) + (nz * cz));
+                }
+            }
+
+            return new PlaneFrustum(planes);
+        }
+
+        @Override
+        public boolean fastAabbTest(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+            for (int i = 0; i < this.planes.length; i += 4) {
+                if (this.distance(i, minX, minY, minZ, maxX, maxY, maxZ, true) < 0.0f) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int classifyAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+            boolean inside = true;
+
+            for (int i = 0; i < this.planes.length; i += 4) {
+                if (this.distance(i, minX, minY, minZ, maxX, maxY, maxZ, true) < -EPSILON) {
+                    return OUTSIDE;
+                }
+
+                if (this.distance(i, minX, minY, minZ, maxX, maxY, maxZ, false) < EPSILON) {
+                    inside = false;
+                }
+            }
+
+            return inside ? INSIDE : INTERSECT;
+        }
+
+        @Override
+        public boolean captureState(float[] state) {
+            System.arraycopy(this.planes, 0, state, 0, this.planes.length);
+
+            return true;
+        }
+
+        /**
+         * @return The distance of the corner of the box which is the furthest in front of the plane, or the furthest
+         * behind the plane if {@param front} is false
+         */
+        private float distance(int i, float minX, float minY, float minZ, float maxX, float maxY, float maxZ, boolean front) {
+            float x = this.planes[i], y = this.planes[i + 1], z = this.planes[i + 2], w = this.planes[i + 3];
+
+            float px = (x >= 0.0f) == front ? maxX : minX;
+            float py = (y >= 0.0f) == front ? maxY : minY;
+            float pz = (z >= 0.0f) == front ? maxZ : minZ;
+
+            return (x * px) + (y * py) + (z * pz) + w;
+        }
+
+        private static double[] cross(double[] a, double[] b) {
+            return new double[] { (a[1] * b[2]) - (a[2] * b[1]), (a[2] * b[0]) - (a[0] * b[2]), (a[0] * b[1]) - (a[1] * b[0]) };
+        }
+
+        private static double[] normalize(double[] v) {
+            double length = Math.sqrt((v[0] * v[0]) + (v[1] * v[1]) + (v[2] * v[2]));
+
+            return new double[] { v[0] / length, v[1] / length, v[2] / length };
+        }
+    }
+}
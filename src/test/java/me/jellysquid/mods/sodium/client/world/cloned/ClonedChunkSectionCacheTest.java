@@ -0,0 +1,197 @@
+package me.jellysquid.mods.sodium.client.world.cloned;
+
+import net.minecraft.core.SectionPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClonedChunkSectionCacheTest {
+    @Test
+    public void testInvalidatedSectionStaysValidUntilReleased() {
+        TestCache cache = new TestCache();
+
+        TestSection first = (TestSection) cache.acquire(1, 2, 3);
+        cache.invalidate(1, 2, 3);
+
+        // The task holding the old copy must still see it, while new tasks get a fresh copy
+        assertEquals(SectionPos.asLong(1, 2, 3), first.key.get());
+
+        TestSection second = (TestSection) cache.acquire(1, 2, 3);
+        assertNotSame(first, second);
+
+        cache.release(first);
+        assertEquals(TestSection.RESET, first.key.get());
+
+        // The recycled section is handed out again by the next clone
+        TestSection third = (TestSection) cache.acquire(4, 5, 6);
+        assertSame(first, third);
+
+        cache.release(second);
+        cache.release(third);
+
+        assertEquals(2, cache.created.size());
+        assertTrue(cache.failures.isEmpty(), String.valueOf(cache.failures.peek()));
+    }
+
+    @Test
+    public void testReleasingTooOftenFails() {
+        TestCache cache = new TestCache();
+
+        ClonedChunkSection section = cache.acquire(0, 0, 0);
+        cache.release(section);
+        cache.invalidate(0, 0, 0);
+
+        assertThrows(IllegalStateException.class, () -> cache.release(section));
+    }
+
+    /**
+     * Acquires and releases sections from several threads while another thread invalidates sections and expires the
+     * cache. There are more positions than the cache can hold, so sections are constantly evicted and recycled. A
+     * section must never be recycled or re-initialized while anything still holds a reference to it, and every
+     * section must be recycled once all references are gone.
+     */
+    @Test
+    public void testConcurrentAcquireReleaseAndInvalidate() throws InterruptedException {
+        TestCache cache = new TestCache();
+
+        int positions = 2048;
+        int workers = 6;
+        int iterations = 5000;
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < workers; t++) {
+            long seed = t;
+
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+
+                for (int i = 0; i < iterations; i++) {
+                    int pos = random.nextInt(positions);
+                    int x = pos & 15, y = (pos >> 4) & 15, z = pos >> 8;
+
+                    TestSection section = (TestSection) cache.acquire(x, y, z);
+                    long expected = SectionPos.asLong(x, y, z);
+
+                    // Hold on to the section for a while, so that other threads have a chance to recycle it
+                    for (int j = 0; j < 64; j++) {
+                        if (section.key.get() != expected) {
+                            cache.failures.add("Section was recycled while it was still referenced");
+                        }
+                    }
+
+                    cache.release(section);
+                }
+            }));
+        }
+
+        Thread invalidator = new Thread(() -> {
+            Random random = new Random(-1);
+            await(start);
+
+            while (running.get()) {
+                int pos = random.nextInt(positions);
+                cache.invalidate(pos & 15, (pos >> 4) & 15, pos >> 8);
+
+                if (random.nextInt(64) == 0) {
+                    cache.cleanup();
+                }
+            }
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        invalidator.start();
+        start.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        running.set(false);
+        invalidator.join();
+
+        assertTrue(cache.failures.isEmpty(), String.valueOf(cache.failures.peek()));
+
+        // Once the cache drops its own references, nothing references any section anymore
+        for (int pos = 0; pos < positions; pos++) {
+            cache.invalidate(pos & 15, (pos >> 4) & 15, pos >> 8);
+        }
+
+        for (TestSection section : cache.created) {
+            assertEquals(TestSection.RESET, section.key.get(), "Section was not recycled after its last release");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class TestCache extends ClonedChunkSectionCache {
+        private final Queue<TestSection> created = new ConcurrentLinkedQueue<>();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        TestCache() {
+            super(null);
+        }
+
+        @Override
+        ClonedChunkSection newSection() {
+            TestSection section = new TestSection(this);
+            this.created.add(section);
+
+            return section;
+        }
+    }
+
+    /**
+     * A section which only records the position it was initialized with, instead of copying any world data.
+     */
+    private static class TestSection extends ClonedChunkSection {
+        private static final long RESET = Long.MIN_VALUE;
+
+        private final AtomicLong key = new AtomicLong(RESET);
+        private final TestCache cache;
+
+        TestSection(TestCache cache) {
+            super(cache, null);
+
+            this.cache = cache;
+        }
+
+        @Override
+        public void init(SectionPos pos) {
+            if (!this.key.compareAndSet(RESET, pos.asLong())) {
+                this.cache.failures.add("Section was initialized while it was still in use");
+            }
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+
+            if (this.key.getAndSet(RESET) == RESET) {
+                this.cache.failures.add("Section was recycled twice");
+            }
+        }
+    }
+}